@@ -0,0 +1,73 @@
+package handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable Lex V2 responses returned by the Lambda Function. The constant parts of a response, such as the session
+ * state and the response card with the table operations, are built once and shared by every conversation turn.
+ */
+public final class LexResponse {
+
+    /**
+     * Greetings the bot echoes back to the user.
+     */
+    public static final Set<String> greetings = Set.of("hi", "hello", "hey", "good morning", "good afternoon", "good evening");
+
+    private static final Map<String, Object> elicitIntentSessionState = Map.of("dialogAction", Map.of("type", "ElicitIntent"));
+
+    /**
+     * A response card is shown to the user in a chat box. When we use a response card, the response
+     * from the user is constrained to the text associated with a button on the card.
+     */
+    private static final Map<String, Object> operationsCard = Map.of(
+            "contentType", "ImageResponseCard",
+            "imageResponseCard", Map.of(
+                    "title", " ",
+                    "buttons", List.of(button("Get"), button("Insert"), button("Remove"), button("Update"))));
+
+    private LexResponse() {
+
+    }
+
+    /**
+     * Creates a response that elicits the next intent and shows the table operations card below the message.
+     * @param content The text of the message.
+     * @return Lex V2 response.
+     */
+    public static Map<String, Object> elicitIntentWithOperationsCard(String content) {
+        return response(List.of(plainText(content), operationsCard));
+    }
+
+    /**
+     * Creates a response that elicits the next intent and displays multiple messages.
+     * @param contents Texts of the messages.
+     * @return Lex V2 response.
+     */
+    public static Map<String, Object> elicitIntent(Iterable<String> contents) {
+        List<Map<String, Object>> messages = new ArrayList<>();
+        for (String content : contents)
+            messages.add(plainText(content));
+        return response(Collections.unmodifiableList(messages));
+    }
+
+    /**
+     * Creates a plain text message.
+     * @param content Message to display.
+     * @return Lex V2 message.
+     */
+    public static Map<String, Object> plainText(String content) {
+        return Map.of("contentType", "PlainText", "content", content);
+    }
+
+    private static Map<String, Object> response(List<Map<String, Object>> messages) {
+        return Map.of("sessionState", elicitIntentSessionState, "messages", messages);
+    }
+
+    private static Map<String, Object> button(String text) {
+        return Map.of("text", text, "value", text);
+    }
+}
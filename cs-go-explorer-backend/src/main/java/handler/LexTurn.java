@@ -0,0 +1,63 @@
+package handler;
+
+import java.util.Map;
+
+/**
+ * The context of a single Lex V2 conversation turn. Each invocation gets its own instance,
+ * so concurrent sessions handled by the same JVM never share request state.
+ */
+public class LexTurn {
+
+    private final Map<String, Object> event;
+
+    /**
+     * @param event The Lambda Function event sent by Lex V2.
+     */
+    public LexTurn(Map<String, Object> event) {
+        this.event = event;
+    }
+
+    /**
+     * Gets the text that the user entered.
+     * @return Input transcript.
+     */
+    public String getInputTranscript() {
+        return (String) event.get("inputTranscript");
+    }
+
+    /**
+     * Gets intent name.
+     * @return Intent name.
+     */
+    public String getIntentName() {
+        return (String) getIntent().get("name");
+    }
+
+    /**
+     * Gets slot value.
+     * @param slotName Slot name.
+     * @return Value in a slot.
+     */
+    public String getSlotValue(String slotName) {
+        Map<String, Object> slots = (Map<String, Object>) getIntent().get("slots");
+        Map<String, Object> slot = (Map<String, Object>) slots.get(slotName);
+        return (String) ((Map<String, Object>) slot.get("value")).get("originalValue");
+    }
+
+    /**
+     * Gets session attribute value.
+     * @param attribute The name of the session attribute.
+     * @return Session attribute value.
+     */
+    public String getSessionAttribute(String attribute) {
+        return (String) ((Map<String, Object>) getSessionState().get("sessionAttributes")).get(attribute);
+    }
+
+    private Map<String, Object> getSessionState() {
+        return (Map<String, Object>) event.get("sessionState");
+    }
+
+    private Map<String, Object> getIntent() {
+        return (Map<String, Object>) getSessionState().get("intent");
+    }
+}
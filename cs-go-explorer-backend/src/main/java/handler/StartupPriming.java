@@ -0,0 +1,153 @@
+package handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import services.ClientRegistry;
+import services.api.steam.SteamHttpClient;
+import services.api.steam.SteamJson;
+import services.api.steam.SteamRequestCoalescer;
+import services.api.steam.SteamResponseCache;
+import services.database.DynamoDB;
+import software.amazon.awssdk.core.exception.SdkException;
+
+/**
+ * Runs the expensive setup of the Lambda function before the first request is served: class loading, AWS SDK client
+ * and JSON serializer initialization, a dry run of the DynamoDB request path, and the Steam readers and writers run on
+ * canned responses. The startup-optimized mode is turned on with the STARTUP_PRIMING environment variable. With
+ * SnapStart the priming runs in the beforeCheckpoint hook, so it is captured in the snapshot, otherwise it runs during
+ * the init phase. Connections opened while priming are dropped after a restore, since they are stale by then.
+ */
+public class StartupPriming implements Resource {
+
+    private static final StartupPriming instance = new StartupPriming();
+    private static final boolean enabled = Boolean.parseBoolean(System.getenv("STARTUP_PRIMING"));
+    private static volatile long startTime = System.nanoTime();
+    private static volatile boolean firstResponseRecorded;
+
+    // Canned Steam Web API responses with every field the readers keep
+    private static final String playerSummariesResponse = "{\"response\":{\"players\":[{\"steamid\":\"76561197960435530\"," +
+            "\"personaname\":\"Robin\",\"profileurl\":\"https://steamcommunity.com/id/robinwalker/\"," +
+            "\"avatarfull\":\"https://avatars.steamstatic.com/avatar_full.jpg\",\"communityvisibilitystate\":3}]}}";
+    private static final String playerStatsResponse = "{\"playerstats\":{\"steamID\":\"76561197960435530\"," +
+            "\"gameName\":\"ValveTestApp260\",\"stats\":[{\"name\":\"total_kills\",\"value\":1}],\"achievements\":[]}}";
+    private static final String newsResponse = "{\"appnews\":{\"appid\":730,\"newsitems\":[{\"gid\":\"1\",\"title\":\"Release Notes\"," +
+            "\"url\":\"https://steamstore-a.akamaihd.net/news/1\",\"author\":\"Valve\",\"contents\":\"Fixed a bug.\",\"date\":0}]}}";
+    private static final String friendListResponse = "{\"friendslist\":{\"friends\":[{\"steamid\":\"76561197960265731\"," +
+            "\"relationship\":\"friend\",\"friend_since\":0}]}}";
+
+    /**
+     * Registers the priming hook with the global checkpoint/restore context,
+     * or primes right away when the function is not initialized by SnapStart.
+     */
+    public static void register() {
+        if (!enabled)
+            return;
+
+        if ("snap-start".equals(System.getenv("AWS_LAMBDA_INITIALIZATION_TYPE"))) {
+            Core.getGlobalContext().register(instance);
+        } else {
+            prime();
+        }
+    }
+
+    /**
+     * Invoked before the snapshot of the initialized execution environment is taken.
+     * @param context The context the resource is registered with.
+     */
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        prime();
+    }
+
+    /**
+     * Invoked after the execution environment is restored from the snapshot.
+     * @param context The context the resource is registered with.
+     */
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        startTime = System.nanoTime();
+        firstResponseRecorded = false;
+        // The snapshot holds the connection of the describeTable call made while priming, which the restored
+        // environment must not reuse. The classes stay loaded, so the clients are cheap to create again.
+        ClientRegistry.closeClients();
+        System.out.println("Execution environment restored from the snapshot.");
+    }
+
+    /**
+     * Logs the time from the init phase or snapshot restore to the first response served by this execution environment.
+     */
+    public static void recordFirstResponse() {
+        if (firstResponseRecorded)
+            return;
+
+        firstResponseRecorded = true;
+        System.out.println("Time to first response: " + (System.nanoTime() - startTime) / 1_000_000 + " ms (priming " + (enabled ? "enabled" : "disabled") + ").");
+    }
+
+    /**
+     * Loads classes and initializes the clients and serializers used on the request path.
+     */
+    private static void prime() {
+        long primingStartTime = System.nanoTime();
+
+        // JSON serializers
+        try {
+            JSONObject jsonObject = (JSONObject) new JSONParser().parse("{\"response\":{\"players\":[]}}");
+            jsonObject.toJSONString();
+        } catch (ParseException error) {
+            error.printStackTrace();
+        }
+
+        // Steam response readers and writers, run on canned responses
+        try {
+            SteamJson.writePlayerSummaries(SteamJson.readPlayerSummaries(stream(playerSummariesResponse)), null);
+            SteamJson.writePlayerStats(SteamJson.readPlayerStats(stream(playerStatsResponse)));
+            SteamJson.writeNews(SteamJson.readNews(stream(newsResponse)));
+            SteamJson.readFriendSteamIds(stream(friendListResponse));
+        } catch (IOException error) {
+            error.printStackTrace();
+        }
+
+        // Steam transport, cache and coalescer: the HTTP/2 client with its executor, the rate limiter and the circuit
+        // breaker are created by the class initializers, without calling the Steam Web API
+        SteamHttpClient.getMetrics();
+        SteamResponseCache.getMetrics();
+        SteamRequestCoalescer.getUpstreamRequests();
+
+        // Routing and response helpers of the scan route, through its preflight branch
+        Map<String, Object> optionsEvent = new HashMap<>();
+        optionsEvent.put("httpMethod", "OPTIONS");
+        optionsEvent.put("queryStringParameters", new HashMap<String, Object>());
+        DynamoDB.scanTable(ClientRegistry.dynamoDb(), optionsEvent);
+
+        // AWS SDK clients, including request marshalling, signing and the connection pool
+        ClientRegistry.s3();
+        ClientRegistry.sns();
+        ClientRegistry.s3Async();
+        ClientRegistry.snsAsync();
+        ClientRegistry.dynamoDbAsync();
+        try {
+            ClientRegistry.dynamoDb().describeTable(builder -> builder.tableName(System.getenv("DYNAMO_DB_TABLE_NAME")));
+        } catch (SdkException error) {
+            System.err.println(error.getMessage());
+        }
+
+        System.out.println("Startup priming completed in " + (System.nanoTime() - primingStartTime) / 1_000_000 + " ms.");
+    }
+
+    private static InputStream stream(String response) {
+        return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+    }
+}
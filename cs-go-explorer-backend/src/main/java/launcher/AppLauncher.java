@@ -1,6 +1,10 @@
 package launcher;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -14,6 +18,7 @@ import software.amazon.awssdk.services.codecommit.CodeCommitClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.KeyType;
 import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.firehose.FirehoseClient;
 import software.amazon.awssdk.services.iam.IamClient;
 import software.amazon.awssdk.services.lambda.LambdaClient;
 import software.amazon.awssdk.services.lambda.model.Environment;
@@ -23,8 +28,10 @@ import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.sns.SnsClient;
 
 import services.*;
+import services.bot.BotSpec;
 import services.bot.Lex;
 import services.api.ApiGateway;
+import services.api.RestApiRoute;
 import services.database.DynamoDB;
 
 /**
@@ -36,15 +43,19 @@ public class AppLauncher {
     public static void main(String[] args) throws Exception {
         final String usage = "\n" +
                 "Usage:\n" +
-                "    java -jar <accessKey> <secretAccessKey> <awsAppDeploymentRegion> <steamApiKey>\n\n" +
+                "    java -jar <accessKey> <secretAccessKey> <awsAppDeploymentRegion> <steamApiKey> [snapStartRuntime] [notificationEmails]\n\n" +
                 "Where:\n" +
                 "    accessKey - used to sign programmatic requests that you make to AWS.\n" +
                 "    secretAccessKey - used to sign programmatic requests that you make to AWS.\n" +
                 "    awsAppDeploymentRegion - The AWS Region where the application will be deployed.\n" +
 //                "    userEmail - user's email address to which notifications about changes in the database will be sent.\n" +
-                "    steamApiKey - API key is a unique identifier used to connect to, or perform, an API call.";
+                "    steamApiKey - API key is a unique identifier used to connect to, or perform, an API call.\n" +
+                "    snapStartRuntime - (optional) java17 or java21 to deploy the Lambda function with SnapStart and startup priming enabled.\n" +
+                "    notificationEmails - (optional) comma-separated email addresses subscribed to notifications about changes in the database.\n\n" +
+                "Completed steps are recorded in " + DeploymentJournal.defaultFileName + " in the working directory. Rerunning the command only\n" +
+                "provisions the steps that did not complete or whose configuration changed. Delete the file to provision every step again.";
 
-        if (args.length != 4) {
+        if (args.length < 4 || args.length > 6) {
             System.out.println(usage);
             System.exit(1);
         }
@@ -55,6 +66,20 @@ public class AppLauncher {
         final String awsAppDeploymentRegion = args[2];
 //        final String userEmail = args[3];
         final String steamApiKey = args[3];
+        String snapStartRuntimeArgument = null;
+        List<String> notificationEmails = List.of();
+        for (int i = 4; i < args.length; i++) {
+            if (args[i].contains("@"))
+                notificationEmails = Arrays.asList(args[i].split(","));
+            else
+                snapStartRuntimeArgument = args[i];
+        }
+        final String snapStartRuntime = snapStartRuntimeArgument;
+
+        if (snapStartRuntime != null && !snapStartRuntime.equals("java17") && !snapStartRuntime.equals("java21")) {
+            System.out.println(usage);
+            System.exit(1);
+        }
 
         // Predefined configuration variables. The creation of services follows this order
         final String roleName = "CsGoExplorerRole"; // IAM
@@ -63,7 +88,9 @@ public class AppLauncher {
         final String s3BucketNameForBot = "cs-go-explorer-bot-s3-bucket"; // S3
         final String s3BucketNameForWallpapers = "cs-go-explorer-wallpapers-s3-bucket"; // S3
         final String snsTopicName = "cs-go-explorer-sns-topic"; // SNS
+        final String auditLogStreamName = "cs-go-explorer-audit-log"; // Firehose
         final String lambdaFunctionName = "cs-go-explorer-lambda-function"; // Lambda
+        final String lambdaAliasName = "live"; // Lambda
         final String botName = "CsGoExplorerBot"; // Lex
         final String tableName = "cs-go-explorer-table"; // DynamoDB
         final String codeCommitRepositoryName = "cs-go-explorer-repository"; // CodeCommit
@@ -76,182 +103,258 @@ public class AppLauncher {
         // Create an AWS account credentials instance
         AwsBasicCredentials awsBasicCredentials = AwsBasicCredentials.create(accessKey, secretAccessKey);
 
-        // Authenticate and create an IAM client
-        IamClient iamClient = IAM.authenticateIAM(awsBasicCredentials, globalRegion);
-
-        // Create an IAM Lex V2 role
-        String lexRoleArn = IAM.createServiceLinkedRole(iamClient, "lexv2.amazonaws.com", Lex.lexRoleCustomSuffixGenerator(), "CS:GO Explorer Lex V2 bot role");
-
-        // Create an IAM Lambda role and attach trust policy
-        String roleArn = IAM.createRole(iamClient, roleName, "CS:GO Explorer Trust Policy");
-        System.out.println("Successfully created role: " + roleArn);
-
-        // Create an IAM permissions policy
-        String permissionsPolicyArn = IAM.createPermissionsPolicy(iamClient, permissionsPolicyName);
-        System.out.println("Successfully created permissions policy: " + permissionsPolicyArn);
-
-        // Attach an IAM permission policy to the role
-        IAM.attachRolePermissionsPolicy(iamClient, roleName, permissionsPolicyArn);
-
-        // Close IAM client
-        iamClient.close();
-
-        // 10 seconds delay avoids a race condition between attaching the IAM permissions policy and creating a Lambda function.
-        Thread.sleep(10000);
-
-        // Authenticate and create an API Gateway client
-        ApiGatewayClient apiGatewayClient = ApiGateway.authenticateApiGateway(awsBasicCredentials, appRegion);
-
-        // Create REST API
-        String restApiId = ApiGateway.createAPI(apiGatewayClient, restApiName, "REST API for CS:GO Explorer application",
-                ApiKeySourceType.AUTHORIZER, EndpointConfiguration.builder().types(EndpointType.REGIONAL).build());
-        System.out.println("Successfully created api with id: " + restApiId);
-
-        // Authenticate and create an S3 client
-        S3Client s3Client = S3.authenticateS3(awsBasicCredentials, appRegion);
-
-        // Create S3 bucket that is needed for the bot functionality
-        String botBucketName = S3.createBucket(s3Client, s3BucketNameForBot);
-        System.out.println("S3 bucket " + botBucketName + " has been created.");
-
-        // Create S3 bucket for storing wallpapers
-        String wallpaperBucketName = S3.createBucket(s3Client, s3BucketNameForWallpapers);
-        System.out.println("S3 bucket " + wallpaperBucketName + " has been created.");
-
-        // Create and attach CORS configuration to the S3 bucket
-        S3.putBucketCorsConfiguration(s3Client, s3BucketNameForWallpapers);
-        System.out.println("S3 bucket CORS configuration has been created and attached.");
-
-        // Close S3 client
-        s3Client.close();
-
-        // Authenticate and create an SNS client
-        SnsClient snsClient = SNS.authenticateSNS(awsBasicCredentials, appRegion);
-
-        // Create an SNS topic
-        String topicArn = SNS.createSNSTopic(snsClient, snsTopicName);
-        System.out.println("Successfully created an SNS topic: " + topicArn);
-
-        // Close SNS client
-        snsClient.close();
-
-        // Authenticate and create a CodeCommit client
-        CodeCommitClient codeCommitClient = CodeCommit.authenticateCodeCommit(awsBasicCredentials, appRegion);
-
-        // Create a CodeCommit repository
-        String cloneUrlHttp = CodeCommit.createRepository(codeCommitClient, codeCommitRepositoryName, "CS:GO Explorer UI");
-        System.out.println("Successfully created repository with clone URL Http: " + cloneUrlHttp);
-
-        // Close CodeCommit client
-        codeCommitClient.close();
-
-        // Authenticate and create an Amplify client
-        AmplifyClient amplifyClient = Amplify.authenticateAmplify(awsBasicCredentials, appRegion);
-
-        // Create a Map with environmental variables for an Amplify
-        Map<String, String> amplifyEnvironmentalVariables = new HashMap<>();
-        amplifyEnvironmentalVariables.put("BUILD_ENV", "prod");
-        amplifyEnvironmentalVariables.put("REACT_APP_REST_API_ID", restApiId);
-
-        // Create Amplify application
-        String appId = Amplify.createApp(amplifyClient, appName, "CS:GO Explorer application", Platform.WEB, roleArn,
-                cloneUrlHttp, true, true, Stage.PRODUCTION, true, true, amplifyEnvironmentalVariables);
-        System.out.println("Successfully created app with id: " + appId);
-
-        // Get app default domain
-        String appDefaultDomain = Amplify.getApp(amplifyClient, appId);
-
-        // Close Amplify client
-        amplifyClient.close();
-
-        // Authenticate and create a Lambda client
-        LambdaClient lambdaClient = Lambda.authenticateLambda(awsBasicCredentials, appRegion);
-
-        // Configure environment variables, so they can be accessible from function code during execution
-        Environment environment = Environment.builder().variables(new HashMap<>(){{
-            put("ACCESS_KEY_ID", accessKey);
-            put("SECRET_ACCESS_KEY", secretAccessKey);
-            put("AWS_APP_REGION", appRegion.toString());
-            put("DYNAMO_DB_TABLE_NAME", tableName);
-            put("SNS_TOPIC_ARN", topicArn);
-//            put("USER_EMAIL", userEmail);
-            put("S3_BUCKET_NAME_FOR_BOT", s3BucketNameForBot);
-            put("S3_BUCKET_NAME_FOR_WALLPAPERS", s3BucketNameForWallpapers);
-            put("APP_URL", "https://main." + appDefaultDomain);
-            put("STEAM_API_KEY", steamApiKey);
-            put("CS_GO_APP_ID", "730");
-        }}).build();
-
-        // Create a lambda function and attach a role
-        String lambdaArn = Lambda.createLambdaFunction(lambdaClient, lambdaFunctionName, "CS:GO Explorer application logic",
-                roleArn, "handler.AppHandler::handleRequest", Runtime.JAVA11, 180, 512, environment);
-        System.out.println("Successfully created lambda function: " + lambdaArn);
-
-        // Create a resource policy and add a resource-based policy statement
-        Lambda.createResourcePolicy(lambdaClient, lambdaFunctionName, "chatbot-fulfillment", "lambda:InvokeFunction", "lex.amazonaws.com");
-
-        // Close Lambda client
-        lambdaClient.close();
-
-        // Create 'GetAllTableItems' resource
-        String getAllTableItemsResourceParentId = ApiGateway.createAndConfigureRestApiResource(apiGatewayClient, restApiId, roleArn, lambdaArn, awsAppDeploymentRegion, "root", "GetAllTableItems", true, "POST", "NONE");
-
-        // Create 'GetPlayerSummaries' resource
-        String getPlayerSummariesResourceParentId = ApiGateway.createAndConfigureRestApiResource(apiGatewayClient, restApiId, roleArn, lambdaArn, awsAppDeploymentRegion, getAllTableItemsResourceParentId, "GetPlayerSummaries", true, "GET", "NONE");
-
-        // Create 'GetFriendList' resource
-        String getFriendListResourceParentId = ApiGateway.createAndConfigureRestApiResource(apiGatewayClient, restApiId, roleArn, lambdaArn, awsAppDeploymentRegion, getAllTableItemsResourceParentId, "GetFriendList", true, "GET", "NONE");
-
-        // Create 'GetUserStatsForGame' resource
-        String getUserStatsForGameResourceParentId = ApiGateway.createAndConfigureRestApiResource(apiGatewayClient, restApiId, roleArn, lambdaArn, awsAppDeploymentRegion, getAllTableItemsResourceParentId, "GetUserStatsForGame", true, "GET", "NONE");
-
-        // Create 'GetNewsForApp' resource
-        String getNewsForAppParentId = ApiGateway.createAndConfigureRestApiResource(apiGatewayClient, restApiId, roleArn, lambdaArn, awsAppDeploymentRegion, getAllTableItemsResourceParentId, "GetNewsForApp", true, "GET", "NONE");
-
-        // Create 'GetCsGoWallpapers' resource
-        String getCsGoWallpapersParentId = ApiGateway.createAndConfigureRestApiResource(apiGatewayClient, restApiId, roleArn, lambdaArn, awsAppDeploymentRegion, getAllTableItemsResourceParentId, "GetCsGoWallpapers", true, "GET", "NONE");
-
-        // Create a deployment stage
-        String stageName = "ProductionStage";
-        String deploymentId = ApiGateway.createNewDeployment(apiGatewayClient, restApiId, "Created using Java AWS SDK", stageName, "Production deployment stage");
-        System.out.println("The id of the REST API deployment: " + deploymentId);
-
-          // Configure and create a usage plan
-        ThrottleSettings throttleSettings = ThrottleSettings.builder().rateLimit(100.0).burstLimit(100).build();
-
-        // Create usage plan
-        String usagePlanId = ApiGateway.createUsagePlan(apiGatewayClient, restApiId, stageName, throttleSettings, new HashMap<>(){{put("/GetAllTableItems/OPTIONS", throttleSettings);
-                    put("/GetAllTableItems/POST", throttleSettings);}}, "test-plan", "DBM test usage plan", "DAY", 1200);
-
-        // Create API key
-        ApiGateway.createApiKey(apiGatewayClient, "DBM_key", "Test key", true, usagePlanId, "API_KEY");
-
-        // Close API Gateway client
-        apiGatewayClient.close();
-
-        // Authenticate and create a Lex V2 client
-        LexModelsV2Client lexModelsV2Client = Lex.authenticateLexV2(awsBasicCredentials, appRegion);
-
-        // Create Lex V2 bot
-        String botId = Lex.botConfiguration(lexModelsV2Client, lexRoleArn, lambdaArn, botName, "Helps manage DynamoDB table");
-        System.out.println("Successfully created lex bot with ID: " + botId);
-
-        // Close Lex V2 client
-        lexModelsV2Client.close();
-
-        // Authenticate and create a DynamoDB client
-        DynamoDbClient dynamoDbClient = DynamoDB.authenticateDynamoDB(awsBasicCredentials, appRegion);
-
-        // Create DynamoDB table
-        String tableId = DynamoDB.createTable(dynamoDbClient, tableName, "studentId", ScalarAttributeType.N, KeyType.HASH);
-        System.out.println("Successfully created " + tableName + " table with id: " + tableId);
-
-        // Close DynamoDB client
-        dynamoDbClient.close();
+        // Routes of the REST API, all of them invoke the Lambda function
+        final List<RestApiRoute> restApiRoutes = List.of(
+                new RestApiRoute("GetAllTableItems", "POST", true, "NONE"),
+                new RestApiRoute("GetPlayerSummaries", "GET", true, "NONE"),
+                new RestApiRoute("GetFriendList", "GET", true, "NONE"),
+                new RestApiRoute("GetUserStatsForGame", "GET", true, "NONE"),
+                new RestApiRoute("GetNewsForApp", "GET", true, "NONE"),
+                // Signed with IAM credentials since it writes to the table
+                new RestApiRoute("ImportStudents", "POST", false, "AWS_IAM"),
+                new RestApiRoute("GetStudents", "GET", true, "NONE"),
+                new RestApiRoute("GetCsGoWallpapers", "GET", true, "NONE"));
+
+        // Every step declares the values it needs and produces, and independent steps are provisioned concurrently
+        ProvisioningGraph provisioningGraph = new ProvisioningGraph();
+
+        // Steps are fingerprinted with the account and the region, so a deployment to another account or region starts over
+        final Map<String, String> deployment = Map.of("accessKey", accessKey, "region", awsAppDeploymentRegion);
+        final Path lambdaCodePath = Paths.get("").toAbsolutePath().resolve(Lambda.codeFileName);
+
+        provisioningGraph.add("IAM Lex V2 role", configuration(deployment, "awsServiceName", "lexv2.amazonaws.com"), List.of(), List.of("lexRoleArn"), values -> {
+            IamClient iamClient = IAM.authenticateIAM(awsBasicCredentials, globalRegion);
+
+            // Create an IAM Lex V2 role
+            values.put("lexRoleArn", IAM.createServiceLinkedRole(iamClient, "lexv2.amazonaws.com", Lex.lexRoleCustomSuffixGenerator(), "CS:GO Explorer Lex V2 bot role"));
+            iamClient.close();
+        });
+
+        provisioningGraph.add("IAM Lambda role", configuration(deployment, "roleName", roleName, "trustPolicy", IAM.describeTrustPolicy(), "permissionsPolicyName", permissionsPolicyName), List.of(), List.of("roleArn", "rolePermissionsPolicyArn"), values -> {
+            IamClient iamClient = IAM.authenticateIAM(awsBasicCredentials, globalRegion);
+
+            // Create an IAM Lambda role and attach trust policy
+            String roleArn = IAM.createRole(iamClient, roleName, "CS:GO Explorer Trust Policy");
+            System.out.println("Successfully created role: " + roleArn);
+
+            // Create an IAM permissions policy
+            String permissionsPolicyArn = IAM.createPermissionsPolicy(iamClient, permissionsPolicyName);
+            System.out.println("Successfully created permissions policy: " + permissionsPolicyArn);
+
+            // Attach an IAM permission policy to the role
+            IAM.attachRolePermissionsPolicy(iamClient, roleName, permissionsPolicyArn);
+
+            // Poll until the attached policy is visible, instead of waiting a fixed 10 seconds
+            IAM.waitUntilRolePermissionsPolicyAttached(iamClient, roleName, permissionsPolicyArn, 60000);
+            values.put("roleArn", roleArn);
+            values.put("rolePermissionsPolicyArn", permissionsPolicyArn);
+            iamClient.close();
+        });
+
+        provisioningGraph.add("API Gateway REST API", configuration(deployment, "restApiName", restApiName), List.of(), List.of("restApiId"), values -> {
+            ApiGatewayClient apiGatewayClient = ApiGateway.authenticateApiGateway(awsBasicCredentials, appRegion);
+
+            // Create REST API
+            String restApiId = ApiGateway.createAPI(apiGatewayClient, restApiName, "REST API for CS:GO Explorer application",
+                    ApiKeySourceType.AUTHORIZER, EndpointConfiguration.builder().types(EndpointType.REGIONAL).build());
+            System.out.println("Successfully created api with id: " + restApiId);
+            values.put("restApiId", restApiId);
+            apiGatewayClient.close();
+        });
+
+        provisioningGraph.add("S3 bot bucket", configuration(deployment, "bucketName", s3BucketNameForBot), List.of(), List.of("botBucketName"), values -> {
+            S3Client s3Client = S3.authenticateS3(awsBasicCredentials, appRegion);
+
+            // Create S3 bucket that is needed for the bot functionality
+            String botBucketName = S3.createBucket(s3Client, s3BucketNameForBot);
+            System.out.println("S3 bucket " + botBucketName + " has been created.");
+            values.put("botBucketName", s3BucketNameForBot);
+            s3Client.close();
+        });
+
+        provisioningGraph.add("S3 wallpapers bucket", configuration(deployment, "bucketName", s3BucketNameForWallpapers), List.of(), List.of("wallpaperBucketName"), values -> {
+            S3Client s3Client = S3.authenticateS3(awsBasicCredentials, appRegion);
+
+            // Create S3 bucket for storing wallpapers
+            String wallpaperBucketName = S3.createBucket(s3Client, s3BucketNameForWallpapers);
+            System.out.println("S3 bucket " + wallpaperBucketName + " has been created.");
+
+            // Create and attach CORS configuration to the S3 bucket
+            S3.putBucketCorsConfiguration(s3Client, s3BucketNameForWallpapers);
+            System.out.println("S3 bucket CORS configuration has been created and attached.");
+            values.put("wallpaperBucketName", s3BucketNameForWallpapers);
+            s3Client.close();
+        });
+
+        provisioningGraph.add("Firehose audit log stream", configuration(deployment, "deliveryStreamName", auditLogStreamName), List.of("roleArn", "botBucketName"), List.of("auditLogStreamName"), values -> {
+            FirehoseClient firehoseClient = Firehose.authenticateFirehose(awsBasicCredentials, appRegion);
+
+            // Create a delivery stream that batches the audit log into one S3 object per 5 MB or 5 minutes
+            String deliveryStreamArn = Firehose.createDeliveryStream(firehoseClient, auditLogStreamName, values.get("roleArn"),
+                    values.get("botBucketName"), "audit", 5, 300);
+            System.out.println("Successfully created delivery stream: " + deliveryStreamArn);
+            values.put("auditLogStreamName", auditLogStreamName);
+            firehoseClient.close();
+        });
+
+        provisioningGraph.add("SNS topic", configuration(deployment, "topicName", snsTopicName, "notificationEmails", String.join(",", notificationEmails)), List.of(), List.of("topicArn"), values -> {
+            SnsClient snsClient = SNS.authenticateSNS(awsBasicCredentials, appRegion);
+
+            // Create an SNS topic
+            String topicArn = SNS.createSNSTopic(snsClient, snsTopicName);
+            System.out.println("Successfully created an SNS topic: " + topicArn);
+
+            // Subscribe the notification emails once, instead of on every published message
+            int newSubscriptions = SNS.subscribeEmails(snsClient, topicArn, notificationEmails);
+            System.out.println("Successfully subscribed " + newSubscriptions + " email(s) to the SNS topic.");
+            values.put("topicArn", topicArn);
+            snsClient.close();
+        });
+
+        provisioningGraph.add("CodeCommit repository", configuration(deployment, "repositoryName", codeCommitRepositoryName), List.of(), List.of("cloneUrlHttp"), values -> {
+            CodeCommitClient codeCommitClient = CodeCommit.authenticateCodeCommit(awsBasicCredentials, appRegion);
+
+            // Create a CodeCommit repository
+            String cloneUrlHttp = CodeCommit.createRepository(codeCommitClient, codeCommitRepositoryName, "CS:GO Explorer UI");
+            System.out.println("Successfully created repository with clone URL Http: " + cloneUrlHttp);
+            values.put("cloneUrlHttp", cloneUrlHttp);
+            codeCommitClient.close();
+        });
+
+        provisioningGraph.add("DynamoDB table", configuration(deployment, "tableName", tableName), List.of(), List.of("tableId"), values -> {
+            DynamoDbClient dynamoDbClient = DynamoDB.authenticateDynamoDB(awsBasicCredentials, appRegion);
+
+            // Create DynamoDB table
+            String tableId = DynamoDB.createTable(dynamoDbClient, tableName, "studentId", ScalarAttributeType.N, KeyType.HASH);
+            System.out.println("Successfully created " + tableName + " table with id: " + tableId);
+            values.put("tableId", tableId);
+            dynamoDbClient.close();
+        });
+
+        provisioningGraph.add("Amplify app", configuration(deployment, "appName", appName), List.of("restApiId", "roleArn", "cloneUrlHttp"), List.of("appDefaultDomain"), values -> {
+            AmplifyClient amplifyClient = Amplify.authenticateAmplify(awsBasicCredentials, appRegion);
+
+            // Create a Map with environmental variables for an Amplify
+            Map<String, String> amplifyEnvironmentalVariables = new HashMap<>();
+            amplifyEnvironmentalVariables.put("BUILD_ENV", "prod");
+            amplifyEnvironmentalVariables.put("REACT_APP_REST_API_ID", values.get("restApiId"));
+
+            // Create Amplify application
+            String appId = Amplify.createApp(amplifyClient, appName, "CS:GO Explorer application", Platform.WEB, values.get("roleArn"),
+                    values.get("cloneUrlHttp"), true, true, Stage.PRODUCTION, true, true, amplifyEnvironmentalVariables);
+            System.out.println("Successfully created app with id: " + appId);
+
+            // Get app default domain
+            values.put("appDefaultDomain", Amplify.getApp(amplifyClient, appId));
+            amplifyClient.close();
+        });
+
+        provisioningGraph.add("Lambda function", configuration(deployment, "functionName", lambdaFunctionName, "runtime", String.valueOf(snapStartRuntime),
+                "code", Lambda.describeCode(lambdaCodePath), "tableName", tableName, "steamApiKey", steamApiKey, "secretAccessKey", secretAccessKey,
+                "wallpaperManifestKey", WallpaperCatalog.defaultManifestKey), List.of("roleArn", "topicArn", "botBucketName", "wallpaperBucketName", "auditLogStreamName", "appDefaultDomain"), List.of("lambdaArn"), values -> {
+            LambdaClient lambdaClient = Lambda.authenticateLambda(awsBasicCredentials, appRegion);
+
+            // Configure environment variables, so they can be accessible from function code during execution
+            Environment environment = Environment.builder().variables(new HashMap<>(){{
+                put("ACCESS_KEY_ID", accessKey);
+                put("SECRET_ACCESS_KEY", secretAccessKey);
+                put("AWS_APP_REGION", appRegion.toString());
+                put("DYNAMO_DB_TABLE_NAME", tableName);
+                put("SNS_TOPIC_ARN", values.get("topicArn"));
+//                put("USER_EMAIL", userEmail);
+                put("S3_BUCKET_NAME_FOR_BOT", values.get("botBucketName"));
+                put("AUDIT_LOG_DELIVERY_STREAM_NAME", values.get("auditLogStreamName"));
+                put("S3_BUCKET_NAME_FOR_WALLPAPERS", values.get("wallpaperBucketName"));
+                put("WALLPAPER_MANIFEST_KEY", WallpaperCatalog.defaultManifestKey);
+                put("APP_URL", "https://main." + values.get("appDefaultDomain"));
+                put("STEAM_API_KEY", steamApiKey);
+                put("CS_GO_APP_ID", "730");
+                put("STARTUP_PRIMING", String.valueOf(snapStartRuntime != null));
+            }}).build();
+
+            // Create a lambda function and attach a role, retrying while the role is not assumable yet
+            String lambdaArn;
+            if (snapStartRuntime == null) {
+                lambdaArn = Lambda.createLambdaFunction(lambdaClient, lambdaFunctionName, "CS:GO Explorer application logic",
+                        values.get("roleArn"), "handler.AppHandler::handleRequest", Runtime.JAVA11, 180, 512, environment);
+            } else {
+                Lambda.createLambdaFunction(lambdaClient, lambdaFunctionName, "CS:GO Explorer application logic",
+                        values.get("roleArn"), "handler.AppHandler::handleRequest", snapStartRuntime, true, 180, 512, environment);
+
+                // SnapStart only applies to published versions, so the API and the bot invoke an alias of the published
+                // version, which keeps its ARN when a later deployment publishes a new version
+                String versionArn = Lambda.publishVersion(lambdaClient, lambdaFunctionName);
+                lambdaArn = Lambda.createOrUpdateAlias(lambdaClient, lambdaFunctionName, lambdaAliasName, versionArn);
+            }
+            System.out.println("Successfully created lambda function: " + lambdaArn);
+
+            // Create a resource policy and add a resource-based policy statement
+            Lambda.createResourcePolicy(lambdaClient, lambdaArn, "chatbot-fulfillment", "lambda:InvokeFunction", "lex.amazonaws.com");
+            values.put("lambdaArn", lambdaArn);
+            lambdaClient.close();
+        });
+
+        provisioningGraph.add("API Gateway resources", configuration(deployment, "stageName", "ProductionStage", "routes", restApiRoutes.toString()), List.of("restApiId", "roleArn", "lambdaArn"), List.of("deploymentId"), values -> {
+            ApiGatewayClient apiGatewayClient = ApiGateway.authenticateApiGateway(awsBasicCredentials, appRegion);
+            String restApiId = values.get("restApiId");
+            String roleArn = values.get("roleArn");
+            String lambdaArn = values.get("lambdaArn");
+
+            // Import every route in a single request, or create the resources concurrently if the import fails
+            ApiGateway.createRestApiRoutes(apiGatewayClient, restApiId, restApiName, "REST API for CS:GO Explorer application",
+                    roleArn, lambdaArn, awsAppDeploymentRegion, restApiRoutes, 4);
+
+            // Create a deployment stage
+            String stageName = "ProductionStage";
+            String deploymentId = ApiGateway.createNewDeployment(apiGatewayClient, restApiId, "Created using Java AWS SDK", stageName, "Production deployment stage");
+            System.out.println("The id of the REST API deployment: " + deploymentId);
+
+            // Configure and create a usage plan
+            ThrottleSettings throttleSettings = ThrottleSettings.builder().rateLimit(100.0).burstLimit(100).build();
+
+            // Create usage plan
+            String usagePlanId = ApiGateway.createUsagePlan(apiGatewayClient, restApiId, stageName, throttleSettings, new HashMap<>(){{put("/GetAllTableItems/OPTIONS", throttleSettings);
+                        put("/GetAllTableItems/POST", throttleSettings);}}, "test-plan", "DBM test usage plan", "DAY", 1200);
+
+            // Create API key
+            ApiGateway.createApiKey(apiGatewayClient, "DBM_key", "Test key", true, usagePlanId, "API_KEY");
+            values.put("deploymentId", deploymentId);
+            apiGatewayClient.close();
+        });
+
+        provisioningGraph.add("Lex V2 bot", configuration(deployment, "botName", botName,
+                "botSpecVersion", String.valueOf(BotSpec.read(Lex.botSpecResource).getSpecVersion())), List.of("lexRoleArn", "lambdaArn"), List.of("botId"), values -> {
+            LexModelsV2Client lexModelsV2Client = Lex.authenticateLexV2(awsBasicCredentials, appRegion);
+
+            // Create Lex V2 bot
+            String botId = Lex.botConfiguration(lexModelsV2Client, values.get("lexRoleArn"), values.get("lambdaArn"), botName, "Helps manage DynamoDB table");
+            System.out.println("Successfully created lex bot with ID: " + botId);
+            values.put("botId", botId);
+            lexModelsV2Client.close();
+        });
+
+        // Completed steps are recorded in the journal, so a rerun resumes where the last deployment stopped
+        DeploymentJournal deploymentJournal = DeploymentJournal.open(Paths.get("").toAbsolutePath().resolve(DeploymentJournal.defaultFileName));
+        Map<String, String> provisionedValues = provisioningGraph.run(8, deploymentJournal);
+        String appDefaultDomain = provisionedValues.get("appDefaultDomain");
+        String cloneUrlHttp = provisionedValues.get("cloneUrlHttp");
 
         // Output the website to the user that can be used after
         System.out.println("CS:GO Explorer will be available at https://main." + appDefaultDomain
                 + " after the code is committed to the AWS CodeCommit service. Please follow the documentation on how to accomplish it.");
         System.out.println("Use the following HTTPS link to push the code: " + cloneUrlHttp);
     }
+
+    /**
+     * Builds the desired configuration of a provisioning step.
+     * @param deployment The configuration shared by every step.
+     * @param keysAndValues Alternating names and values of the configuration of the step.
+     * @return Configuration of the step.
+     */
+    private static Map<String, String> configuration(Map<String, String> deployment, String... keysAndValues) {
+        Map<String, String> configuration = new HashMap<>(deployment);
+        for (int i = 0; i + 1 < keysAndValues.length; i += 2)
+            configuration.put(keysAndValues[i], keysAndValues[i + 1]);
+        return configuration;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package launcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Local state of a deployment, kept as an NDJSON journal with one line per completed provisioning step. A line holds
+ * the name of the step, the fingerprint of the configuration it was provisioned with and the values it produced, e.g.
+ * the ARN of the created role. The journal is only appended to and every line is forced to disk before the next step
+ * starts, so a deployment that stopped half-way can be resumed from the steps that were completed. When a step appears
+ * more than once, its last line is the current state.
+ */
+public class DeploymentJournal {
+
+    public static final String defaultFileName = "cs-go-explorer-deployment.ndjson";
+
+    private final Path path;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private DeploymentJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens the journal and reads the steps recorded in it. A line that cannot be read, e.g. a line that was cut off
+     * when the deployment was killed, is ignored, so its step is provisioned again.
+     * @param path The path of the journal file, which does not need to exist yet.
+     * @return Journal.
+     */
+    public static DeploymentJournal open(Path path) throws IOException {
+        DeploymentJournal journal = new DeploymentJournal(path);
+        if (!Files.exists(path))
+            return journal;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank())
+                    continue;
+                try {
+                    Entry entry = Entry.read(new JsonReader(new StringReader(line)));
+                    if (entry.step != null && entry.fingerprint != null)
+                        journal.entries.put(entry.step, entry);
+                } catch (IOException | IllegalStateException error) {
+                    System.err.println("Ignoring line " + lineNumber + " of " + path + ": " + error.getMessage());
+                }
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Gets the values a step produced, if it was completed with the same configuration.
+     * @param step The name of the step.
+     * @param fingerprint The fingerprint of the configuration the step would be provisioned with now.
+     * @return Values produced by the step, or null if the step has to be provisioned.
+     */
+    public synchronized Map<String, String> getOutputs(String step, String fingerprint) {
+        Entry entry = entries.get(step);
+        if (entry == null || !entry.fingerprint.equals(fingerprint))
+            return null;
+        return entry.outputs;
+    }
+
+    /**
+     * Checks whether a step was completed before, with any configuration.
+     * @param step The name of the step.
+     * @return Whether the journal has the step.
+     */
+    public synchronized boolean contains(String step) {
+        return entries.containsKey(step);
+    }
+
+    /**
+     * Gets the names of the steps recorded in the journal.
+     * @return Names of the steps.
+     */
+    public synchronized Set<String> getSteps() {
+        return Set.copyOf(entries.keySet());
+    }
+
+    /**
+     * Records a completed step and forces the line to disk.
+     * @param step The name of the step.
+     * @param fingerprint The fingerprint of the configuration the step was provisioned with.
+     * @param outputs The values produced by the step.
+     */
+    public synchronized void record(String step, String fingerprint, Map<String, String> outputs) throws IOException {
+        Entry entry = new Entry(step, fingerprint, new TreeMap<>(outputs), Instant.now().toString());
+        StringWriter line = new StringWriter();
+        entry.write(new JsonWriter(line));
+        line.write('\n');
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        }
+        entries.put(step, entry);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Fingerprints the configuration of a step. Only the hash is written to the journal, so configuration values such
+     * as credentials do not end up in the file.
+     * @param configuration The configuration of the step and the values of its inputs.
+     * @return SHA-256 hash of the configuration in hexadecimal digits.
+     */
+    static String fingerprint(Map<String, String> configuration) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, String> value : new TreeMap<>(configuration).entrySet()) {
+                messageDigest.update(value.getKey().getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+                messageDigest.update(String.valueOf(value.getValue()).getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+            }
+
+            StringBuilder fingerprint = new StringBuilder();
+            for (byte digestByte : messageDigest.digest())
+                fingerprint.append(String.format("%02x", digestByte));
+            return fingerprint.toString();
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    private static class Entry {
+        private final String step;
+        private final String fingerprint;
+        private final Map<String, String> outputs;
+        private final String completedAt;
+
+        Entry(String step, String fingerprint, Map<String, String> outputs, String completedAt) {
+            this.step = step;
+            this.fingerprint = fingerprint;
+            this.outputs = outputs;
+            this.completedAt = completedAt;
+        }
+
+        static Entry read(JsonReader reader) throws IOException {
+            String step = null;
+            String fingerprint = null;
+            String completedAt = null;
+            Map<String, String> outputs = new TreeMap<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "step":
+                        step = reader.nextString();
+                        break;
+                    case "fingerprint":
+                        fingerprint = reader.nextString();
+                        break;
+                    case "completedAt":
+                        completedAt = reader.nextString();
+                        break;
+                    case "outputs":
+                        reader.beginObject();
+                        while (reader.hasNext())
+                            outputs.put(reader.nextName(), reader.nextString());
+                        reader.endObject();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new Entry(step, fingerprint, outputs, completedAt);
+        }
+
+        void write(JsonWriter writer) throws IOException {
+            writer.beginObject();
+            writer.name("step").value(step);
+            writer.name("fingerprint").value(fingerprint);
+            writer.name("completedAt").value(completedAt);
+            writer.name("outputs").beginObject();
+            for (Map.Entry<String, String> output : outputs.entrySet())
+                writer.name(output.getKey()).value(output.getValue());
+            writer.endObject();
+            writer.endObject();
+            writer.flush();
+        }
+    }
+}
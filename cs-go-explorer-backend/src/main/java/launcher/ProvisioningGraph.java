@@ -0,0 +1,269 @@
+package launcher;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provisions the AWS resources of the application as a dependency graph. Every step declares the values it needs,
+ * e.g. "roleArn", and the values it produces, e.g. "lambdaArn". A step starts as soon as every value it needs has been
+ * produced, so independent steps run concurrently. A failed step fails the provisioning and the steps that depend on
+ * it are not started.
+ * <p>
+ * When the graph runs with a {@link DeploymentJournal}, a step that was completed before with the same configuration
+ * and the same input values is skipped and the values it produced are taken from the journal. A step whose
+ * configuration or inputs changed runs again, and so do the steps whose inputs it changes.
+ */
+public class ProvisioningGraph {
+
+    /**
+     * A provisioning step. It reads its inputs from and writes its outputs to the given values.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void run(Values values) throws Exception;
+    }
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a step to the graph.
+     * @param name The name of the step.
+     * @param inputs The values the step needs.
+     * @param outputs The values the step produces.
+     * @param step The step.
+     * @return This graph.
+     */
+    public ProvisioningGraph add(String name, List<String> inputs, List<String> outputs, Step step) {
+        return add(name, Map.of(), inputs, outputs, step);
+    }
+
+    /**
+     * Adds a step to the graph.
+     * @param name The name of the step.
+     * @param configuration The desired configuration of the resources the step provisions, e.g. their names. A step
+     *                      runs again when its configuration differs from the journal.
+     * @param inputs The values the step needs.
+     * @param outputs The values the step produces.
+     * @param step The step.
+     * @return This graph.
+     */
+    public ProvisioningGraph add(String name, Map<String, String> configuration, List<String> inputs, List<String> outputs, Step step) {
+        if (nodes.containsKey(name))
+            throw new IllegalArgumentException("The step " + name + " is already part of the graph");
+
+        nodes.put(name, new Node(name, Map.copyOf(configuration), List.copyOf(inputs), List.copyOf(outputs), step));
+        return this;
+    }
+
+    /**
+     * Runs every step of the graph, each one once all of its inputs are available.
+     * @param concurrency The maximum number of steps that run at the same time.
+     * @return The values produced by the steps.
+     */
+    public Map<String, String> run(int concurrency) throws Exception {
+        return run(concurrency, null);
+    }
+
+    /**
+     * Runs the steps of the graph that are not up-to-date in the journal, each one once all of its inputs are
+     * available, and records every completed step in the journal.
+     * @param concurrency The maximum number of steps that run at the same time.
+     * @param journal The journal of the deployment, or null to run every step.
+     * @return The values produced by the steps.
+     */
+    public Map<String, String> run(int concurrency, DeploymentJournal journal) throws Exception {
+        List<Node> order = sort();
+        long startTime = System.currentTimeMillis();
+        AtomicInteger skippedSteps = new AtomicInteger();
+
+        if (journal != null)
+            for (String step : journal.getSteps())
+                if (!nodes.containsKey(step))
+                    System.out.println("The step " + step + " of " + journal.getPath() + " is no longer part of the deployment, its resources are left as they are.");
+
+        Map<String, CompletableFuture<Void>> producers = new HashMap<>();
+        List<CompletableFuture<Void>> steps = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            for (Node node : order) {
+                List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+                for (String input : node.inputs)
+                    dependencies.add(producers.get(input));
+
+                CompletableFuture<Void> step = CompletableFuture
+                        .allOf(dependencies.toArray(new CompletableFuture[0]))
+                        .thenRunAsync(() -> runNode(node, journal, skippedSteps), executor);
+                for (String output : node.outputs)
+                    producers.put(output, step);
+                steps.add(step);
+            }
+
+            CompletableFuture.allOf(steps.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException error) {
+            Throwable cause = error.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null)
+                cause = cause.getCause();
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            throw error;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println("Provisioned " + (nodes.size() - skippedSteps.get()) + " steps and skipped " + skippedSteps.get()
+                + " unchanged steps in " + (System.currentTimeMillis() - startTime) + " ms.");
+        return new TreeMap<>(values);
+    }
+
+    private void runNode(Node node, DeploymentJournal journal, AtomicInteger skippedSteps) {
+        long startTime = System.currentTimeMillis();
+        String fingerprint = null;
+        if (journal != null) {
+            fingerprint = fingerprint(node);
+            Map<String, String> recordedOutputs = journal.getOutputs(node.name, fingerprint);
+            if (recordedOutputs != null && recordedOutputs.keySet().containsAll(node.outputs)) {
+                for (String output : node.outputs)
+                    values.put(output, recordedOutputs.get(output));
+                skippedSteps.incrementAndGet();
+                System.out.println("Skipping step " + node.name + ", it is unchanged since the last deployment.");
+                return;
+            }
+            System.out.println(journal.contains(node.name)
+                    ? "Starting step " + node.name + ", its configuration or inputs changed since the last deployment..."
+                    : "Starting step " + node.name + "...");
+        } else {
+            System.out.println("Starting step " + node.name + "...");
+        }
+        try {
+            node.step.run(new Values(node));
+        } catch (Exception error) {
+            throw new CompletionException("The step " + node.name + " failed: " + error.getMessage(), error);
+        }
+
+        for (String output : node.outputs)
+            if (!values.containsKey(output))
+                throw new CompletionException(new IllegalStateException("The step " + node.name + " did not produce " + output));
+
+        if (journal != null) {
+            Map<String, String> outputs = new HashMap<>();
+            for (String output : node.outputs)
+                outputs.put(output, values.get(output));
+            try {
+                journal.record(node.name, fingerprint, outputs);
+            } catch (IOException error) {
+                throw new CompletionException("The step " + node.name + " could not be recorded in " + journal.getPath() + ": " + error.getMessage(), error);
+            }
+        }
+        System.out.println("Finished step " + node.name + " in " + (System.currentTimeMillis() - startTime) + " ms.");
+    }
+
+    /**
+     * Fingerprints the configuration of a step together with the values of its inputs, so that a step runs again when
+     * a step it depends on produced different values.
+     * @param node The step.
+     * @return Fingerprint of the step.
+     */
+    private String fingerprint(Node node) {
+        Map<String, String> configuration = new HashMap<>();
+        for (Map.Entry<String, String> value : node.configuration.entrySet())
+            configuration.put("configuration." + value.getKey(), value.getValue());
+        for (String input : node.inputs)
+            configuration.put("input." + input, values.get(input));
+        for (String output : node.outputs)
+            configuration.put("output." + output, "");
+        return DeploymentJournal.fingerprint(configuration);
+    }
+
+    /**
+     * Orders the steps so that every step comes after the steps that produce its inputs.
+     * @return Steps in dependency order.
+     */
+    private List<Node> sort() {
+        Map<String, Node> producers = new HashMap<>();
+        for (Node node : nodes.values())
+            for (String output : node.outputs)
+                if (producers.put(output, node) != null)
+                    throw new IllegalStateException("The value " + output + " is produced by more than one step");
+
+        Map<Node, Integer> missingInputs = new HashMap<>();
+        Map<Node, List<Node>> dependents = new HashMap<>();
+        Deque<Node> ready = new ArrayDeque<>();
+        for (Node node : nodes.values()) {
+            for (String input : node.inputs) {
+                Node producer = producers.get(input);
+                if (producer == null)
+                    throw new IllegalStateException("No step produces " + input + ", which " + node.name + " needs");
+                dependents.computeIfAbsent(producer, key -> new ArrayList<>()).add(node);
+            }
+            missingInputs.put(node, node.inputs.size());
+            if (node.inputs.isEmpty())
+                ready.add(node);
+        }
+
+        List<Node> order = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            Node node = ready.removeFirst();
+            order.add(node);
+            for (Node dependent : dependents.getOrDefault(node, List.of()))
+                if (missingInputs.merge(dependent, -1, Integer::sum) == 0)
+                    ready.addLast(dependent);
+        }
+
+        if (order.size() != nodes.size())
+            throw new IllegalStateException("The provisioning steps depend on each other in a cycle");
+        return order;
+    }
+
+    /**
+     * The values a running step may read and write: only its declared inputs and outputs.
+     */
+    public class Values {
+        private final Node node;
+
+        private Values(Node node) {
+            this.node = node;
+        }
+
+        public String get(String name) {
+            if (!node.inputs.contains(name))
+                throw new IllegalArgumentException("The step " + node.name + " does not declare the input " + name);
+            return values.get(name);
+        }
+
+        public void put(String name, String value) {
+            if (!node.outputs.contains(name))
+                throw new IllegalArgumentException("The step " + node.name + " does not declare the output " + name);
+            values.put(name, value);
+        }
+    }
+
+    private static class Node {
+        private final String name;
+        private final Map<String, String> configuration;
+        private final List<String> inputs;
+        private final List<String> outputs;
+        private final Step step;
+
+        Node(String name, Map<String, String> configuration, List<String> inputs, List<String> outputs, Step step) {
+            this.name = name;
+            this.configuration = configuration;
+            this.inputs = inputs;
+            this.outputs = outputs;
+            this.step = step;
+        }
+    }
+}
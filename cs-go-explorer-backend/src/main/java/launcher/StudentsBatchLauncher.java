@@ -0,0 +1,89 @@
+package launcher;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import services.database.DynamoDB;
+import services.database.StudentsBatch;
+import services.database.StudentsSchema;
+
+/**
+ * Imports, exports and looks up students of the CS:GO Explorer table from the command line.
+ * @author Ivan Zelenkov
+ * @version 1.0.0
+ */
+public class StudentsBatchLauncher {
+    public static void main(String[] args) throws Exception {
+        final String usage = "\n" +
+                "Usage:\n" +
+                "    java -cp <jar> launcher.StudentsBatchLauncher <accessKey> <secretAccessKey> <awsAppDeploymentRegion> <tableName> <command> <argument> [totalSegments]\n\n" +
+                "Where:\n" +
+                "    accessKey - used to sign programmatic requests that you make to AWS.\n" +
+                "    secretAccessKey - used to sign programmatic requests that you make to AWS.\n" +
+                "    awsAppDeploymentRegion - The AWS Region where the application is deployed.\n" +
+                "    tableName - The name of the DynamoDB table, e.g. cs-go-explorer-table.\n" +
+                "    command - import, export or get.\n" +
+                "    argument - import: a .csv file with a header row or a file with one JSON object per line,\n" +
+                "               export: the file to write one JSON object per line to,\n" +
+                "               get: comma-separated student IDs.\n" +
+                "    totalSegments - (optional) the number of segments exported in parallel, 4 by default.";
+
+        if (args.length != 6 && args.length != 7) {
+            System.out.println(usage);
+            System.exit(1);
+        }
+
+        // Command line arguments
+        final String accessKey = args[0];
+        final String secretAccessKey = args[1];
+        final String awsAppDeploymentRegion = args[2];
+        final String tableName = args[3];
+        final String command = args[4];
+        final String argument = args[5];
+        final int totalSegments = args.length == 7 ? Integer.parseInt(args[6]) : 4;
+
+        DynamoDbClient dynamoDbClient = DynamoDB.authenticateDynamoDB(AwsBasicCredentials.create(accessKey, secretAccessKey), Region.of(awsAppDeploymentRegion));
+        long startTime = System.currentTimeMillis();
+        switch (command) {
+            case "import":
+                try (Reader reader = Files.newBufferedReader(Path.of(argument), StandardCharsets.UTF_8)) {
+                    StudentsBatch.ImportResult result = StudentsBatch.importStudents(dynamoDbClient, tableName, reader, argument.toLowerCase().endsWith(".csv"));
+                    System.out.println("Import finished in " + (System.currentTimeMillis() - startTime) + " ms: " + result.toJson());
+                }
+                break;
+            case "export":
+                try (Writer writer = Files.newBufferedWriter(Path.of(argument), StandardCharsets.UTF_8)) {
+                    long count = DynamoDB.exportTable(dynamoDbClient, tableName, totalSegments, writer);
+                    System.out.println("Exported " + count + " students to " + argument + " in " + (System.currentTimeMillis() - startTime) + " ms.");
+                }
+                break;
+            case "get":
+                Set<Long> studentIds = new LinkedHashSet<>();
+                for (String studentId : argument.split(","))
+                    studentIds.add(StudentsSchema.parseStudentId(studentId));
+                List<Map<String, AttributeValue>> items = StudentsBatch.getStudents(dynamoDbClient, tableName, studentIds);
+                for (Map<String, AttributeValue> item : items)
+                    System.out.println(item);
+                System.out.println("Found " + items.size() + " students.");
+                break;
+            default:
+                System.out.println(usage);
+                System.exit(1);
+        }
+
+        // Close DynamoDB client
+        dynamoDbClient.close();
+    }
+}
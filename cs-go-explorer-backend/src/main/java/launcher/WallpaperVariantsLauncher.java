@@ -0,0 +1,59 @@
+package launcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import services.S3;
+import services.WallpaperCatalog;
+import services.WallpaperVariants;
+
+/**
+ * Creates the resized variants of the CS:GO Explorer wallpapers and the wallpaper manifest from the command line.
+ * @author Ivan Zelenkov
+ * @version 1.0.0
+ */
+public class WallpaperVariantsLauncher {
+    public static void main(String[] args) throws Exception {
+        final String usage = "\n" +
+                "Usage:\n" +
+                "    java -cp <jar> launcher.WallpaperVariantsLauncher <accessKey> <secretAccessKey> <awsAppDeploymentRegion> <bucketName> [widths] [concurrency]\n\n" +
+                "Where:\n" +
+                "    accessKey - used to sign programmatic requests that you make to AWS.\n" +
+                "    secretAccessKey - used to sign programmatic requests that you make to AWS.\n" +
+                "    awsAppDeploymentRegion - The AWS Region where the application is deployed.\n" +
+                "    bucketName - The name of the wallpapers bucket, e.g. cs-go-explorer-wallpapers-s3-bucket.\n" +
+                "    widths - (optional) comma-separated widths of the variants in pixels, 320,640,1280 by default.\n" +
+                "    concurrency - (optional) the number of wallpapers processed in parallel, 4 by default.";
+
+        if (args.length < 4 || args.length > 6) {
+            System.out.println(usage);
+            System.exit(1);
+        }
+
+        // Command line arguments
+        final String accessKey = args[0];
+        final String secretAccessKey = args[1];
+        final String awsAppDeploymentRegion = args[2];
+        final String bucketName = args[3];
+        final int concurrency = args.length == 6 ? Integer.parseInt(args[5]) : 4;
+        List<Integer> widths = WallpaperVariants.defaultWidths;
+        if (args.length >= 5) {
+            widths = new ArrayList<>();
+            for (String width : args[4].split(","))
+                widths.add(Integer.parseInt(width.trim()));
+        }
+
+        S3Client s3Client = S3.authenticateS3(AwsBasicCredentials.create(accessKey, secretAccessKey), Region.of(awsAppDeploymentRegion));
+        long startTime = System.currentTimeMillis();
+        long createdVariants = WallpaperVariants.generate(s3Client, bucketName, WallpaperCatalog.defaultManifestKey, widths, concurrency);
+        System.out.println("Created " + createdVariants + " variants and the manifest " + WallpaperCatalog.defaultManifestKey +
+                " in " + (System.currentTimeMillis() - startTime) + " ms.");
+
+        // Close S3 client
+        s3Client.close();
+    }
+}
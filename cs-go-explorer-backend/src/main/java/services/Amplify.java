@@ -49,7 +49,7 @@ public class Amplify {
      * @param stage Describes the current stage for the auto-created branch. Valid Values:
      *              PRODUCTION | BETA | DEVELOPMENT | EXPERIMENTAL | PULL_REQUEST
      * @param environmentalVariables The environment variables for the auto-created branch.
-     * @return The unique ID of the Amplify app.
+     * @return The unique ID of the Amplify app, or of the existing app with the same name.
      */
     public static String createApp(AmplifyClient amplifyClient,
                                    String appName,
@@ -64,6 +64,21 @@ public class Amplify {
                                    boolean enablePerformanceMode,
                                    Map<String, String> environmentalVariables) {
         try {
+            // Reuse the app if a previous deployment created it, because app names are not unique
+            String appId = findAppId(amplifyClient, appName);
+            if (appId != null) {
+                System.out.println("Amplify app " + appName + " already exists.");
+                UpdateAppRequest updateAppRequest = UpdateAppRequest
+                        .builder()
+                        .appId(appId)
+                        .iamServiceRoleArn(roleArn)
+                        .environmentVariables(environmentalVariables)
+                        .build();
+
+                amplifyClient.updateApp(updateAppRequest);
+                return appId;
+            }
+
             AutoBranchCreationConfig autoBranchCreationConfig = AutoBranchCreationConfig
                     .builder()
                     .stage(stage)
@@ -104,6 +119,24 @@ public class Amplify {
         return "";
     }
 
+    /**
+     * Finds an Amplify app by name.
+     * @param amplifyClient Service client for accessing Amplify.
+     * @param appName The name of the Amplify app.
+     * @return The unique ID of the Amplify app, or null if there is no app with the name.
+     */
+    private static String findAppId(AmplifyClient amplifyClient, String appName) {
+        String nextToken = null;
+        do {
+            ListAppsResponse listAppsResponse = amplifyClient.listApps(ListAppsRequest.builder().nextToken(nextToken).build());
+            for (App app : listAppsResponse.apps())
+                if (app.name().equals(appName))
+                    return app.appId();
+            nextToken = listAppsResponse.nextToken();
+        } while (nextToken != null);
+        return null;
+    }
+
     /**
      * Returns an existing Amplify app by appID.
      * @param amplifyClient Service client for accessing Amplify.
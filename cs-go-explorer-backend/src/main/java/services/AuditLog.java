@@ -0,0 +1,193 @@
+package services;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.stream.JsonWriter;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchRequest;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponseEntry;
+import software.amazon.awssdk.services.firehose.model.Record;
+
+/**
+ * Audit log of the operations on the "Students" table. Every event is a newline-delimited JSON record that is sent to
+ * the Kinesis Data Firehose delivery stream AUDIT_LOG_DELIVERY_STREAM_NAME with PutRecordBatch at the end of the Lex
+ * turn, which waits for the call before it returns. Lambda runs one turn per container at a time and may freeze or
+ * reap the container without running shutdown hooks, so the batching into few, large S3 objects is left to Firehose:
+ * it buffers the records of every container and writes them gzip-compressed to the bot's S3 bucket under
+ * "audit/date=YYYY-MM-DD/hour=HH/" keys (UTC), one object per buffer. Records that Firehose did not accept are
+ * buffered again and sent with the next flush.
+ */
+public class AuditLog {
+
+    // Limits of a PutRecordBatch call
+    private static final int maxBatchRecords = 500;
+    private static final long maxBatchBytes = 4_000_000;
+    private static final long shutdownTimeoutMillis = 5000;
+
+    // Guarded by the AuditLog class
+    private static final List<AuditEvent> pendingEvents = new ArrayList<>();
+
+    private static final AtomicLong appendedEvents = new AtomicLong();
+    private static final AtomicLong writtenEvents = new AtomicLong();
+    private static final AtomicLong putRecordBatchCalls = new AtomicLong();
+    private static final AtomicLong failedRecords = new AtomicLong();
+
+    /**
+     * Buffers an operation event until the next flush.
+     * @param type Type of action that was taken on the DynamoDB table (GET, INSERT, REMOVE, or UPDATE).
+     * @param message The message that was sent to the SNS.
+     */
+    public static void append(String type, String message) {
+        AuditEvent event = new AuditEvent(System.currentTimeMillis(), type, message);
+        appendedEvents.incrementAndGet();
+        synchronized (AuditLog.class) {
+            pendingEvents.add(event);
+        }
+    }
+
+    /**
+     * Sends every buffered event to the delivery stream, in as few PutRecordBatch calls as its limits allow. Events
+     * that could not be sent are buffered again and retried with the next flush.
+     * @return Future that completes once every call was answered or has failed.
+     */
+    public static CompletableFuture<Void> flush() {
+        List<AuditEvent> events;
+        synchronized (AuditLog.class) {
+            if (pendingEvents.isEmpty())
+                return CompletableFuture.completedFuture(null);
+
+            events = new ArrayList<>(pendingEvents);
+            pendingEvents.clear();
+        }
+
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        List<AuditEvent> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (AuditEvent event : events) {
+            if (batch.size() == maxBatchRecords || batchBytes + event.record.length > maxBatchBytes) {
+                calls.add(write(batch));
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(event);
+            batchBytes += event.record.length;
+        }
+        calls.add(write(batch));
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Flushes the buffer and waits for the delivery stream to accept the events when the JVM exits, e.g. when the
+     * handler runs locally. Lambda does not run shutdown hooks reliably, so invocations flush the buffer before they return.
+     */
+    public static void shutdown() {
+        try {
+            flush().get(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException error) {
+            System.err.println("The audit log could not be flushed: " + error.getMessage());
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Audit log has been flushed: " + getMetrics());
+    }
+
+    public static String getMetrics() {
+        return "appendedEvents=" + appendedEvents + ", writtenEvents=" + writtenEvents +
+                ", putRecordBatchCalls=" + putRecordBatchCalls + ", failedRecords=" + failedRecords;
+    }
+
+    /**
+     * Sends the events with a single PutRecordBatch call.
+     * @param events Events of the call, in the order they were appended.
+     * @return Future that completes once the call was answered or has failed.
+     */
+    private static CompletableFuture<Void> write(List<AuditEvent> events) {
+        List<Record> records = new ArrayList<>(events.size());
+        for (AuditEvent event : events)
+            records.add(Record.builder().data(SdkBytes.fromByteArray(event.record)).build());
+
+        PutRecordBatchRequest putRecordBatchRequest = PutRecordBatchRequest
+                .builder()
+                .deliveryStreamName(System.getenv("AUDIT_LOG_DELIVERY_STREAM_NAME"))
+                .records(records)
+                .build();
+
+        putRecordBatchCalls.incrementAndGet();
+        return ClientRegistry.firehoseAsync().putRecordBatch(putRecordBatchRequest)
+                .handle((putRecordBatchResponse, error) -> {
+                    if (error != null) {
+                        failedRecords.addAndGet(events.size());
+                        System.err.println(events.size() + " audit log records could not be sent: " + error.getMessage());
+                        requeue(events);
+                        return null;
+                    }
+
+                    // The entries of the response are in the order of the records of the request
+                    List<AuditEvent> failedEvents = new ArrayList<>();
+                    List<PutRecordBatchResponseEntry> entries = putRecordBatchResponse.requestResponses();
+                    for (int i = 0; i < entries.size(); i++)
+                        if (entries.get(i).errorCode() != null)
+                            failedEvents.add(events.get(i));
+
+                    writtenEvents.addAndGet(events.size() - failedEvents.size());
+                    if (!failedEvents.isEmpty()) {
+                        failedRecords.addAndGet(failedEvents.size());
+                        System.err.println(failedEvents.size() + " audit log records were not accepted by the delivery stream");
+                        requeue(failedEvents);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Buffers the events of a failed call again, ahead of the events appended since.
+     * @param events Events of the failed call.
+     */
+    private static void requeue(List<AuditEvent> events) {
+        synchronized (AuditLog.class) {
+            pendingEvents.addAll(0, events);
+        }
+    }
+
+    /**
+     * Encodes an event as a line of newline-delimited JSON, so that the objects Firehose writes are valid NDJSON.
+     * @param timestamp Time of the event in milliseconds since the epoch.
+     * @param type Type of the event.
+     * @param message Message of the event.
+     * @return Encoded record.
+     */
+    private static byte[] encode(long timestamp, String type, String message) {
+        StringWriter line = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(line)) {
+            writer.beginObject();
+            writer.name("timestamp").value(Instant.ofEpochMilli(timestamp).toString());
+            writer.name("type").value(type);
+            writer.name("message").value(message);
+            writer.endObject();
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+        line.write('\n');
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class AuditEvent {
+        private final byte[] record;
+
+        AuditEvent(long timestamp, String type, String message) {
+            this.record = encode(timestamp, type, message);
+        }
+    }
+}
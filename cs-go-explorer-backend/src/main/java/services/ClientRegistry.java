@@ -0,0 +1,294 @@
+package services;
+
+import handler.AppHandler;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.SdkClient;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.firehose.FirehoseAsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.SnsClient;
+
+/**
+ * Process-wide registry of the AWS service clients used by the Lambda function. Clients are created lazily on first
+ * use and then reused by every warm invocation of the same container, so only the first request pays for setting up
+ * the connection pool and the TLS handshake. All synchronous clients share a single tuned HTTP client,
+ * and all asynchronous clients share a single non-blocking Netty HTTP client.
+ */
+public class ClientRegistry {
+
+    private static final Map<Class<? extends SdkClient>, SdkClient> clients = new ConcurrentHashMap<>();
+    private static final Map<String, ClientMetrics> metrics = new ConcurrentHashMap<>();
+    private static volatile SdkHttpClient httpClient;
+    private static volatile SdkAsyncHttpClient asyncHttpClient;
+    private static volatile S3Presigner s3Presigner;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ClientRegistry::shutdown, "client-registry-shutdown"));
+    }
+
+    /**
+     * Returns the shared DynamoDB client, creating it on first use.
+     * @return Service client for accessing Amazon DynamoDB.
+     */
+    public static DynamoDbClient dynamoDb() {
+        return getOrCreate(DynamoDbClient.class, () -> DynamoDbClient
+                .builder()
+                .httpClient(httpClient())
+                .credentialsProvider(StaticCredentialsProvider.create(AppHandler.getAwsBasicCredentials()))
+                .region(region())
+                .build());
+    }
+
+    /**
+     * Returns the shared S3 client, creating it on first use.
+     * @return Service client for accessing Amazon S3.
+     */
+    public static S3Client s3() {
+        return getOrCreate(S3Client.class, () -> S3Client
+                .builder()
+                .httpClient(httpClient())
+                .credentialsProvider(StaticCredentialsProvider.create(AppHandler.getAwsBasicCredentials()))
+                .region(region())
+                .build());
+    }
+
+    /**
+     * Returns the shared SNS client, creating it on first use.
+     * @return Service client for accessing Amazon SNS.
+     */
+    public static SnsClient sns() {
+        return getOrCreate(SnsClient.class, () -> SnsClient
+                .builder()
+                .httpClient(httpClient())
+                .credentialsProvider(StaticCredentialsProvider.create(AppHandler.getAwsBasicCredentials()))
+                .region(region())
+                .build());
+    }
+
+    /**
+     * Returns the shared asynchronous DynamoDB client, creating it on first use.
+     * @return Asynchronous service client for accessing Amazon DynamoDB.
+     */
+    public static DynamoDbAsyncClient dynamoDbAsync() {
+        return getOrCreate(DynamoDbAsyncClient.class, () -> DynamoDbAsyncClient
+                .builder()
+                .httpClient(asyncHttpClient())
+                .credentialsProvider(StaticCredentialsProvider.create(AppHandler.getAwsBasicCredentials()))
+                .region(region())
+                .build());
+    }
+
+    /**
+     * Returns the shared asynchronous S3 client, creating it on first use.
+     * @return Asynchronous service client for accessing Amazon S3.
+     */
+    public static S3AsyncClient s3Async() {
+        return getOrCreate(S3AsyncClient.class, () -> S3AsyncClient
+                .builder()
+                .httpClient(asyncHttpClient())
+                .credentialsProvider(StaticCredentialsProvider.create(AppHandler.getAwsBasicCredentials()))
+                .region(region())
+                .build());
+    }
+
+    /**
+     * Returns the shared S3 presigner, creating it on first use. Presigning happens locally and makes no service calls.
+     * @return Presigner for Amazon S3 requests.
+     */
+    public static S3Presigner s3Presigner() {
+        if (s3Presigner == null) {
+            synchronized (ClientRegistry.class) {
+                if (s3Presigner == null) {
+                    s3Presigner = S3Presigner
+                            .builder()
+                            .credentialsProvider(StaticCredentialsProvider.create(AppHandler.getAwsBasicCredentials()))
+                            .region(region())
+                            .build();
+                }
+            }
+        }
+        return s3Presigner;
+    }
+
+    /**
+     * Returns the shared asynchronous SNS client, creating it on first use.
+     * @return Asynchronous service client for accessing Amazon SNS.
+     */
+    public static SnsAsyncClient snsAsync() {
+        return getOrCreate(SnsAsyncClient.class, () -> SnsAsyncClient
+                .builder()
+                .httpClient(asyncHttpClient())
+                .credentialsProvider(StaticCredentialsProvider.create(AppHandler.getAwsBasicCredentials()))
+                .region(region())
+                .build());
+    }
+
+    /**
+     * Returns the shared asynchronous Firehose client, creating it on first use.
+     * @return Asynchronous service client for accessing Kinesis Data Firehose.
+     */
+    public static FirehoseAsyncClient firehoseAsync() {
+        return getOrCreate(FirehoseAsyncClient.class, () -> FirehoseAsyncClient
+                .builder()
+                .httpClient(asyncHttpClient())
+                .credentialsProvider(StaticCredentialsProvider.create(AppHandler.getAwsBasicCredentials()))
+                .region(region())
+                .build());
+    }
+
+    /**
+     * Returns a snapshot of the hit and creation counters of every client requested so far.
+     * @return Client metrics keyed by the client type name.
+     */
+    public static Map<String, ClientMetrics> getMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    /**
+     * Flushes the audit log, then closes every registered client and the shared HTTP client. The registry can be
+     * used again afterwards, in which case the clients are created from scratch.
+     */
+    public static synchronized void shutdown() {
+        AuditLog.shutdown();
+        closeClients();
+        System.out.println("Client registry has been shut down: " + getMetrics());
+    }
+
+    /**
+     * Closes every registered client and the shared HTTP clients, together with their pooled connections, without
+     * flushing the audit log. Used after a snapshot restore, since connections opened before the checkpoint are stale.
+     * The clients are created again on first use.
+     */
+    public static synchronized void closeClients() {
+        for (SdkClient client : clients.values()) {
+            try {
+                client.close();
+            } catch (RuntimeException error) {
+                System.err.println(error.getMessage());
+            }
+        }
+        clients.clear();
+
+        if (httpClient != null) {
+            httpClient.close();
+            httpClient = null;
+        }
+        if (asyncHttpClient != null) {
+            asyncHttpClient.close();
+            asyncHttpClient = null;
+        }
+        if (s3Presigner != null) {
+            s3Presigner.close();
+            s3Presigner = null;
+        }
+    }
+
+    /**
+     * Returns the registered client of the given type or creates it with the supplied factory.
+     * @param clientType The type of the service client.
+     * @param factory Builds a new service client.
+     * @return Service client of the given type.
+     */
+    private static <T extends SdkClient> T getOrCreate(Class<T> clientType, Supplier<T> factory) {
+        ClientMetrics clientMetrics = metrics.computeIfAbsent(clientType.getSimpleName(), name -> new ClientMetrics());
+        SdkClient client = clients.get(clientType);
+        if (client != null) {
+            clientMetrics.hits.incrementAndGet();
+            return clientType.cast(client);
+        }
+        return clientType.cast(clients.computeIfAbsent(clientType, type -> {
+            clientMetrics.creations.incrementAndGet();
+            return factory.get();
+        }));
+    }
+
+    /**
+     * Builds the HTTP client shared by all service clients on first use.
+     * @return HTTP client with a connection pool sized for concurrent service calls.
+     */
+    private static SdkHttpClient httpClient() {
+        if (httpClient == null) {
+            synchronized (ClientRegistry.class) {
+                if (httpClient == null) {
+                    httpClient = ApacheHttpClient
+                            .builder()
+                            .maxConnections(64)
+                            .connectionTimeout(Duration.ofSeconds(2))
+                            .socketTimeout(Duration.ofSeconds(30))
+                            .connectionMaxIdleTime(Duration.ofMinutes(5))
+                            .tcpKeepAlive(true)
+                            .build();
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    /**
+     * Builds the non-blocking HTTP client shared by all asynchronous service clients on first use.
+     * @return Netty HTTP client with a connection pool sized for concurrent service calls.
+     */
+    private static SdkAsyncHttpClient asyncHttpClient() {
+        if (asyncHttpClient == null) {
+            synchronized (ClientRegistry.class) {
+                if (asyncHttpClient == null) {
+                    asyncHttpClient = NettyNioAsyncHttpClient
+                            .builder()
+                            .maxConcurrency(64)
+                            .connectionTimeout(Duration.ofSeconds(2))
+                            .readTimeout(Duration.ofSeconds(30))
+                            .connectionMaxIdleTime(Duration.ofMinutes(5))
+                            .tcpKeepAlive(true)
+                            .build();
+                }
+            }
+        }
+        return asyncHttpClient;
+    }
+
+    /**
+     * Gets the AWS Region the Lambda function is running in.
+     * @return The AWS Region.
+     */
+    private static Region region() {
+        return Region.of(System.getenv("AWS_REGION"));
+    }
+
+    /**
+     * Counts how often a client was reused and how often it had to be built.
+     */
+    public static class ClientMetrics {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong creations = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getCreations() {
+            return creations.get();
+        }
+
+        @Override
+        public String toString() {
+            return "{hits=" + hits.get() + ", creations=" + creations.get() + '}';
+        }
+    }
+}
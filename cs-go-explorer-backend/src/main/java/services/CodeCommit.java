@@ -26,7 +26,7 @@ public class CodeCommit {
     }
 
     /**
-     * Creates a new, empty repository.
+     * Creates a new, empty repository. A repository with the same name that already exists is used instead.
      * @param codeCommitClient Service client for accessing CodeCommit.
      * @param repositoryName The name of the new repository to be created.
      * @param repositoryDescription A comment or description about the new repository.
@@ -44,6 +44,14 @@ public class CodeCommit {
 
             CreateRepositoryResponse createRepositoryResponse = codeCommitClient.createRepository(createRepositoryRequest);
             return createRepositoryResponse.repositoryMetadata().cloneUrlHttp();
+        } catch (RepositoryNameExistsException error) {
+            System.out.println("Repository " + repositoryName + " already exists.");
+            GetRepositoryRequest getRepositoryRequest = GetRepositoryRequest
+                    .builder()
+                    .repositoryName(repositoryName)
+                    .build();
+
+            return codeCommitClient.getRepository(getRepositoryRequest).repositoryMetadata().cloneUrlHttp();
         } catch (CodeCommitException error) {
             System.err.println(error.getMessage());
             System.exit(1);
@@ -0,0 +1,140 @@
+package services;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.firehose.FirehoseClient;
+import software.amazon.awssdk.services.firehose.model.*;
+
+/**
+ * Amazon Kinesis Data Firehose delivers streaming data to destinations such as Amazon S3. It buffers the records it
+ * receives and writes them as one object per buffer, so producers can send small records without creating small objects.
+ */
+public class Firehose {
+
+    private static final long streamReadyTimeoutMillis = 300000;
+
+    /**
+     * Authenticate to the Firehose client using the AWS user's credentials.
+     * @param awsBasicCredentials The AWS Access Key ID and Secret Access Key are credentials that are used to securely sign requests to AWS services.
+     * @param appRegion The AWS Region where the service will be hosted.
+     * @return Service client for accessing Kinesis Data Firehose.
+     */
+    public static FirehoseClient authenticateFirehose(AwsBasicCredentials awsBasicCredentials, Region appRegion) {
+        return FirehoseClient
+                .builder()
+                .credentialsProvider(StaticCredentialsProvider.create(awsBasicCredentials))
+                .region(appRegion)
+                .build();
+    }
+
+    /**
+     * Creates a delivery stream that writes the records it receives to an S3 bucket, gzip-compressed, under
+     * "prefix/date=YYYY-MM-DD/hour=HH/" keys (UTC). A delivery stream with the same name that already exists is used
+     * instead.
+     * @param firehoseClient Service client for accessing Kinesis Data Firehose.
+     * @param deliveryStreamName The name of the delivery stream.
+     * @param roleArn The ARN of a role that Firehose can assume to write to the bucket.
+     * @param bucketName The name of the destination bucket.
+     * @param prefix The key prefix of the delivered objects, e.g. audit.
+     * @param bufferSizeInMBs The size of the buffer that is written as one object.
+     * @param bufferIntervalInSeconds The time after which a buffer that is not full is written.
+     * @return The ARN of the delivery stream.
+     */
+    public static String createDeliveryStream(FirehoseClient firehoseClient,
+                                              String deliveryStreamName,
+                                              String roleArn,
+                                              String bucketName,
+                                              String prefix,
+                                              int bufferSizeInMBs,
+                                              int bufferIntervalInSeconds) {
+        try {
+            BufferingHints bufferingHints = BufferingHints
+                    .builder()
+                    .sizeInMBs(bufferSizeInMBs)
+                    .intervalInSeconds(bufferIntervalInSeconds)
+                    .build();
+
+            ExtendedS3DestinationConfiguration s3DestinationConfiguration = ExtendedS3DestinationConfiguration
+                    .builder()
+                    .roleARN(roleArn)
+                    .bucketARN("arn:aws:s3:::" + bucketName)
+                    .prefix(prefix + "/date=!{timestamp:yyyy-MM-dd}/hour=!{timestamp:HH}/")
+                    .errorOutputPrefix(prefix + "-errors/!{firehose:error-output-type}/date=!{timestamp:yyyy-MM-dd}/")
+                    .bufferingHints(bufferingHints)
+                    .compressionFormat(CompressionFormat.GZIP)
+                    .build();
+
+            CreateDeliveryStreamRequest createDeliveryStreamRequest = CreateDeliveryStreamRequest
+                    .builder()
+                    .deliveryStreamName(deliveryStreamName)
+                    .deliveryStreamType(DeliveryStreamType.DIRECT_PUT)
+                    .extendedS3DestinationConfiguration(s3DestinationConfiguration)
+                    .build();
+
+            createDeliveryStreamWhenRoleIsReady(firehoseClient, createDeliveryStreamRequest);
+            return waitUntilActive(firehoseClient, deliveryStreamName);
+        } catch (ResourceInUseException error) {
+            System.out.println("Delivery stream " + deliveryStreamName + " already exists.");
+            try {
+                return waitUntilActive(firehoseClient, deliveryStreamName);
+            } catch (FirehoseException | InterruptedException describeError) {
+                System.err.println(describeError.getMessage());
+                System.exit(1);
+            }
+        } catch (FirehoseException | InterruptedException error) {
+            System.err.println(error.getMessage());
+            System.exit(1);
+        }
+        return "";
+    }
+
+    /**
+     * Creates the delivery stream, polling until its role can be assumed by Firehose. A newly created or changed IAM
+     * role takes a few seconds to propagate, during which Firehose rejects it.
+     * @param firehoseClient Service client for accessing Kinesis Data Firehose.
+     * @param createDeliveryStreamRequest The request that creates the delivery stream.
+     */
+    private static void createDeliveryStreamWhenRoleIsReady(FirehoseClient firehoseClient, CreateDeliveryStreamRequest createDeliveryStreamRequest) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + streamReadyTimeoutMillis;
+        long pollIntervalMillis = 1000;
+        while (true) {
+            try {
+                firehoseClient.createDeliveryStream(createDeliveryStreamRequest);
+                return;
+            } catch (InvalidArgumentException error) {
+                if (!error.getMessage().contains("role") || System.currentTimeMillis() >= deadline)
+                    throw error;
+                System.out.println("Waiting for the role " + createDeliveryStreamRequest.extendedS3DestinationConfiguration().roleARN() + " to be assumable by Firehose...");
+            }
+            Thread.sleep(pollIntervalMillis);
+            pollIntervalMillis = Math.min(pollIntervalMillis * 2, 5000);
+        }
+    }
+
+    /**
+     * Polls the delivery stream until it is active, since records can only be put to an active stream.
+     * @param firehoseClient Service client for accessing Kinesis Data Firehose.
+     * @param deliveryStreamName The name of the delivery stream.
+     * @return The ARN of the delivery stream.
+     */
+    private static String waitUntilActive(FirehoseClient firehoseClient, String deliveryStreamName) throws InterruptedException {
+        DescribeDeliveryStreamRequest describeDeliveryStreamRequest = DescribeDeliveryStreamRequest
+                .builder()
+                .deliveryStreamName(deliveryStreamName)
+                .build();
+
+        long deadline = System.currentTimeMillis() + streamReadyTimeoutMillis;
+        DeliveryStreamDescription deliveryStreamDescription = firehoseClient.describeDeliveryStream(describeDeliveryStreamRequest).deliveryStreamDescription();
+        while (deliveryStreamDescription.deliveryStreamStatus() == DeliveryStreamStatus.CREATING) {
+            if (System.currentTimeMillis() >= deadline)
+                throw FirehoseException.builder().message("The delivery stream " + deliveryStreamName + " did not become active within " + streamReadyTimeoutMillis + " ms").build();
+            Thread.sleep(5000);
+            deliveryStreamDescription = firehoseClient.describeDeliveryStream(describeDeliveryStreamRequest).deliveryStreamDescription();
+        }
+
+        if (deliveryStreamDescription.deliveryStreamStatus() != DeliveryStreamStatus.ACTIVE)
+            throw FirehoseException.builder().message("The delivery stream " + deliveryStreamName + " is " + deliveryStreamDescription.deliveryStreamStatusAsString()).build();
+        return deliveryStreamDescription.deliveryStreamARN();
+    }
+}
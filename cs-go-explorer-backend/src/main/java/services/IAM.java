@@ -40,7 +40,21 @@ public class IAM {
     }
 
     /**
-     * Creates an IAM role that will be used across the entire application in AWS.
+     * Describes the trust policy of the role for the deployment journal, so that a changed policy is applied again.
+     * @return Trust policy document, or "missing" if it cannot be read.
+     */
+    public static String describeTrustPolicy() {
+        try {
+            return ((JSONObject) readJsonFile("policies", "trust-policy")).toJSONString();
+        } catch (IOException | ParseException error) {
+            return "missing";
+        }
+    }
+
+    /**
+     * Creates an IAM role that will be used across the entire application in AWS. A role with the same name that
+     * already exists, e.g. from an interrupted deployment, is used instead, and its trust policy is updated so that
+     * services added to the trust policy since can assume it.
      * @param iamClient Service client for accessing IAM.
      * @param roleName IAM role name.
      * @param roleDescription IAM role description.
@@ -57,7 +71,20 @@ public class IAM {
                     .assumeRolePolicyDocument(trustPolicy.toJSONString())
                     .build();
 
-            CreateRoleResponse createRoleResponse = iamClient.createRole(createRoleRequest);
+            CreateRoleResponse createRoleResponse;
+            try {
+                createRoleResponse = iamClient.createRole(createRoleRequest);
+            } catch (EntityAlreadyExistsException error) {
+                System.out.println("Role " + roleName + " already exists.");
+                UpdateAssumeRolePolicyRequest updateAssumeRolePolicyRequest = UpdateAssumeRolePolicyRequest
+                        .builder()
+                        .roleName(roleName)
+                        .policyDocument(trustPolicy.toJSONString())
+                        .build();
+
+                iamClient.updateAssumeRolePolicy(updateAssumeRolePolicyRequest);
+                return iamClient.getRole(GetRoleRequest.builder().roleName(roleName).build()).role().arn();
+            }
 
             GetRoleRequest roleRequest = GetRoleRequest
                     .builder()
@@ -114,7 +141,7 @@ public class IAM {
     }
 
     /**
-     * Creates permissions policy.
+     * Creates permissions policy. A customer managed policy with the same name that already exists is used instead.
      * @param iamClient Service client for accessing IAM.
      * @param policyName Policy name.
      * @return Policy ARN.
@@ -141,6 +168,18 @@ public class IAM {
             waitUntilPolicyExists.matched().response().ifPresent(System.out::println);
 
             return createPolicyResponse.policy().arn();
+        } catch (EntityAlreadyExistsException error) {
+            System.out.println("Permissions policy " + policyName + " already exists.");
+            ListPoliciesRequest listPoliciesRequest = ListPoliciesRequest
+                    .builder()
+                    .scope(PolicyScopeType.LOCAL)
+                    .build();
+
+            for (Policy policy : iamClient.listPoliciesPaginator(listPoliciesRequest).policies())
+                if (policy.policyName().equals(policyName))
+                    return policy.arn();
+            System.err.println(error.getMessage());
+            System.exit(1);
         } catch (IamException | IOException | ParseException error) {
             System.err.println(error.getMessage());
             System.exit(1);
@@ -188,6 +227,39 @@ public class IAM {
         }
     }
 
+    /**
+     * Polls the role's attached policies until the permissions policy shows up, instead of waiting a fixed time.
+     * @param iamClient Service client for accessing IAM.
+     * @param roleName Name of the role to which the permissions policy was attached.
+     * @param permissionsPolicyArn Permissions policy ARN.
+     * @param timeoutMillis The maximum time to wait in milliseconds.
+     */
+    public static void waitUntilRolePermissionsPolicyAttached(IamClient iamClient, String roleName, String permissionsPolicyArn, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long pollIntervalMillis = 500;
+        while (true) {
+            try {
+                ListAttachedRolePoliciesRequest request = ListAttachedRolePoliciesRequest
+                        .builder()
+                        .roleName(roleName)
+                        .build();
+
+                for (AttachedPolicy policy : iamClient.listAttachedRolePoliciesPaginator(request).attachedPolicies())
+                    if (policy.policyArn().equals(permissionsPolicyArn))
+                        return;
+            } catch (NoSuchEntityException error) {
+                // The role is not visible yet
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                System.err.println("The permissions policy " + permissionsPolicyArn + " is not attached to " + roleName + " yet.");
+                System.exit(1);
+            }
+            Thread.sleep(pollIntervalMillis);
+            pollIntervalMillis = Math.min(pollIntervalMillis * 2, 4000);
+        }
+    }
+
     /**
      * Reads JSON file content then converts it to the InputStream and parses to JSONObject.
      * @param filename The name of the JSON file to read.
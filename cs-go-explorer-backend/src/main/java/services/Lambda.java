@@ -1,10 +1,12 @@
 package services;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -22,6 +24,9 @@ import software.amazon.awssdk.services.lambda.model.Runtime;
  */
 public class Lambda {
 
+    public static final String codeFileName = "cs-go-explorer-backend-1.0.0.jar";
+    private static final long roleReadyTimeoutMillis = 120000;
+
     /**
      * Authenticate to the Lambda client using the AWS user's credentials.
      * @param awsBasicCredentials The AWS Access Key ID and Secret Access Key are credentials that are used to securely sign requests to AWS services.
@@ -36,6 +41,20 @@ public class Lambda {
                 .build();
     }
 
+    /**
+     * Describes the deployment package of the function by its size and modification time, so that a deployment can
+     * tell whether the code changed without reading the package.
+     * @param codePath The path of the deployment package.
+     * @return Description of the deployment package, or "missing" if it cannot be read.
+     */
+    public static String describeCode(Path codePath) {
+        try {
+            return Files.size(codePath) + ":" + Files.getLastModifiedTime(codePath).toMillis();
+        } catch (IOException error) {
+            return "missing";
+        }
+    }
+
     /**
      * Creates lambda function.
      * @param lambdaClient Service client for accessing AWS Lambda.
@@ -61,9 +80,39 @@ public class Lambda {
                                               int timeout,
                                               int memorySizeMB,
                                               Environment environment) {
+        return createLambdaFunction(lambdaClient, functionName, functionDescription, roleArn, handlerPath,
+                runtime.toString(), false, timeout, memorySizeMB, environment);
+    }
+
+    /**
+     * Creates lambda function with SnapStart optionally enabled. SnapStart takes a snapshot of the initialized
+     * execution environment when a version is published, so it only applies to published versions of the function.
+     * When the function already exists, its code and configuration are updated instead.
+     * @param lambdaClient Service client for accessing AWS Lambda.
+     * @param functionName The name of the Lambda function.
+     * @param functionDescription The description of the Lambda function.
+     * @param roleArn The Amazon Resource Name (ARN) of the function's execution role.
+     * @param handlerPath The path to the handler method to invoke the function in the uploaded package.
+     * @param runtime The identifier of the runtime in which the lambda function will be executed, e.g. java17 or java21.
+     * @param isSnapStartEnabled Whether SnapStart is applied to the published versions of the function.
+     * @param timeout Lambda function's maximum invocation timeout limit.
+     * @param memorySizeMB The amount of memory allocated to a Lambda function.
+     * @param environment A function's environment variable settings.
+     * @return Lambda function ARN.
+     */
+    public static String createLambdaFunction(LambdaClient lambdaClient,
+                                              String functionName,
+                                              String functionDescription,
+                                              String roleArn,
+                                              String handlerPath,
+                                              String runtime,
+                                              boolean isSnapStartEnabled,
+                                              int timeout,
+                                              int memorySizeMB,
+                                              Environment environment) {
         try {
             Path path = Paths.get("");
-            InputStream inputStream = new FileInputStream(path.toAbsolutePath() + "/cs-go-explorer-backend-1.0.0.jar");
+            InputStream inputStream = new FileInputStream(path.toAbsolutePath() + "/" + codeFileName);
             SdkBytes fileToUpload = SdkBytes.fromInputStream(inputStream);
 
             // Lambda function code
@@ -83,9 +132,19 @@ public class Lambda {
                     .timeout(timeout)
                     .memorySize(memorySizeMB)
                     .environment(environment)
+                    .snapStart(SnapStart
+                            .builder()
+                            .applyOn(isSnapStartEnabled ? SnapStartApplyOn.PUBLISHED_VERSIONS : SnapStartApplyOn.NONE)
+                            .build())
                     .build();
 
-            CreateFunctionResponse functionResponse = lambdaClient.createFunction(functionRequest);
+            CreateFunctionResponse functionResponse;
+            try {
+                functionResponse = createFunctionWhenRoleIsReady(lambdaClient, functionRequest);
+            } catch (ResourceConflictException error) {
+                // The function exists from an earlier deployment, so only its code and configuration are updated
+                return updateLambdaFunction(lambdaClient, functionRequest);
+            }
             GetFunctionRequest getFunctionRequest = GetFunctionRequest
                     .builder()
                     .functionName(functionResponse.functionName())
@@ -96,7 +155,116 @@ public class Lambda {
             waiterResponse.matched().response().ifPresent(System.out::println);
 
             return functionResponse.functionArn();
-        } catch (LambdaException | FileNotFoundException error) {
+        } catch (LambdaException | FileNotFoundException | InterruptedException error) {
+            System.err.println(error.getMessage());
+            System.exit(1);
+        }
+        return "";
+    }
+
+    /**
+     * Creates the function, polling until its execution role can be assumed by Lambda. A newly created or changed IAM
+     * role takes a few seconds to propagate, during which Lambda rejects it.
+     * @param lambdaClient Service client for accessing AWS Lambda.
+     * @param functionRequest The request that creates the function.
+     * @return The response of the request.
+     */
+    private static CreateFunctionResponse createFunctionWhenRoleIsReady(LambdaClient lambdaClient, CreateFunctionRequest functionRequest) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + roleReadyTimeoutMillis;
+        long pollIntervalMillis = 1000;
+        while (true) {
+            try {
+                return lambdaClient.createFunction(functionRequest);
+            } catch (InvalidParameterValueException error) {
+                if (!error.getMessage().contains("role") || System.currentTimeMillis() >= deadline)
+                    throw error;
+                System.out.println("Waiting for the role " + functionRequest.role() + " to be assumable by Lambda...");
+            }
+            Thread.sleep(pollIntervalMillis);
+            pollIntervalMillis = Math.min(pollIntervalMillis * 2, 5000);
+        }
+    }
+
+    /**
+     * Updates the code and the configuration of an existing function to the ones of the create request.
+     * @param lambdaClient Service client for accessing AWS Lambda.
+     * @param functionRequest The request that would have created the function.
+     * @return Lambda function ARN.
+     */
+    private static String updateLambdaFunction(LambdaClient lambdaClient, CreateFunctionRequest functionRequest) throws InterruptedException {
+        String functionName = functionRequest.functionName();
+        System.out.println("Lambda function " + functionName + " already exists, updating its code and configuration.");
+
+        waitUntilUpdated(lambdaClient, functionName);
+        UpdateFunctionCodeRequest updateFunctionCodeRequest = UpdateFunctionCodeRequest
+                .builder()
+                .functionName(functionName)
+                .zipFile(functionRequest.code().zipFile())
+                .build();
+
+        lambdaClient.updateFunctionCode(updateFunctionCodeRequest);
+        waitUntilUpdated(lambdaClient, functionName);
+
+        UpdateFunctionConfigurationRequest updateFunctionConfigurationRequest = UpdateFunctionConfigurationRequest
+                .builder()
+                .functionName(functionName)
+                .description(functionRequest.description())
+                .handler(functionRequest.handler())
+                .runtime(functionRequest.runtimeAsString())
+                .role(functionRequest.role())
+                .timeout(functionRequest.timeout())
+                .memorySize(functionRequest.memorySize())
+                .environment(functionRequest.environment())
+                .snapStart(functionRequest.snapStart())
+                .build();
+
+        UpdateFunctionConfigurationResponse updateFunctionConfigurationResponse = lambdaClient.updateFunctionConfiguration(updateFunctionConfigurationRequest);
+        waitUntilUpdated(lambdaClient, functionName);
+        return updateFunctionConfigurationResponse.functionArn();
+    }
+
+    /**
+     * Polls the function configuration until the last update of the function is finished. Lambda rejects updates
+     * while another update is in progress.
+     * @param lambdaClient Service client for accessing AWS Lambda.
+     * @param functionName The name of the Lambda function.
+     */
+    private static void waitUntilUpdated(LambdaClient lambdaClient, String functionName) throws InterruptedException {
+        GetFunctionConfigurationRequest getFunctionConfigurationRequest = GetFunctionConfigurationRequest
+                .builder()
+                .functionName(functionName)
+                .build();
+
+        GetFunctionConfigurationResponse configuration = lambdaClient.getFunctionConfiguration(getFunctionConfigurationRequest);
+        while (configuration.lastUpdateStatus() == LastUpdateStatus.IN_PROGRESS) {
+            Thread.sleep(2000);
+            configuration = lambdaClient.getFunctionConfiguration(getFunctionConfigurationRequest);
+        }
+        if (configuration.lastUpdateStatus() == LastUpdateStatus.FAILED)
+            throw LambdaException.builder().message("The update of " + functionName + " failed: " + configuration.lastUpdateStatusReason()).build();
+    }
+
+    /**
+     * Publishes a version of the lambda function. When SnapStart is enabled, the execution environment of the version
+     * is initialized and snapshotted before the version becomes active.
+     * @param lambdaClient Service client for accessing AWS Lambda.
+     * @param functionName The name of the Lambda function.
+     * @return Qualified ARN of the published version.
+     */
+    public static String publishVersion(LambdaClient lambdaClient, String functionName) {
+        try {
+            waitUntilActive(lambdaClient, functionName, "$LATEST");
+
+            PublishVersionRequest publishVersionRequest = PublishVersionRequest
+                    .builder()
+                    .functionName(functionName)
+                    .build();
+
+            PublishVersionResponse publishVersionResponse = lambdaClient.publishVersion(publishVersionRequest);
+            waitUntilActive(lambdaClient, functionName, publishVersionResponse.version());
+
+            return publishVersionResponse.functionArn();
+        } catch (LambdaException | InterruptedException error) {
             System.err.println(error.getMessage());
             System.exit(1);
         }
@@ -104,7 +272,68 @@ public class Lambda {
     }
 
     /**
-     * Grants an AWS Lex service permission to use a lambda function.
+     * Points an alias to a published version of the function, creating the alias if it does not exist. Callers that
+     * invoke the alias keep the same ARN when a new version is published.
+     * @param lambdaClient Service client for accessing AWS Lambda.
+     * @param functionName The name of the Lambda function.
+     * @param aliasName The name of the alias.
+     * @param versionArn Qualified ARN of the published version.
+     * @return ARN of the alias.
+     */
+    public static String createOrUpdateAlias(LambdaClient lambdaClient, String functionName, String aliasName, String versionArn) {
+        String functionVersion = versionArn.substring(versionArn.lastIndexOf(':') + 1);
+        try {
+            try {
+                CreateAliasRequest createAliasRequest = CreateAliasRequest
+                        .builder()
+                        .functionName(functionName)
+                        .name(aliasName)
+                        .functionVersion(functionVersion)
+                        .build();
+
+                return lambdaClient.createAlias(createAliasRequest).aliasArn();
+            } catch (ResourceConflictException error) {
+                UpdateAliasRequest updateAliasRequest = UpdateAliasRequest
+                        .builder()
+                        .functionName(functionName)
+                        .name(aliasName)
+                        .functionVersion(functionVersion)
+                        .build();
+
+                return lambdaClient.updateAlias(updateAliasRequest).aliasArn();
+            }
+        } catch (LambdaException error) {
+            System.err.println(error.getMessage());
+            System.exit(1);
+        }
+        return "";
+    }
+
+    /**
+     * Polls the function configuration until the given version of the function is active.
+     * @param lambdaClient Service client for accessing AWS Lambda.
+     * @param functionName The name of the Lambda function.
+     * @param qualifier The version of the Lambda function.
+     */
+    private static void waitUntilActive(LambdaClient lambdaClient, String functionName, String qualifier) throws InterruptedException {
+        GetFunctionConfigurationRequest getFunctionConfigurationRequest = GetFunctionConfigurationRequest
+                .builder()
+                .functionName(functionName)
+                .qualifier(qualifier)
+                .build();
+
+        GetFunctionConfigurationResponse configuration = lambdaClient.getFunctionConfiguration(getFunctionConfigurationRequest);
+        while (configuration.state() == State.PENDING) {
+            Thread.sleep(2000);
+            configuration = lambdaClient.getFunctionConfiguration(getFunctionConfigurationRequest);
+        }
+        if (configuration.state() != State.ACTIVE)
+            throw LambdaException.builder().message("Function " + functionName + ":" + qualifier + " is " + configuration.state() + ": " + configuration.stateReason()).build();
+    }
+
+    /**
+     * Grants an AWS Lex service permission to use a lambda function. A statement with the same identifier that
+     * already exists is kept.
      * @param lambdaClient Service client for accessing AWS Lambda.
      * @param lambdaFunctionName The name of the Lambda function, version, or alias.
      * @param statementId A statement identifier that differentiates the statement from others in the same policy.
@@ -126,6 +355,8 @@ public class Lambda {
                     .build();
 
             lambdaClient.addPermission(addPermissionRequest);
+        } catch (ResourceConflictException error) {
+            System.out.println("The resource policy statement " + statementId + " already exists.");
         } catch (LambdaException error) {
             System.err.println(error.getMessage());
             System.exit(1);
@@ -0,0 +1,187 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+import software.amazon.awssdk.services.sns.model.SnsException;
+
+/**
+ * Publishes the messages of an SNS topic with PublishBatch. Messages are queued and sent as soon as 10 of them, the
+ * most a PublishBatch call accepts, are pending, or SNS_PUBLISH_MAX_DELAY_MS milliseconds (20 by default) after the
+ * first of them was queued, which bounds the latency a message gains by waiting for a batch. A caller that is about
+ * to wait for its own message calls {@link #flush()} instead of waiting for the delay, so only callers that really
+ * queue messages concurrently pay for it.
+ */
+public class NotificationQueue {
+
+    private static final int maxBatchSize = 10;
+    private static final long maxDelayMillis = getEnvOrDefault("SNS_PUBLISH_MAX_DELAY_MS", 20);
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sns-publish-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicLong publishBatchCalls = new AtomicLong();
+    private static final AtomicLong publishedMessages = new AtomicLong();
+    private static final AtomicLong failedMessages = new AtomicLong();
+
+    private final SnsAsyncClient snsAsyncClient;
+    private final String topicArn;
+    private final List<PendingMessage> pendingMessages = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private long nextId;
+
+    /**
+     * @param snsAsyncClient Asynchronous service client for accessing SNS.
+     * @param topicArn The ARN of the topic the messages are published to.
+     */
+    public NotificationQueue(SnsAsyncClient snsAsyncClient, String topicArn) {
+        this.snsAsyncClient = snsAsyncClient;
+        this.topicArn = topicArn;
+    }
+
+    /**
+     * Queues the message for the next batch.
+     * @param message The message you want to send.
+     * @return Future ID of the published message.
+     */
+    public CompletableFuture<String> publish(String message) {
+        PendingMessage pendingMessage;
+        List<PendingMessage> batch = null;
+        synchronized (this) {
+            pendingMessage = new PendingMessage(String.valueOf(nextId++), message);
+            pendingMessages.add(pendingMessage);
+            if (pendingMessages.size() == maxBatchSize)
+                batch = drain();
+            else if (scheduledFlush == null)
+                scheduledFlush = scheduler.schedule(this::flush, maxDelayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        if (batch != null)
+            send(batch);
+        return pendingMessage.result;
+    }
+
+    /**
+     * Sends the pending messages without waiting for the batch to fill up.
+     */
+    public void flush() {
+        List<PendingMessage> batch;
+        synchronized (this) {
+            batch = drain();
+        }
+
+        if (!batch.isEmpty())
+            send(batch);
+    }
+
+    public static long getPublishBatchCalls() {
+        return publishBatchCalls.get();
+    }
+
+    public static long getPublishedMessages() {
+        return publishedMessages.get();
+    }
+
+    public static long getFailedMessages() {
+        return failedMessages.get();
+    }
+
+    /**
+     * Takes the pending messages out of the queue. Must be called while holding the lock of the queue.
+     * @return Messages of the batch.
+     */
+    private List<PendingMessage> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingMessage> batch = new ArrayList<>(pendingMessages);
+        pendingMessages.clear();
+        return batch;
+    }
+
+    /**
+     * Publishes the batch and completes the result of every message with its own outcome.
+     * @param batch Messages of the batch, at most 10.
+     */
+    private void send(List<PendingMessage> batch) {
+        Map<String, PendingMessage> messagesById = new HashMap<>();
+        List<PublishBatchRequestEntry> entries = new ArrayList<>(batch.size());
+        for (PendingMessage pendingMessage : batch) {
+            messagesById.put(pendingMessage.id, pendingMessage);
+            entries.add(PublishBatchRequestEntry.builder()
+                    .id(pendingMessage.id)
+                    .message(pendingMessage.message)
+                    .build());
+        }
+
+        publishBatchCalls.incrementAndGet();
+        PublishBatchRequest request = PublishBatchRequest.builder()
+                .topicArn(topicArn)
+                .publishBatchRequestEntries(entries)
+                .build();
+        snsAsyncClient.publishBatch(request).whenComplete((response, error) -> {
+            if (error != null) {
+                failedMessages.addAndGet(batch.size());
+                for (PendingMessage pendingMessage : batch)
+                    pendingMessage.result.completeExceptionally(error);
+                return;
+            }
+
+            for (PublishBatchResultEntry successful : response.successful()) {
+                publishedMessages.incrementAndGet();
+                messagesById.remove(successful.id()).result.complete(successful.messageId());
+            }
+            for (BatchResultErrorEntry failed : response.failed()) {
+                failedMessages.incrementAndGet();
+                messagesById.remove(failed.id()).result.completeExceptionally(SnsException.builder()
+                        .message(failed.code() + ": " + failed.message())
+                        .build());
+            }
+            // Entries that are in neither list were not published either
+            for (PendingMessage pendingMessage : messagesById.values()) {
+                failedMessages.incrementAndGet();
+                pendingMessage.result.completeExceptionally(SnsException.builder()
+                        .message("No result for message " + pendingMessage.id)
+                        .build());
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "publishBatchCalls=" + publishBatchCalls + ", publishedMessages=" + publishedMessages +
+                ", failedMessages=" + failedMessages;
+    }
+
+    private static long getEnvOrDefault(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+
+    private static class PendingMessage {
+        private final String id;
+        private final String message;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        PendingMessage(String id, String message) {
+            this.id = id;
+            this.message = message;
+        }
+    }
+}
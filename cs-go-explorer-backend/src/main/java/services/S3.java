@@ -1,19 +1,18 @@
 package services;
 
-import org.json.simple.JSONArray;
-import services.api.ApiGateway;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.waiters.WaiterResponse;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
-
-import services.api.ApiGatewayProxyResponse;
 import software.amazon.awssdk.services.s3.waiters.S3Waiter;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Amazon S3 provides storage for the Internet, and is designed to make web-scale computing easier for developers.
@@ -129,59 +128,55 @@ public class S3 {
     }
 
     /**
-     * Returns some or all (up to 1,000) of the objects in a bucket.
+     * Adds an object to a bucket without blocking the calling thread.
+     * @param s3AsyncClient Asynchronous service client for accessing Amazon S3.
+     * @param bucketName The bucket name to which the PUT action was initiated.
+     * @param key The key of the object.
+     * @param contentType The media type of the object.
+     * @param contentEncoding The encoding of the object, e.g. gzip.
+     * @param body The content of the object.
+     * @return Future information representing the placed object.
+     */
+    public static CompletableFuture<String> putObjectAsync(S3AsyncClient s3AsyncClient,
+                                                           String bucketName,
+                                                           String key,
+                                                           String contentType,
+                                                           String contentEncoding,
+                                                           byte[] body) {
+        PutObjectRequest objectRequest = PutObjectRequest
+                .builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentEncoding(contentEncoding)
+                .build();
+
+        return s3AsyncClient
+                .putObject(objectRequest, AsyncRequestBody.fromBytes(body))
+                .thenApply(PutObjectResponse::toString);
+    }
+
+    /**
+     * Returns the keys of all objects in a bucket, following every page of ListObjectsV2.
      * @param s3Client Service client for accessing Amazon S3.
      * @param bucketName The bucket name to which the PUT action was initiated.
-     * @return Keys of all (up to 1,000) objects in a bucket.
+     * @return Keys of all objects in a bucket.
      */
     public static List<String> listBucketObjectsKeys(S3Client s3Client, String bucketName) {
         List<String> s3ObjectKeyList = new ArrayList<>();
         try {
-            ListObjectsRequest listObjects = ListObjectsRequest
+            ListObjectsV2Request listObjects = ListObjectsV2Request
                     .builder()
                     .bucket(bucketName)
                     .build();
 
-            ListObjectsResponse listObjectsResponse = s3Client.listObjects(listObjects);
-            List<S3Object> objects = listObjectsResponse.contents();
-            for (S3Object image : objects)
+            for (S3Object image : s3Client.listObjectsV2Paginator(listObjects).contents())
                 s3ObjectKeyList.add(image.key());
 
             return s3ObjectKeyList;
         } catch (S3Exception error) {
             System.err.println(error.awsErrorDetails().errorMessage());
-            System.exit(1);
-        }
-        return new ArrayList<>();
-    }
-
-    /**
-     * Retrieves URLs of objects from Amazon S3.
-     * @param s3Client Service client for accessing Amazon S3.
-     * @param bucketName The bucket name to which the PUT action was initiated.
-     * @param s3ObjectKeyList Keys of all (up to 1,000) objects in a bucket.
-     * @param event The Lambda Function event.
-     * @return API Gateway proxy response containing status code, headers, body, and base64 encoding enabled.
-     */
-    public static ApiGatewayProxyResponse getImageUrls(S3Client s3Client, String bucketName, List<String> s3ObjectKeyList, Map<String, Object> event) {
-        // Handles CORS preflight request
-        if (event.get("httpMethod").equals("OPTIONS"))
-            return ApiGateway.generateResponseForOptionsRequest();
-
-        try {
-            JSONArray jsonArray = new JSONArray();
-            for (String s3ObjectKey : s3ObjectKeyList) {
-                String imageUrl = s3Client
-                        .utilities()
-                        .getUrl(builder -> builder.bucket(bucketName).key(s3ObjectKey))
-                        .toExternalForm();
-                jsonArray.add(imageUrl);
-            }
-            return ApiGateway.generateResponseForPostOrGetRequest(jsonArray.toString());
-        } catch (S3Exception error) {
-            System.err.println(error.getMessage());
-            System.exit(1);
+            throw error;
         }
-        return ApiGateway.generateResponseForPostOrGetRequest("");
     }
-}
\ No newline at end of file
+}
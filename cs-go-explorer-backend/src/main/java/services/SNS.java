@@ -1,14 +1,19 @@
 package services;
 
-import handler.AppHandler;
-
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import services.cache.CacheEntry;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
 import software.amazon.awssdk.services.sns.SnsClient;
 import software.amazon.awssdk.services.sns.model.*;
 
@@ -18,6 +23,10 @@ import software.amazon.awssdk.services.sns.model.*;
  */
 public class SNS {
 
+    private static final long subscriptionsTimeToLiveMillis = getEnvOrDefault("SNS_SUBSCRIPTIONS_TTL_SECONDS", 300) * 1000L;
+    private static final Map<String, CacheEntry<CompletableFuture<List<String>>>> subscriptionEndpoints = new ConcurrentHashMap<>();
+    private static final Map<String, NotificationQueue> notificationQueues = new ConcurrentHashMap<>();
+
     /**
      * Authenticate to the SNS client using the AWS user's credentials.
      * @param awsBasicCredentials The AWS Access Key ID and Secret Access Key are credentials that are used to securely sign requests to AWS services.
@@ -86,7 +95,7 @@ public class SNS {
     }
 
     /**
-     * Returns a list of the requester's subscriptions.
+     * Returns a list of the requester's subscriptions, following every page of the listing.
      * @param snsClient Service client for accessing SNS.
      * @param topicArn The ARN of the topic we want to use to get the list of subscriptions.
      * @return List of the requester's subscriptions.
@@ -98,8 +107,9 @@ public class SNS {
                     .topicArn(topicArn)
                     .build();
 
-            ListSubscriptionsByTopicResponse result = snsClient.listSubscriptionsByTopic(listSubscriptionsByTopicRequest);
-            return result.subscriptions();
+            List<Subscription> subscriptions = new ArrayList<>();
+            snsClient.listSubscriptionsByTopicPaginator(listSubscriptionsByTopicRequest).subscriptions().forEach(subscriptions::add);
+            return subscriptions;
         } catch (SnsException error) {
             System.err.println(error.awsErrorDetails().errorMessage());
             System.exit(1);
@@ -107,54 +117,122 @@ public class SNS {
         return new ArrayList<>();
     }
 
+    /**
+     * Subscribes the email addresses that are not subscribed to the topic yet. Subscriptions are managed once at
+     * deploy time, so that publishing a message never has to subscribe anyone.
+     * @param snsClient Service client for accessing SNS.
+     * @param topicArn The ARN of the topic you want to subscribe to.
+     * @param emails The email addresses that should receive notifications.
+     * @return Number of new subscriptions.
+     */
+    public static int subscribeEmails(SnsClient snsClient, String topicArn, List<String> emails) {
+        Set<String> subscribedEndpoints = new HashSet<>();
+        for (Subscription subscription : getListOfSubscriptionsByTopic(snsClient, topicArn))
+            subscribedEndpoints.add(subscription.endpoint().toLowerCase());
+
+        int newSubscriptions = 0;
+        for (String email : emails) {
+            if (subscribedEndpoints.add(email.trim().toLowerCase())) {
+                emailSubscriber(snsClient, topicArn, email.trim());
+                newSubscriptions++;
+            }
+        }
+        return newSubscriptions;
+    }
+
+    /**
+     * Returns the endpoints subscribed to the topic. The list is cached for SNS_SUBSCRIPTIONS_TTL_SECONDS seconds
+     * (300 by default), since subscriptions only change at deploy time or when a subscriber confirms or unsubscribes.
+     * @param snsAsyncClient Asynchronous service client for accessing SNS.
+     * @param topicArn The ARN of the topic.
+     * @return Future endpoints of the topic's subscriptions.
+     */
+    public static CompletableFuture<List<String>> getSubscriptionEndpoints(SnsAsyncClient snsAsyncClient, String topicArn) {
+        long now = System.currentTimeMillis();
+        CacheEntry<CompletableFuture<List<String>>> entry = subscriptionEndpoints.compute(topicArn, (key, cachedEntry) -> {
+            if (cachedEntry != null && cachedEntry.isFresh(now))
+                return cachedEntry;
+
+            List<String> endpoints = new ArrayList<>();
+            CompletableFuture<List<String>> listing = snsAsyncClient
+                    .listSubscriptionsByTopicPaginator(ListSubscriptionsByTopicRequest.builder().topicArn(topicArn).build())
+                    .subscriptions()
+                    .subscribe(subscription -> endpoints.add(subscription.endpoint()))
+                    .thenApply(ignored -> List.copyOf(endpoints));
+            return new CacheEntry<>(listing, now + subscriptionsTimeToLiveMillis, now + subscriptionsTimeToLiveMillis);
+        });
+
+        // A failed listing is not cached, so that the next message lists the subscriptions again
+        entry.getValue().whenComplete((endpoints, error) -> {
+            if (error != null)
+                subscriptionEndpoints.remove(topicArn, entry);
+        });
+        return entry.getValue();
+    }
+
     /**
      * Sends a message to an Amazon SNS topic, a text message (SMS message) directly to a phone number,
      * or a message to a mobile platform endpoint (when you specify the TargetArn).
-     * @param snsClient Service client for accessing SNS.
      * @param snsTopicArn The ARN of the existing topic.
      * @param messages List of messages that will be displayed to the user in the lex-bot
      * @param message The message you want to send.
      * @param type Type of action that was taken on the DynamoDB table (GET, INSERT, REMOVE, or UPDATE).
      */
-    public static void publishMessage(SnsClient snsClient,
-                                      String snsTopicArn,
+    public static void publishMessage(String snsTopicArn,
                                       List<String> messages,
                                       String message,
                                       String type) {
-        try {
-            List<String> subscribersList = new ArrayList<>();
-            subscribersList.add(System.getenv("USER_EMAIL"));
-
-            for (String subscriber : subscribersList)
-                emailSubscriber(snsClient, snsTopicArn, subscriber);
-
-            PublishRequest request = PublishRequest.builder()
-                    .message(message)
-                    .topicArn(snsTopicArn)
-                    .build();
-            snsClient.publish(request);
-
-            StringBuilder stringBuilder = new StringBuilder();
-            stringBuilder.append("Confirmation sent to ");
-            for (Subscription subscription : getListOfSubscriptionsByTopic(snsClient, snsTopicArn)) {
-                if (getListOfSubscriptionsByTopic(snsClient, snsTopicArn).get(getListOfSubscriptionsByTopic(snsClient, snsTopicArn).size() - 1).equals(subscription)) {
-                    stringBuilder.append(subscription.endpoint());
-                    break;
-                }
-                stringBuilder.append(subscription.endpoint()).append(", ");
-            }
+        publishMessageAsync(ClientRegistry.snsAsync(), snsTopicArn, messages, message, type).join();
+    }
 
-            messages.add(String.valueOf(stringBuilder));
+    /**
+     * Publishes a message to an Amazon SNS topic without blocking the calling thread. The message is sent right away,
+     * together with any message of the topic that is still queued, while the cached subscriptions of the topic are
+     * looked up. It is also appended to the {@link AuditLog}, which is flushed at the same time. A failed notification
+     * is logged and does not fail the Lex turn.
+     * @param snsAsyncClient Asynchronous service client for accessing SNS.
+     * @param snsTopicArn The ARN of the existing topic.
+     * @param messages List of messages that will be displayed to the user in the lex-bot
+     * @param message The message you want to send.
+     * @param type Type of action that was taken on the DynamoDB table (GET, INSERT, REMOVE, or UPDATE).
+     * @return Future messages, completed once the message was published and the audit event was sent.
+     */
+    public static CompletableFuture<List<String>> publishMessageAsync(SnsAsyncClient snsAsyncClient,
+                                                                      String snsTopicArn,
+                                                                      List<String> messages,
+                                                                      String message,
+                                                                      String type) {
+        NotificationQueue notificationQueue = notificationQueues
+                .computeIfAbsent(snsTopicArn, topicArn -> new NotificationQueue(snsAsyncClient, topicArn));
+        CompletableFuture<String> messageId = notificationQueue.publish(message);
+        // The turn waits for the message anyway, and Lambda runs one turn per container at a time, so waiting for
+        // other messages to join the batch would only add SNS_PUBLISH_MAX_DELAY_MS to the turn
+        notificationQueue.flush();
+        CompletableFuture<List<String>> endpoints = getSubscriptionEndpoints(snsAsyncClient, snsTopicArn);
+        AuditLog.append(type, message);
+
+        // The audit event is handed to Firehose before the turn returns, while the notification is published
+        CompletableFuture<Void> auditLogFlush = AuditLog.flush();
+
+        CompletableFuture<Void> confirmation = messageId
+                .thenCombine(endpoints, (publishedMessageId, subscribedEndpoints) -> {
+                    messages.add("Confirmation sent to " + String.join(", ", subscribedEndpoints));
+                    return (Void) null;
+                })
+                .exceptionally(error -> {
+                    System.err.println("The message could not be published: " + error.getMessage());
+                    return null;
+                });
+
+        return CompletableFuture.allOf(confirmation, auditLogFlush).thenApply(ignored -> {
             messages.add("Do you want to perform another operation on the \"Students\" table?");
-        } catch (SnsException error) {
-            System.err.println(error.awsErrorDetails().errorMessage());
-            System.exit(1);
-        }
-
-        AppHandler.multipleMessages(messages, "PlainText");
+            System.out.println("SNS notifications: " + notificationQueues.get(snsTopicArn));
+            return messages;
+        });
+    }
 
-        S3Client s3Client = S3.authenticateS3(AppHandler.getAwsBasicCredentials(), Region.of(System.getenv("AWS_REGION")));
-        String putObjectResponse = S3.putObject(s3Client, System.getenv("S3_BUCKET_NAME_FOR_BOT"), type, message);
-        System.out.println("Successfully put object to the S3 bucket " + System.getenv("S3_BUCKET_NAME_FOR_BOT") + ": " + putObjectResponse);
+    private static long getEnvOrDefault(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
     }
-}
\ No newline at end of file
+}
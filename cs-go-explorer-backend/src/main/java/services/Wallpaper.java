@@ -0,0 +1,135 @@
+package services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A wallpaper of the wallpaper manifest: the key of the original, the hash of its content, and the keys of its
+ * resized variants ordered by width.
+ */
+public final class Wallpaper {
+    private final String key;
+    private final String hash;
+    // Parallel arrays, ordered by width
+    private final int[] variantWidths;
+    private final String[] variantKeys;
+
+    Wallpaper(String key, String hash, int[] variantWidths, String[] variantKeys) {
+        this.key = key;
+        this.hash = hash;
+        this.variantWidths = variantWidths;
+        this.variantKeys = variantKeys;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the key of the narrowest variant that is at least as wide as requested.
+     * @param width The requested width in pixels, or 0 for the original.
+     * @return Key of the variant, or of the original if no variant is wide enough.
+     */
+    public String getKey(int width) {
+        if (width <= 0)
+            return key;
+
+        for (int i = 0; i < variantWidths.length; i++)
+            if (variantWidths[i] >= width)
+                return variantKeys[i];
+        return key;
+    }
+
+    /**
+     * Reads a wallpaper object of the manifest.
+     * @param reader The reader positioned at the wallpaper object.
+     * @return Wallpaper.
+     */
+    static Wallpaper read(JsonReader reader) throws IOException {
+        String key = null;
+        String hash = null;
+        List<Integer> widths = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "key":
+                    key = reader.nextString();
+                    break;
+                case "hash":
+                    hash = reader.nextString();
+                    break;
+                case "variants":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        reader.beginObject();
+                        int width = 0;
+                        String variantKey = null;
+                        while (reader.hasNext()) {
+                            String variantName = reader.nextName();
+                            if (variantName.equals("width"))
+                                width = reader.nextInt();
+                            else if (variantName.equals("key"))
+                                variantKey = reader.nextString();
+                            else
+                                reader.skipValue();
+                        }
+                        reader.endObject();
+                        if (variantKey != null && width > 0) {
+                            // Keep the variants ordered by width
+                            int index = 0;
+                            while (index < widths.size() && widths.get(index) < width)
+                                index++;
+                            widths.add(index, width);
+                            keys.add(index, variantKey);
+                        }
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        int[] variantWidths = new int[widths.size()];
+        for (int i = 0; i < variantWidths.length; i++)
+            variantWidths[i] = widths.get(i);
+        return new Wallpaper(key, hash, variantWidths, keys.toArray(new String[0]));
+    }
+
+    /**
+     * Writes the wallpaper as an object of the manifest.
+     * @param writer The writer.
+     */
+    void write(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("key").value(key);
+        if (hash != null)
+            writer.name("hash").value(hash);
+        writer.name("variants").beginArray();
+        for (int i = 0; i < variantWidths.length; i++) {
+            writer.beginObject();
+            writer.name("width").value(variantWidths[i]);
+            writer.name("key").value(variantKeys[i]);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+}
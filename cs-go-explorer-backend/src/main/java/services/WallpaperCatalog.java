@@ -0,0 +1,287 @@
+package services;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import services.api.ApiGateway;
+import services.api.ApiGatewayProxyResponse;
+import services.cache.CacheEntry;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+/**
+ * Catalog of the wallpapers in the wallpapers S3 bucket. The catalog is kept in memory for
+ * WALLPAPER_CATALOG_TTL_SECONDS seconds (300 by default) and pages through the bucket with ListObjectsV2 when it is
+ * loaded, so it is not capped at the first 1000 keys. If WALLPAPER_MANIFEST_KEY is set, the catalog is read from that
+ * manifest object instead, which is written from a listing when it does not exist yet, and an expired catalog is
+ * revalidated against the manifest's ETag. The manifest written by {@link WallpaperVariants} also lists the resized
+ * variants of every wallpaper, which are served when a width is requested. Rerun the job, or delete the manifest
+ * object, after changing the wallpapers.
+ * <p>
+ * Unless WALLPAPER_PRESIGNED_URLS is false, the URLs are presigned for WALLPAPER_URL_TTL_SECONDS seconds (one day by
+ * default, at most seven), so the bucket does not have to be public, and ask for a Cache-Control header of the same
+ * lifetime. A URL is signed once per catalog and reused until half of its lifetime has passed, so browsers and CDNs
+ * can cache it; the variant keys carry the hash of the original, so a changed wallpaper gets a new URL.
+ */
+public class WallpaperCatalog {
+
+    private static final int defaultPageSize = 100;
+    private static final int maxPageSize = 1000;
+    private static final long timeToLiveMillis = getEnvOrDefault("WALLPAPER_CATALOG_TTL_SECONDS", 300) * 1000L;
+    private static final String manifestKey = System.getenv("WALLPAPER_MANIFEST_KEY");
+    private static final boolean isPresigned = !"false".equalsIgnoreCase(System.getenv("WALLPAPER_PRESIGNED_URLS"));
+    private static final Duration urlTimeToLive = Duration.ofSeconds(Math.min(604800, getEnvOrDefault("WALLPAPER_URL_TTL_SECONDS", 86400)));
+
+    /**
+     * Key prefix of the resized variants, which are not wallpapers of their own.
+     */
+    public static final String variantsPrefix = "variants/";
+
+    /**
+     * Key of the manifest object that the deployed application and {@link WallpaperVariants} use.
+     */
+    public static final String defaultManifestKey = "manifest/wallpapers.json";
+
+    // Guarded by the WallpaperCatalog class
+    private static CacheEntry<Manifest> catalog;
+
+    /**
+     * Returns a page of wallpaper URLs. The page starts at the "offset" query string parameter (0 by default) and
+     * holds up to "limit" wallpapers (100 by default, at most 1000). If a "width" is requested, the items are the
+     * narrowest variants at least that wide, and the URLs of the originals are returned as "originals".
+     * @param s3Client Service client for accessing Amazon S3.
+     * @param bucketName The name of the wallpapers bucket.
+     * @param event The Lambda Function event.
+     * @return API Gateway proxy response containing status code, headers, and body.
+     */
+    public static ApiGatewayProxyResponse getWallpapers(S3Client s3Client, String bucketName, Map<String, Object> event) {
+        // Handles CORS preflight request
+        if (event.get("httpMethod").equals("OPTIONS"))
+            return ApiGateway.generateResponseForOptionsRequest();
+
+        Map<String, Object> queryStringParameters = (Map<String, Object>) event.get("queryStringParameters");
+        int offset;
+        int limit;
+        int width;
+        try {
+            offset = getIntParameter(queryStringParameters, "offset", 0);
+            limit = getIntParameter(queryStringParameters, "limit", defaultPageSize);
+            width = getIntParameter(queryStringParameters, "width", 0);
+            if (offset < 0 || width < 0)
+                throw new IllegalArgumentException("The offset and width must not be negative");
+            if (limit < 1 || limit > maxPageSize)
+                throw new IllegalArgumentException("The limit must be between 1 and " + maxPageSize);
+        } catch (IllegalArgumentException error) {
+            return ApiGateway.generateErrorResponse(400, error.getMessage(), 0);
+        }
+
+        Manifest manifest;
+        try {
+            manifest = getManifest(s3Client, bucketName);
+        } catch (S3Exception | IOException error) {
+            System.err.println(error.getMessage());
+            return ApiGateway.generateErrorResponse(502, "The wallpapers could not be listed", 0);
+        }
+
+        List<Wallpaper> wallpapers = manifest.wallpapers;
+        int end = (int) Math.min(wallpapers.size(), (long) offset + limit);
+        StringWriter responseBody = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(responseBody)) {
+            writer.beginObject();
+            writer.name("items").beginArray();
+            for (int i = Math.min(offset, end); i < end; i++)
+                writer.value(manifest.getUrl(wallpapers.get(i).getKey(width)));
+            writer.endArray();
+            if (width > 0) {
+                writer.name("originals").beginArray();
+                for (int i = Math.min(offset, end); i < end; i++)
+                    writer.value(manifest.getUrl(wallpapers.get(i).getKey()));
+                writer.endArray();
+            }
+            writer.name("count").value(Math.max(0, end - offset));
+            writer.name("total").value(wallpapers.size());
+            if (end < wallpapers.size())
+                writer.name("nextOffset").value(end);
+            writer.endObject();
+        } catch (IOException error) {
+            System.err.println(error.getMessage());
+            return ApiGateway.generateErrorResponse(502, "The wallpapers could not be listed", 0);
+        }
+        return ApiGateway.generateResponseForPostOrGetRequest(responseBody.toString());
+    }
+
+    /**
+     * Returns the cached catalog, or loads it if it has expired.
+     * @param s3Client Service client for accessing Amazon S3.
+     * @param bucketName The name of the wallpapers bucket.
+     * @return Catalog of the wallpapers.
+     */
+    private static synchronized Manifest getManifest(S3Client s3Client, String bucketName) throws IOException {
+        long now = System.currentTimeMillis();
+        if (catalog != null && catalog.isFresh(now))
+            return catalog.getValue();
+
+        Manifest manifest = manifestKey == null || manifestKey.isEmpty()
+                ? new Manifest(s3Client, bucketName, listWallpapers(s3Client, bucketName), null)
+                : readManifest(s3Client, bucketName, catalog == null ? null : catalog.getValue());
+        catalog = new CacheEntry<>(manifest, now + timeToLiveMillis, now + timeToLiveMillis);
+        System.out.println("Wallpaper catalog loaded with " + manifest.wallpapers.size() + " wallpapers");
+        return manifest;
+    }
+
+    /**
+     * Reads the manifest object, unless it has not changed since the cached catalog was read from it. A missing
+     * manifest is written from a listing of the bucket.
+     * @param s3Client Service client for accessing Amazon S3.
+     * @param bucketName The name of the wallpapers bucket.
+     * @param cachedManifest The expired catalog, or null.
+     * @return Catalog of the wallpapers.
+     */
+    private static Manifest readManifest(S3Client s3Client, String bucketName, Manifest cachedManifest) throws IOException {
+        String cachedETag = cachedManifest == null ? null : cachedManifest.eTag;
+        try (ResponseInputStream<GetObjectResponse> manifestObject = s3Client.getObject(builder -> builder
+                .bucket(bucketName)
+                .key(manifestKey)
+                .ifNoneMatch(cachedETag))) {
+            List<Wallpaper> wallpapers = new ArrayList<>();
+            try (JsonReader reader = new JsonReader(new InputStreamReader(manifestObject, StandardCharsets.UTF_8))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("wallpapers")) {
+                        reader.beginArray();
+                        while (reader.hasNext())
+                            wallpapers.add(Wallpaper.read(reader));
+                        reader.endArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            return new Manifest(s3Client, bucketName, wallpapers, manifestObject.response().eTag());
+        } catch (NoSuchKeyException error) {
+            List<Wallpaper> wallpapers = listWallpapers(s3Client, bucketName);
+            String eTag = writeManifest(s3Client, bucketName, manifestKey, wallpapers);
+            return new Manifest(s3Client, bucketName, wallpapers, eTag);
+        } catch (S3Exception error) {
+            // 304 Not Modified, the signed URLs are renewed once half of their lifetime has passed
+            if (error.statusCode() == 304 && cachedManifest != null)
+                return System.currentTimeMillis() - cachedManifest.createdAt < urlTimeToLive.toMillis() / 2
+                        ? cachedManifest
+                        : new Manifest(s3Client, bucketName, cachedManifest.wallpapers, cachedManifest.eTag);
+            throw error;
+        }
+    }
+
+    /**
+     * Writes the manifest object, so that other containers do not have to list the bucket.
+     * @param s3Client Service client for accessing Amazon S3.
+     * @param bucketName The name of the wallpapers bucket.
+     * @param manifestKey The key of the manifest object.
+     * @param wallpapers The wallpapers of the bucket.
+     * @return ETag of the manifest object.
+     */
+    static String writeManifest(S3Client s3Client, String bucketName, String manifestKey, List<Wallpaper> wallpapers) throws IOException {
+        StringWriter manifestBody = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(manifestBody)) {
+            writer.beginObject();
+            writer.name("wallpapers").beginArray();
+            for (Wallpaper wallpaper : wallpapers)
+                wallpaper.write(writer);
+            writer.endArray();
+            writer.endObject();
+        }
+
+        return s3Client.putObject(builder -> builder
+                        .bucket(bucketName)
+                        .key(manifestKey)
+                        .contentType("application/json"),
+                RequestBody.fromString(manifestBody.toString())).eTag();
+    }
+
+    /**
+     * Lists the wallpapers of the bucket, leaving out folders, variants and manifest objects.
+     * @param s3Client Service client for accessing Amazon S3.
+     * @param bucketName The name of the wallpapers bucket.
+     * @return Wallpapers without variants.
+     */
+    static List<Wallpaper> listWallpapers(S3Client s3Client, String bucketName) {
+        List<Wallpaper> wallpapers = new ArrayList<>();
+        for (String key : S3.listBucketObjectsKeys(s3Client, bucketName))
+            if (!key.endsWith("/") && !key.startsWith(variantsPrefix) && !key.endsWith(".json"))
+                wallpapers.add(new Wallpaper(key, null, new int[0], new String[0]));
+        return wallpapers;
+    }
+
+    private static int getIntParameter(Map<String, Object> queryStringParameters, String name, int defaultValue) {
+        Object value = queryStringParameters == null ? null : queryStringParameters.get(name);
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException error) {
+            throw new IllegalArgumentException("The " + name + " must be an integer");
+        }
+    }
+
+    private static long getEnvOrDefault(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+
+    /**
+     * The wallpapers of the bucket, with the URLs that were built for them since the catalog was loaded.
+     */
+    private static class Manifest {
+        private final S3Client s3Client;
+        private final String bucketName;
+        private final List<Wallpaper> wallpapers;
+        private final String eTag;
+        private final long createdAt = System.currentTimeMillis();
+        private final Map<String, String> urls = new ConcurrentHashMap<>();
+
+        Manifest(S3Client s3Client, String bucketName, List<Wallpaper> wallpapers, String eTag) {
+            this.s3Client = s3Client;
+            this.bucketName = bucketName;
+            this.wallpapers = List.copyOf(wallpapers);
+            this.eTag = eTag;
+        }
+
+        /**
+         * Gets the URL of the object, presigning it on first use.
+         * @param key The key of the object.
+         * @return URL of the object.
+         */
+        String getUrl(String key) {
+            return urls.computeIfAbsent(key, objectKey -> {
+                if (!isPresigned)
+                    return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(objectKey)).toExternalForm();
+
+                return ClientRegistry.s3Presigner().presignGetObject(GetObjectPresignRequest
+                        .builder()
+                        .signatureDuration(urlTimeToLive)
+                        .getObjectRequest(builder -> builder
+                                .bucket(bucketName)
+                                .key(objectKey)
+                                .responseCacheControl("public, max-age=" + urlTimeToLive.getSeconds()))
+                        .build()).url().toExternalForm();
+            });
+        }
+    }
+}
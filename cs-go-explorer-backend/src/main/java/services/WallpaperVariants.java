@@ -0,0 +1,180 @@
+package services;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * Offline job that creates resized variants of the wallpapers and writes the wallpaper manifest. Variants are stored
+ * under "variants/<hash>/<width>.jpg", where the hash is taken from the content of the original, with a Cache-Control
+ * header that lets browsers and CDNs cache them for a year. Variants that already exist for the same content are not
+ * created again, so the job can be rerun after wallpapers were added or replaced.
+ */
+public class WallpaperVariants {
+
+    public static final List<Integer> defaultWidths = List.of(320, 640, 1280);
+    private static final String cacheControl = "public, max-age=31536000, immutable";
+    private static final float jpegQuality = 0.82f;
+
+    /**
+     * Creates the missing variants of every wallpaper and writes the manifest.
+     * @param s3Client Service client for accessing Amazon S3.
+     * @param bucketName The name of the wallpapers bucket.
+     * @param manifestKey The key of the manifest object.
+     * @param widths The widths of the variants in pixels.
+     * @param concurrency The number of wallpapers processed in parallel.
+     * @return Number of variants that were created.
+     */
+    public static long generate(S3Client s3Client, String bucketName, String manifestKey, List<Integer> widths, int concurrency) throws IOException, InterruptedException {
+        Set<String> existingKeys = new HashSet<>(S3.listBucketObjectsKeys(s3Client, bucketName));
+        List<Integer> sortedWidths = new ArrayList<>(widths);
+        sortedWidths.sort(null);
+        AtomicLong createdVariants = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Wallpaper> wallpapers = new ArrayList<>();
+        try {
+            List<Future<Wallpaper>> results = new ArrayList<>();
+            for (Wallpaper wallpaper : WallpaperCatalog.listWallpapers(s3Client, bucketName))
+                results.add(executor.submit(() -> createVariants(s3Client, bucketName, wallpaper.getKey(), sortedWidths, existingKeys, createdVariants)));
+
+            for (Future<Wallpaper> result : results)
+                wallpapers.add(result.get());
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof IOException)
+                throw (IOException) error.getCause();
+            if (error.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) error.getCause()).getCause();
+            throw new IOException(error.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        WallpaperCatalog.writeManifest(s3Client, bucketName, manifestKey, wallpapers);
+        return createdVariants.get();
+    }
+
+    /**
+     * Creates the variants of a wallpaper that do not exist yet. Variants are only created for widths below the
+     * width of the original.
+     * @param s3Client Service client for accessing Amazon S3.
+     * @param bucketName The name of the wallpapers bucket.
+     * @param key The key of the original.
+     * @param widths The widths of the variants in pixels, in ascending order.
+     * @param existingKeys Keys of the objects in the bucket.
+     * @param createdVariants Counts the variants that were created.
+     * @return Wallpaper with its variants.
+     */
+    private static Wallpaper createVariants(S3Client s3Client,
+                                            String bucketName,
+                                            String key,
+                                            List<Integer> widths,
+                                            Set<String> existingKeys,
+                                            AtomicLong createdVariants) throws IOException {
+        byte[] original = s3Client.getObjectAsBytes(builder -> builder.bucket(bucketName).key(key)).asByteArray();
+        String hash = hash(original);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+        if (image == null) {
+            System.err.println("Wallpaper " + key + " is not a readable image, it is served without variants.");
+            return new Wallpaper(key, hash, new int[0], new String[0]);
+        }
+
+        List<Integer> variantWidths = new ArrayList<>();
+        List<String> variantKeys = new ArrayList<>();
+        for (int width : widths) {
+            if (width >= image.getWidth())
+                break;
+
+            String variantKey = WallpaperCatalog.variantsPrefix + hash + "/" + width + ".jpg";
+            if (!existingKeys.contains(variantKey)) {
+                byte[] variant = encodeJpeg(resize(image, width));
+                s3Client.putObject(builder -> builder
+                                .bucket(bucketName)
+                                .key(variantKey)
+                                .contentType("image/jpeg")
+                                .cacheControl(cacheControl),
+                        RequestBody.fromBytes(variant));
+                createdVariants.incrementAndGet();
+                System.out.println("Created " + variantKey + " (" + variant.length + " of " + original.length + " bytes) for " + key);
+            }
+            variantWidths.add(width);
+            variantKeys.add(variantKey);
+        }
+
+        int[] widthArray = new int[variantWidths.size()];
+        for (int i = 0; i < widthArray.length; i++)
+            widthArray[i] = variantWidths.get(i);
+        return new Wallpaper(key, hash, widthArray, variantKeys.toArray(new String[0]));
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width) {
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        BufferedImage resizedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resizedImage.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resizedImage;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream imageOutput = new MemoryCacheImageOutputStream(output)) {
+            ImageWriteParam parameters = writer.getDefaultWriteParam();
+            parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parameters.setCompressionQuality(jpegQuality);
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), parameters);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Hashes the content of the original, so that a replaced wallpaper gets new variant keys.
+     * @param content The content of the original.
+     * @return First 16 hexadecimal digits of the SHA-256 hash.
+     */
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hash = new StringBuilder();
+            for (int i = 0; i < 8; i++)
+                hash.append(String.format("%02x", digest[i]));
+            return hash.toString();
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException(error);
+        }
+    }
+}
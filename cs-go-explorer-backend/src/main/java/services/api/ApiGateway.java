@@ -1,15 +1,27 @@
 package services.api;
 
+import com.google.gson.stream.JsonWriter;
 import org.json.simple.JSONObject;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.core.internal.waiters.DefaultWaiter;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.apigateway.ApiGatewayClient;
 import software.amazon.awssdk.services.apigateway.model.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Amazon API Gateway is an AWS service for creating, publishing, maintaining, monitoring, and securing REST, HTTP,
@@ -18,6 +30,14 @@ import java.util.Map;
  */
 public class ApiGateway {
 
+    // API Gateway allows about 10 control plane requests per second per account
+    private static final int controlPlaneRequestsPerSecond = 10;
+    private static final Object controlPlaneLock = new Object();
+    private static long nextControlPlaneRequestNanos = System.nanoTime();
+
+    // Wraps response bodies in the legacy {"body": "..."} envelope for front-ends that still unwrap it
+    private static final boolean isResponseEnvelopeEnabled = Boolean.parseBoolean(System.getenv("RESPONSE_ENVELOPE"));
+
     /**
      * Authenticate to the API Gateway client using the AWS user's credentials.
      * @param awsCredentials The AWS Access Key ID and Secret Access Key are credentials that are used to securely sign requests to AWS services.
@@ -45,7 +65,7 @@ public class ApiGateway {
      *                              EDGE: For an edge-optimized API and its custom domain name.
      *                              REGIONAL: For a regional API and its custom domain name.
      *                              PRIVATE: For a private API.
-     * @return The API's identifier.
+     * @return The API's identifier, or the identifier of the existing API with the same name.
      */
     public static String createAPI(ApiGatewayClient apiGatewayClient,
                                    String apiName,
@@ -53,11 +73,23 @@ public class ApiGateway {
                                    ApiKeySourceType apiKeySourceType,
                                    EndpointConfiguration endpointConfiguration) {
         try {
+            // Reuse the API if a previous deployment created it, because API names are not unique
+            for (RestApi restApi : apiGatewayClient.getRestApisPaginator(GetRestApisRequest.builder().build()).items()) {
+                if (restApi.name().equals(apiName)) {
+                    System.out.println("REST API " + apiName + " already exists.");
+                    return restApi.id();
+                }
+            }
+
             CreateRestApiRequest request = CreateRestApiRequest.builder()
                     .name(apiName)
                     .description(apiDescription)
                     .apiKeySource(apiKeySourceType)
                     .endpointConfiguration(endpointConfiguration)
+                    // Lets Lambda return gzip-compressed, base64-encoded bodies that API Gateway decodes for the client.
+                    // It also makes API Gateway pass every request body to Lambda base64-encoded, so a route that reads
+                    // the body has to decode it when isBase64Encoded is true, as StudentsBatch.importStudents does.
+                    .binaryMediaTypes("*/*")
                     .build();
 
             CreateRestApiResponse response = apiGatewayClient.createRestApi(request);
@@ -139,6 +171,215 @@ public class ApiGateway {
         return createResourceResponse.get("parentId");
     }
 
+    /**
+     * Creates the routes of the REST API by importing an OpenAPI definition generated from the routes in a single
+     * request. The definition overwrites the resources and methods of the API, so importing the same routes again
+     * leaves the API as it is. If the import fails, the resources are created one by one instead, several at a time.
+     * @param apiGatewayClient Client for accessing Amazon API Gateway.
+     * @param restApiId The string identifier of the associated RestApi.
+     * @param apiName The name of the API.
+     * @param apiDescription The description of the API.
+     * @param roleArn Role ARN that API Gateway uses to invoke the Lambda function.
+     * @param lambdaArn Lambda function ARN.
+     * @param awsAppDeploymentRegion The app deployment region.
+     * @param routes The routes of the API.
+     * @param concurrency The number of resources created at the same time if the import fails.
+     */
+    public static void createRestApiRoutes(ApiGatewayClient apiGatewayClient,
+                                           String restApiId,
+                                           String apiName,
+                                           String apiDescription,
+                                           String roleArn,
+                                           String lambdaArn,
+                                           String awsAppDeploymentRegion,
+                                           List<RestApiRoute> routes,
+                                           int concurrency) {
+        try {
+            String openApiDefinition = generateOpenApiDefinition(apiName, apiDescription, roleArn,
+                    "arn:aws:apigateway:" + awsAppDeploymentRegion + ":lambda:path/2015-03-31/functions/" + lambdaArn + "/invocations", routes);
+
+            PutRestApiRequest putRestApiRequest = PutRestApiRequest
+                    .builder()
+                    .restApiId(restApiId)
+                    .mode(PutMode.OVERWRITE)
+                    .failOnWarnings(false)
+                    .body(SdkBytes.fromUtf8String(openApiDefinition))
+                    .build();
+
+            PutRestApiResponse putRestApiResponse = apiGatewayClient.putRestApi(putRestApiRequest);
+            for (String warning : putRestApiResponse.warnings())
+                System.out.println("REST API import warning: " + warning);
+            System.out.println("Successfully imported " + routes.size() + " routes into the REST API " + restApiId + ".");
+            return;
+        } catch (ApiGatewayException error) {
+            System.err.println("The REST API definition could not be imported, creating the resources one by one: " + error.awsErrorDetails().errorMessage());
+        }
+
+        String rootResourceId = getRootResourceId(apiGatewayClient, restApiId);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (RestApiRoute route : routes)
+                results.add(executor.submit(() -> createAndConfigureRestApiResource(apiGatewayClient, restApiId, roleArn, lambdaArn, awsAppDeploymentRegion,
+                        rootResourceId, route.getResourceName(), route.isPreflightRequest(), route.getMethodName(), route.getAuthorizationType())));
+
+            for (Future<String> result : results)
+                result.get();
+        } catch (InterruptedException | ExecutionException error) {
+            System.err.println(error.getMessage());
+            System.exit(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Generates an OpenAPI 3 definition of the REST API in which every method invokes the Lambda function through a
+     * Lambda proxy integration.
+     * @param apiName The name of the API.
+     * @param apiDescription The description of the API.
+     * @param roleArn Role ARN that API Gateway uses to invoke the Lambda function.
+     * @param integrationUri The URI of the Lambda function invocation.
+     * @param routes The routes of the API.
+     * @return OpenAPI definition in JSON.
+     */
+    public static String generateOpenApiDefinition(String apiName,
+                                                   String apiDescription,
+                                                   String roleArn,
+                                                   String integrationUri,
+                                                   List<RestApiRoute> routes) {
+        try {
+            StringWriter openApiDefinition = new StringWriter();
+            JsonWriter writer = new JsonWriter(openApiDefinition);
+            writer.beginObject();
+            writer.name("openapi").value("3.0.1");
+            writer.name("info").beginObject()
+                    .name("title").value(apiName)
+                    .name("description").value(apiDescription)
+                    .name("version").value("1.0.0")
+                    .endObject();
+
+            // The settings of the API, which an overwriting import would otherwise reset
+            writer.name("x-amazon-apigateway-api-key-source").value(ApiKeySourceType.AUTHORIZER.toString());
+            // Request bodies arrive base64-encoded too, see createAPI
+            writer.name("x-amazon-apigateway-binary-media-types").beginArray().value("*/*").endArray();
+
+            writer.name("paths").beginObject();
+            for (RestApiRoute route : routes) {
+                writer.name("/" + route.getResourceName()).beginObject();
+                if (route.isPreflightRequest())
+                    writeOpenApiOperation(writer, "options", route.getAuthorizationType(), roleArn, integrationUri);
+                writeOpenApiOperation(writer, route.getMethodName().toLowerCase(), route.getAuthorizationType(), roleArn, integrationUri);
+                writer.endObject();
+            }
+            writer.endObject();
+
+            writer.name("components").beginObject();
+            writer.name("schemas").beginObject()
+                    .name("Empty").beginObject()
+                    .name("type").value("object")
+                    .name("title").value("Empty Schema")
+                    .endObject()
+                    .endObject();
+            writer.name("securitySchemes").beginObject()
+                    .name("sigv4").beginObject()
+                    .name("type").value("apiKey")
+                    .name("name").value("Authorization")
+                    .name("in").value("header")
+                    .name("x-amazon-apigateway-authtype").value("awsSigv4")
+                    .endObject()
+                    .endObject();
+            writer.endObject();
+
+            writer.endObject();
+            writer.flush();
+            return openApiDefinition.toString();
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    /**
+     * Writes an operation of the OpenAPI definition with its 200 response and its Lambda proxy integration.
+     * @param writer The writer positioned in a path object.
+     * @param httpMethod The HTTP method of the operation in lower case.
+     * @param authorizationType The authorization type of the operation, NONE or AWS_IAM.
+     * @param roleArn Role ARN that API Gateway uses to invoke the Lambda function.
+     * @param integrationUri The URI of the Lambda function invocation.
+     */
+    private static void writeOpenApiOperation(JsonWriter writer,
+                                              String httpMethod,
+                                              String authorizationType,
+                                              String roleArn,
+                                              String integrationUri) throws IOException {
+        writer.name(httpMethod).beginObject();
+        if (authorizationType.equals("AWS_IAM"))
+            writer.name("security").beginArray().beginObject().name("sigv4").beginArray().endArray().endObject().endArray();
+
+        writer.name("responses").beginObject()
+                .name("200").beginObject()
+                .name("description").value("200 response")
+                .name("content").beginObject()
+                .name("application/json").beginObject()
+                .name("schema").beginObject().name("$ref").value("#/components/schemas/Empty").endObject()
+                .endObject()
+                .endObject()
+                .endObject()
+                .endObject();
+
+        writer.name("x-amazon-apigateway-integration").beginObject()
+                .name("type").value("aws_proxy")
+                .name("httpMethod").value("POST")
+                .name("uri").value(integrationUri)
+                .name("credentials").value(roleArn)
+                .name("passthroughBehavior").value("when_no_match")
+                .name("responses").beginObject()
+                .name("default").beginObject().name("statusCode").value("200").endObject()
+                .endObject()
+                .endObject();
+        writer.endObject();
+    }
+
+    /**
+     * Gets the identifier of the root resource of the REST API.
+     * @param apiGatewayClient Client for accessing Amazon API Gateway.
+     * @param restApiId The string identifier of the associated RestApi.
+     * @return Root resource ID.
+     */
+    private static String getRootResourceId(ApiGatewayClient apiGatewayClient, String restApiId) {
+        try {
+            GetResourcesRequest getResourcesRequest = GetResourcesRequest
+                    .builder()
+                    .restApiId(restApiId)
+                    .build();
+
+            for (Resource resource : apiGatewayClient.getResourcesPaginator(getResourcesRequest).items())
+                if (resource.path().equals("/"))
+                    return resource.id();
+            System.err.println("The REST API " + restApiId + " has no root resource.");
+        } catch (ApiGatewayException error) {
+            System.err.println(error.awsErrorDetails().errorMessage());
+        }
+        System.exit(1);
+        return "";
+    }
+
+    /**
+     * Waits until another control plane request may be sent. API Gateway throttles control plane requests per account,
+     * so requests that are sent concurrently are spaced out evenly. Throttled requests are still retried by the client.
+     */
+    private static void awaitControlPlaneRequest() {
+        long deadline;
+        synchronized (controlPlaneLock) {
+            deadline = Math.max(nextControlPlaneRequestNanos, System.nanoTime());
+            nextControlPlaneRequestNanos = deadline + 1_000_000_000L / controlPlaneRequestsPerSecond;
+        }
+
+        long remainingNanos;
+        while ((remainingNanos = deadline - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted())
+            LockSupport.parkNanos(remainingNanos);
+    }
+
     /**
      * Requests API Gateway to create a resource.
      * @param apiGatewayClient Client for accessing Amazon API Gateway.
@@ -176,6 +417,7 @@ public class ApiGateway {
                         .build();
             }
 
+            awaitControlPlaneRequest();
             CreateResourceResponse createResourceResponse = apiGatewayClient.createResource(createResourceRequest);
             return new HashMap<>(){{
                 put("resourceId", createResourceResponse.id());
@@ -218,6 +460,7 @@ public class ApiGateway {
                     .apiKeyRequired(isApiKeyRequired)
                     .build();
 
+            awaitControlPlaneRequest();
             PutMethodResponse putMethodResponse = apiGatewayClient.putMethod(putMethodRequest);
             return putMethodResponse.toString();
         } catch (ApiGatewayException error) {
@@ -263,6 +506,7 @@ public class ApiGateway {
                     .integrationHttpMethod(integrationHttpMethod)
                     .build();
 
+            awaitControlPlaneRequest();
             PutIntegrationResponse putIntegrationResponse = apiGatewayClient.putIntegration(putIntegrationRequest);
             return putIntegrationResponse.toString();
         } catch (ApiGatewayException error) {
@@ -295,6 +539,7 @@ public class ApiGateway {
                     .statusCode(statusCode)
                     .build();
 
+            awaitControlPlaneRequest();
             PutIntegrationResponseResponse putIntegrationResponseResponse = apiGatewayClient.putIntegrationResponse(putIntegrationResponseRequest);
             return putIntegrationResponseResponse.toString();
         } catch (ApiGatewayException error) {
@@ -332,6 +577,7 @@ public class ApiGateway {
                     .responseModels(responseModels)
                     .build();
 
+            awaitControlPlaneRequest();
             PutMethodResponseResponse putMethodResponseResponse = apiGatewayClient.putMethodResponse(putMethodResponseRequest);
             return putMethodResponseResponse.toString();
         } catch (ApiGatewayException error) {
@@ -407,7 +653,7 @@ public class ApiGateway {
      * @param usagePlanDescription The description of the usage plan.
      * @param quotaPeriod The time period in which the limit applies. Valid values are "DAY", "WEEK" or "MONTH".
      * @param quotaLimit The target maximum number of requests that can be made in a given time period.
-     * @return The identifier of a UsagePlan resource.
+     * @return The identifier of a UsagePlan resource, or of the existing usage plan with the same name.
      */
     public static String createUsagePlan(ApiGatewayClient apiGatewayClient,
                                          String restApiId,
@@ -432,6 +678,28 @@ public class ApiGateway {
                     .throttle(throttle)
                     .build();
 
+            // Reuse the usage plan if a previous deployment created it, and associate it with the stage if needed
+            for (UsagePlan usagePlan : apiGatewayClient.getUsagePlansPaginator(GetUsagePlansRequest.builder().build()).items()) {
+                if (!usagePlan.name().equals(usagePlanName))
+                    continue;
+
+                System.out.println("Usage plan " + usagePlanName + " already exists.");
+                boolean hasApiStage = false;
+                for (ApiStage existingApiStage : usagePlan.apiStages())
+                    if (existingApiStage.apiId().equals(restApiId) && existingApiStage.stage().equals(stageName))
+                        hasApiStage = true;
+
+                if (!hasApiStage) {
+                    UpdateUsagePlanRequest updateUsagePlanRequest = UpdateUsagePlanRequest
+                            .builder()
+                            .usagePlanId(usagePlan.id())
+                            .patchOperations(PatchOperation.builder().op(Op.ADD).path("/apiStages").value(restApiId + ":" + stageName).build())
+                            .build();
+                    apiGatewayClient.updateUsagePlan(updateUsagePlanRequest);
+                }
+                return usagePlan.id();
+            }
+
              CreateUsagePlanRequest createUsagePlanRequest = CreateUsagePlanRequest
                      .builder()
                      .name(usagePlanName)
@@ -451,7 +719,8 @@ public class ApiGateway {
     }
 
     /**
-     * Create an ApiKey resource.
+     * Create an ApiKey resource. An existing ApiKey with the same name is reused, and it is only added to the usage
+     * plan if it is not in it yet.
      * @param apiGatewayClient Client for accessing Amazon API Gateway.
      * @param keyName The name of the ApiKey.
      * @param description The description of the ApiKey.
@@ -467,19 +736,36 @@ public class ApiGateway {
                                     String usagePlanId,
                                     String keyType) {
         try {
-            CreateApiKeyRequest createApiKeyRequest = CreateApiKeyRequest.builder()
-                    .name(keyName)
-                    .description(description)
-                    .enabled(isEnabled)
-                    .build();
+            // Reuse the api key if a previous deployment created it, the name query only matches a prefix
+            String apiKeyId = null;
+            for (ApiKey apiKey : apiGatewayClient.getApiKeysPaginator(GetApiKeysRequest.builder().nameQuery(keyName).build()).items()) {
+                if (apiKey.name().equals(keyName)) {
+                    System.out.println("API key " + keyName + " already exists.");
+                    apiKeyId = apiKey.id();
+                    break;
+                }
+            }
+
+            if (apiKeyId == null) {
+                CreateApiKeyRequest createApiKeyRequest = CreateApiKeyRequest.builder()
+                        .name(keyName)
+                        .description(description)
+                        .enabled(isEnabled)
+                        .build();
 
-            // Creating a api key
-            CreateApiKeyResponse createApiKeyResponse = apiGatewayClient.createApiKey(createApiKeyRequest);
+                // Creating a api key
+                CreateApiKeyResponse createApiKeyResponse = apiGatewayClient.createApiKey(createApiKeyRequest);
+                apiKeyId = createApiKeyResponse.id();
+            } else {
+                for (UsagePlanKey usagePlanKey : apiGatewayClient.getUsagePlanKeysPaginator(GetUsagePlanKeysRequest.builder().usagePlanId(usagePlanId).build()).items())
+                    if (usagePlanKey.id().equals(apiKeyId))
+                        return;
+            }
 
             // If we have a plan for the api keys, we can set it for the created api key
             CreateUsagePlanKeyRequest createUsagePlanKeyRequest = CreateUsagePlanKeyRequest.builder()
                     .usagePlanId(usagePlanId)
-                    .keyId(createApiKeyResponse.id())
+                    .keyId(apiKeyId)
                     .keyType(keyType)
                     .build();
 
@@ -492,7 +778,7 @@ public class ApiGateway {
 
     /**
      * Formats an API Gateway proxy response that will be sent to the front-end by adding a response body from the called OPTIONS request.
-     * @return API Gateway proxy response containing status code, headers, body, and base64 encoding enabled.
+     * @return API Gateway proxy response containing status code, headers, and body.
      */
     public static ApiGatewayProxyResponse generateResponseForOptionsRequest() {
         // Response headers
@@ -509,7 +795,7 @@ public class ApiGateway {
                 .withStatusCode(200)
                 .withHeaders(responseHeaders)
                 .withBody("CORS preflight request")
-                .withBase64Encoded(true)
+                .withBase64Encoded(false)
                 .build();
 
         return apiGatewayProxyOptionsResponse;
@@ -517,8 +803,9 @@ public class ApiGateway {
 
     /**
      * Formats an API Gateway proxy response that will be sent to the front-end by adding a response body from the called POST or GET request.
-     * @param httpResponse An HTTP Response contains a response status code, headers, and body that have been received.
-     * @return API Gateway proxy response containing status code, headers, body, and base64 encoding enabled.
+     * The serialized JSON is used as the response body as is, unless the RESPONSE_ENVELOPE environment variable is set to true.
+     * @param httpResponse An already serialized JSON response body, e.g. a Steam API response or a table scan.
+     * @return API Gateway proxy response containing status code, headers, and body.
      */
     public static ApiGatewayProxyResponse generateResponseForPostOrGetRequest(String httpResponse) {
         // Response headers
@@ -528,19 +815,61 @@ public class ApiGateway {
 //        responseHeaders.put("Access-Control-Allow-Origin", "http://localhost:3000");
         responseHeaders.put("Access-Control-Allow-Methods", "OPTIONS, POST, GET");
         responseHeaders.put("Access-Control-Allow-Credentials", "true");
-
-        // Response body
-        JSONObject responseBody = new JSONObject();
-        responseBody.put("body", httpResponse);
+        responseHeaders.put("Content-Type", "application/json");
 
         ApiGatewayProxyResponse apiGatewayProxyPostResponse = new ApiGatewayProxyResponse
                 .ApiGatewayProxyResponseBuilder()
                 .withStatusCode(200)
                 .withHeaders(responseHeaders)
-                .withBody(responseBody.toJSONString())
-                .withBase64Encoded(true)
+                .withBody(toResponseBody(httpResponse))
+                .withBase64Encoded(false)
                 .build();
 
         return apiGatewayProxyPostResponse;
     }
-}
\ No newline at end of file
+
+    /**
+     * Formats an API Gateway proxy error response that will be sent to the front-end when the upstream service cannot serve the request.
+     * @param statusCode The HTTP status code of the response, e.g. 502 or 503.
+     * @param message The error message.
+     * @param retryAfterSeconds Seconds after which the client may retry the request, or 0 to omit the Retry-After header.
+     * @return API Gateway proxy response containing status code, headers, and body.
+     */
+    public static ApiGatewayProxyResponse generateErrorResponse(int statusCode, String message, long retryAfterSeconds) {
+        // Response headers
+        JSONObject responseHeaders = new JSONObject();
+        responseHeaders.put("Access-Control-Allow-Headers", "Content-Type");
+        responseHeaders.put("Access-Control-Allow-Origin", System.getenv("APP_URL"));
+        responseHeaders.put("Access-Control-Allow-Methods", "OPTIONS, POST, GET");
+        responseHeaders.put("Access-Control-Allow-Credentials", "true");
+        responseHeaders.put("Content-Type", "application/json");
+        if (retryAfterSeconds > 0)
+            responseHeaders.put("Retry-After", String.valueOf(retryAfterSeconds));
+
+        // Response body
+        JSONObject error = new JSONObject();
+        error.put("error", message);
+
+        return new ApiGatewayProxyResponse
+                .ApiGatewayProxyResponseBuilder()
+                .withStatusCode(statusCode)
+                .withHeaders(responseHeaders)
+                .withBody(toResponseBody(error.toJSONString()))
+                .withBase64Encoded(false)
+                .build();
+    }
+
+    /**
+     * Uses the serialized JSON as the response body, wrapping it in the legacy envelope only if it is enabled.
+     * @param json The serialized JSON.
+     * @return Response body.
+     */
+    private static String toResponseBody(String json) {
+        if (!isResponseEnvelopeEnabled)
+            return json;
+
+        JSONObject responseBody = new JSONObject();
+        responseBody.put("body", json);
+        return responseBody.toJSONString();
+    }
+}
@@ -0,0 +1,141 @@
+package services.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses API Gateway proxy responses for clients that accept gzip. JSON bodies of at least
+ * RESPONSE_COMPRESSION_MIN_BYTES bytes (1024 by default) are gzip-compressed at RESPONSE_COMPRESSION_LEVEL (6 by default),
+ * base64-encoded and sent with the Content-Encoding header. The REST API is created with the "*&#47;*" binary media type,
+ * so API Gateway decodes the base64 body before sending it to the browser.
+ */
+public class ResponseCompression {
+
+    private static final int minimumSize = getEnvOrDefault("RESPONSE_COMPRESSION_MIN_BYTES", 1024);
+    private static final int compressionLevel = getEnvOrDefault("RESPONSE_COMPRESSION_LEVEL", 6);
+
+    /**
+     * Compresses the response if the request accepts gzip and the response body is large enough.
+     * @param event The Lambda Function event of the API Gateway request.
+     * @param response The uncompressed API Gateway proxy response.
+     * @return API Gateway proxy response, compressed if the client accepts it.
+     */
+    public static ApiGatewayProxyResponse negotiate(Map<String, Object> event, ApiGatewayProxyResponse response) {
+        if (response.getBody() == null || response.getHeaders() == null || !isJson(response.getHeaders()))
+            return response;
+
+        // Caches must keep the compressed and uncompressed responses apart
+        Map<String, String> responseHeaders = new HashMap<>(response.getHeaders());
+        responseHeaders.put("Vary", "Accept-Encoding");
+
+        byte[] body = response.getBody().getBytes(StandardCharsets.UTF_8);
+        if (body.length < minimumSize || !acceptsGzip(getHeader(event, "Accept-Encoding")))
+            return response.builder().withHeaders(responseHeaders).build();
+
+        long startTime = System.nanoTime();
+        byte[] compressedBody;
+        try {
+            compressedBody = gzip(body);
+        } catch (IOException error) {
+            error.printStackTrace();
+            return response.builder().withHeaders(responseHeaders).build();
+        }
+        System.out.println("Compressed " + event.get("resource") + " response from " + body.length + " to " +
+                compressedBody.length + " bytes (" + String.format("%.1f", (double) body.length / compressedBody.length) +
+                "x) in " + String.format("%.2f", (System.nanoTime() - startTime) / 1e6) + " ms");
+
+        responseHeaders.put("Content-Encoding", "gzip");
+        return response
+                .builder()
+                .withHeaders(responseHeaders)
+                .withBody(Base64.getEncoder().encodeToString(compressedBody))
+                .withBase64Encoded(true)
+                .build();
+    }
+
+    /**
+     * Checks whether the Accept-Encoding header allows a gzip response.
+     * @param acceptEncoding The value of the Accept-Encoding header, or null if the request has none.
+     * @return True if gzip is accepted, either by name or through "*", with a non-zero quality.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+
+        Boolean isGzipAccepted = null;
+        boolean isAnyAccepted = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase();
+            boolean isAccepted = getQuality(parameters) > 0;
+            if (name.equals("gzip") || name.equals("x-gzip"))
+                isGzipAccepted = isAccepted;
+            else if (name.equals("*"))
+                isAnyAccepted = isAccepted;
+        }
+        return isGzipAccepted != null ? isGzipAccepted : isAnyAccepted;
+    }
+
+    private static double getQuality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException error) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192) {{ def.setLevel(compressionLevel); }}) {
+            gzipOutputStream.write(body);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static boolean isJson(Map<String, String> responseHeaders) {
+        String contentType = responseHeaders.get("Content-Type");
+        return contentType != null && contentType.startsWith("application/json");
+    }
+
+    /**
+     * Gets a request header of the API Gateway event. Header names are matched case-insensitively.
+     * @param event The Lambda Function event.
+     * @param name The name of the header.
+     * @return Value of the header, or null if the request has none.
+     */
+    private static String getHeader(Map<String, Object> event, String name) {
+        Map<String, Object> headers = (Map<String, Object>) event.get("headers");
+        if (headers != null) {
+            for (Map.Entry<String, Object> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name) && header.getValue() != null)
+                    return header.getValue().toString();
+            }
+        }
+
+        Map<String, Object> multiValueHeaders = (Map<String, Object>) event.get("multiValueHeaders");
+        if (multiValueHeaders != null) {
+            for (Map.Entry<String, Object> header : multiValueHeaders.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name) && header.getValue() instanceof List)
+                    return String.join(",", (List<String>) header.getValue());
+            }
+        }
+        return null;
+    }
+
+    private static int getEnvOrDefault(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,45 @@
+package services.api;
+
+/**
+ * A route of the REST API: a resource under the root of the API and the method that invokes the Lambda function.
+ */
+public final class RestApiRoute {
+    private final String resourceName;
+    private final String methodName;
+    private final boolean isPreflightRequest;
+    private final String authorizationType;
+
+    /**
+     * @param resourceName The name of the resource, which is also its path.
+     * @param methodName The HTTP method of the route, e.g. GET.
+     * @param isPreflightRequest Whether the route needs an OPTIONS method for preflight requests.
+     * @param authorizationType The authorization type of the route, NONE or AWS_IAM.
+     */
+    public RestApiRoute(String resourceName, String methodName, boolean isPreflightRequest, String authorizationType) {
+        this.resourceName = resourceName;
+        this.methodName = methodName;
+        this.isPreflightRequest = isPreflightRequest;
+        this.authorizationType = authorizationType;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public boolean isPreflightRequest() {
+        return isPreflightRequest;
+    }
+
+    public String getAuthorizationType() {
+        return authorizationType;
+    }
+
+    @Override
+    public String toString() {
+        return methodName + " /" + resourceName + (isPreflightRequest ? " +OPTIONS" : "") + " " + authorizationType;
+    }
+}
@@ -0,0 +1,83 @@
+package services.api.steam;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Resolves a friend list into the profiles of the friends. GetPlayerSummaries accepts at most 100 Steam IDs per call,
+ * so the IDs are split into chunks that are fetched concurrently, with at most STEAM_FRIEND_CHUNK_CONCURRENCY
+ * requests in flight, and merged in order as they complete. A page of the friend list can be requested with
+ * a cursor and a limit, in which case the response carries the cursor of the next page.
+ */
+public class FriendListPipeline {
+
+    private static final int maxSteamIdsPerRequest = 100;
+    private static final int concurrency = getConcurrency();
+
+    /**
+     * Fetches the profiles of the friends in the friend list.
+     * @param steamIds Steam IDs of the friends, read from the GetFriendList response.
+     * @param cursor Index of the first friend to resolve.
+     * @param limit The maximum number of friends to resolve, or 0 for all of them.
+     * @return Response body in the GetPlayerSummaries format, with a "nextCursor" if there are more friends.
+     */
+    public static String getFriendProfiles(List<String> steamIds, int cursor, int limit) throws IOException, InterruptedException {
+        int end = limit > 0 ? Math.min(steamIds.size(), cursor + limit) : steamIds.size();
+
+        List<PlayerSummary> players = new ArrayList<>(Math.max(0, end - cursor));
+        Deque<CompletableFuture<HttpResponse<InputStream>>> inFlight = new ArrayDeque<>();
+        try {
+            for (int chunkStart = cursor; chunkStart < end; chunkStart += maxSteamIdsPerRequest) {
+                if (inFlight.size() == concurrency)
+                    players.addAll(readPlayers(inFlight.removeFirst()));
+
+                List<String> chunk = steamIds.subList(chunkStart, Math.min(end, chunkStart + maxSteamIdsPerRequest));
+                inFlight.addLast(SteamHttpClient.sendAsync("https://api.steampowered.com/ISteamUser/GetPlayerSummaries/v0002/?" +
+                        "key=" + System.getenv("STEAM_API_KEY") + "&" +
+                        "steamids=" + String.join(",", chunk)));
+            }
+            while (!inFlight.isEmpty())
+                players.addAll(readPlayers(inFlight.removeFirst()));
+        } finally {
+            // Abandon the remaining chunks if one of them failed
+            for (CompletableFuture<HttpResponse<InputStream>> pendingResponse : inFlight)
+                pendingResponse.cancel(true);
+        }
+
+        return SteamJson.writePlayerSummaries(players, end < steamIds.size() ? String.valueOf(end) : null);
+    }
+
+    /**
+     * Waits for a GetPlayerSummaries response and parses its players straight from the response stream.
+     * @param pendingResponse The pending GetPlayerSummaries response.
+     * @return Players of the chunk.
+     */
+    private static List<PlayerSummary> readPlayers(CompletableFuture<HttpResponse<InputStream>> pendingResponse) throws IOException, InterruptedException {
+        HttpResponse<InputStream> httpResponse;
+        try {
+            httpResponse = pendingResponse.get();
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof IOException)
+                throw (IOException) error.getCause();
+            throw new IOException(error.getCause());
+        }
+
+        if (httpResponse.statusCode() != 200) {
+            httpResponse.body().close();
+            throw new SteamApiException("GetPlayerSummaries responded with status " + httpResponse.statusCode(), 502, 0);
+        }
+        return SteamJson.readPlayerSummaries(SteamHttpClient.body(httpResponse));
+    }
+
+    private static int getConcurrency() {
+        String value = System.getenv("STEAM_FRIEND_CHUNK_CONCURRENCY");
+        return value == null || value.isEmpty() ? 4 : Math.max(1, Integer.parseInt(value));
+    }
+}
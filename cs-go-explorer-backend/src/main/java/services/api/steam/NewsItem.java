@@ -0,0 +1,114 @@
+package services.api.steam;
+
+import java.io.IOException;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The fields of a GetNewsForApp news item that the front-end displays.
+ */
+public final class NewsItem {
+    private final String gid;
+    private final String title;
+    private final String url;
+    private final String author;
+    private final String contents;
+    private final long date;
+
+    private NewsItem(String gid, String title, String url, String author, String contents, long date) {
+        this.gid = gid;
+        this.title = title;
+        this.url = url;
+        this.author = author;
+        this.contents = contents;
+        this.date = date;
+    }
+
+    /**
+     * Reads a news item object, skipping the fields that are not needed.
+     * @param reader The reader positioned at the news item object.
+     * @return News item.
+     */
+    static NewsItem read(JsonReader reader) throws IOException {
+        String gid = null;
+        String title = null;
+        String url = null;
+        String author = null;
+        String contents = null;
+        long date = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "gid":
+                    gid = reader.nextString();
+                    break;
+                case "title":
+                    title = reader.nextString();
+                    break;
+                case "url":
+                    url = reader.nextString();
+                    break;
+                case "author":
+                    author = reader.nextString();
+                    break;
+                case "contents":
+                    contents = reader.nextString();
+                    break;
+                case "date":
+                    date = reader.nextLong();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new NewsItem(gid, title, url, author, contents, date);
+    }
+
+    /**
+     * Writes the news item with the field names of the Steam Web API.
+     * @param writer The writer.
+     */
+    void write(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("gid").value(gid);
+        writer.name("title").value(title);
+        writer.name("url").value(url);
+        writer.name("author").value(author);
+        writer.name("contents").value(contents);
+        writer.name("date").value(date);
+        writer.endObject();
+    }
+
+    public String getGid() {
+        return gid;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getContents() {
+        return contents;
+    }
+
+    public long getDate() {
+        return date;
+    }
+}
@@ -0,0 +1,128 @@
+package services.api.steam;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The stats of a GetUserStatsForGame response. Achievements are not read, since the front-end only uses the stats.
+ */
+public final class PlayerStats {
+    private final String steamId;
+    private final String gameName;
+    private final String[] statNames;
+    private final double[] statValues;
+
+    private PlayerStats(String steamId, String gameName, String[] statNames, double[] statValues) {
+        this.steamId = steamId;
+        this.gameName = gameName;
+        this.statNames = statNames;
+        this.statValues = statValues;
+    }
+
+    /**
+     * Reads the "playerstats" object, keeping the stats in two parallel arrays instead of an object per stat.
+     * @param reader The reader positioned at the "playerstats" object.
+     * @return Player stats.
+     */
+    static PlayerStats read(JsonReader reader) throws IOException {
+        String steamId = null;
+        String gameName = null;
+        List<String> statNames = new ArrayList<>();
+        double[] statValues = new double[0];
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "steamID":
+                    steamId = reader.nextString();
+                    break;
+                case "gameName":
+                    gameName = reader.nextString();
+                    break;
+                case "stats":
+                    statValues = new double[64];
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (statNames.size() == statValues.length)
+                            statValues = Arrays.copyOf(statValues, statValues.length * 2);
+                        String statName = null;
+                        double statValue = 0;
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            String field = reader.nextName();
+                            if (field.equals("name"))
+                                statName = reader.nextString();
+                            else if (field.equals("value"))
+                                statValue = reader.nextDouble();
+                            else
+                                reader.skipValue();
+                        }
+                        reader.endObject();
+                        statValues[statNames.size()] = statValue;
+                        statNames.add(statName);
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new PlayerStats(steamId, gameName, statNames.toArray(new String[0]),
+                Arrays.copyOf(statValues, statNames.size()));
+    }
+
+    /**
+     * Writes the stats as a "playerstats" object with the field names of the Steam Web API.
+     * @param writer The writer.
+     */
+    void write(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("steamID").value(steamId);
+        writer.name("gameName").value(gameName);
+        writer.name("stats").beginArray();
+        for (int i = 0; i < statNames.length; i++) {
+            writer.beginObject();
+            writer.name("name").value(statNames[i]);
+            // Steam stats are integers, written without a fraction
+            if (statValues[i] == Math.rint(statValues[i]) && Math.abs(statValues[i]) < 1e15)
+                writer.name("value").value((long) statValues[i]);
+            else
+                writer.name("value").value(statValues[i]);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    public String getSteamId() {
+        return steamId;
+    }
+
+    public String getGameName() {
+        return gameName;
+    }
+
+    public int getStatCount() {
+        return statNames.length;
+    }
+
+    public String getStatName(int index) {
+        return statNames[index];
+    }
+
+    public double getStatValue(int index) {
+        return statValues[index];
+    }
+}
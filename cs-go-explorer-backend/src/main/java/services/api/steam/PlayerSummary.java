@@ -0,0 +1,164 @@
+package services.api.steam;
+
+import java.io.IOException;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The fields of a GetPlayerSummaries player that the front-end displays.
+ */
+public final class PlayerSummary {
+    private final String steamId;
+    private final String personaName;
+    private final String profileUrl;
+    private final String avatarFull;
+    private final int personaState;
+    private final int communityVisibilityState;
+    private final long lastLogoff;
+    private final long timeCreated;
+    private final String locCountryCode;
+    private final String locStateCode;
+
+    private PlayerSummary(String steamId, String personaName, String profileUrl, String avatarFull, int personaState,
+                          int communityVisibilityState, long lastLogoff, long timeCreated, String locCountryCode, String locStateCode) {
+        this.steamId = steamId;
+        this.personaName = personaName;
+        this.profileUrl = profileUrl;
+        this.avatarFull = avatarFull;
+        this.personaState = personaState;
+        this.communityVisibilityState = communityVisibilityState;
+        this.lastLogoff = lastLogoff;
+        this.timeCreated = timeCreated;
+        this.locCountryCode = locCountryCode;
+        this.locStateCode = locStateCode;
+    }
+
+    /**
+     * Reads a player object, skipping the fields that are not needed.
+     * @param reader The reader positioned at the player object.
+     * @return Player summary.
+     */
+    static PlayerSummary read(JsonReader reader) throws IOException {
+        String steamId = null;
+        String personaName = null;
+        String profileUrl = null;
+        String avatarFull = null;
+        int personaState = 0;
+        int communityVisibilityState = 0;
+        long lastLogoff = 0;
+        long timeCreated = 0;
+        String locCountryCode = null;
+        String locStateCode = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "steamid":
+                    steamId = reader.nextString();
+                    break;
+                case "personaname":
+                    personaName = reader.nextString();
+                    break;
+                case "profileurl":
+                    profileUrl = reader.nextString();
+                    break;
+                case "avatarfull":
+                    avatarFull = reader.nextString();
+                    break;
+                case "personastate":
+                    personaState = reader.nextInt();
+                    break;
+                case "communityvisibilitystate":
+                    communityVisibilityState = reader.nextInt();
+                    break;
+                case "lastlogoff":
+                    lastLogoff = reader.nextLong();
+                    break;
+                case "timecreated":
+                    timeCreated = reader.nextLong();
+                    break;
+                case "loccountrycode":
+                    locCountryCode = reader.nextString();
+                    break;
+                case "locstatecode":
+                    locStateCode = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new PlayerSummary(steamId, personaName, profileUrl, avatarFull, personaState,
+                communityVisibilityState, lastLogoff, timeCreated, locCountryCode, locStateCode);
+    }
+
+    /**
+     * Writes the player with the field names of the Steam Web API. Missing optional fields are left out.
+     * @param writer The writer.
+     */
+    void write(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("steamid").value(steamId);
+        writer.name("personaname").value(personaName);
+        writer.name("profileurl").value(profileUrl);
+        writer.name("avatarfull").value(avatarFull);
+        writer.name("personastate").value(personaState);
+        writer.name("communityvisibilitystate").value(communityVisibilityState);
+        if (lastLogoff != 0)
+            writer.name("lastlogoff").value(lastLogoff);
+        if (timeCreated != 0)
+            writer.name("timecreated").value(timeCreated);
+        if (locCountryCode != null)
+            writer.name("loccountrycode").value(locCountryCode);
+        if (locStateCode != null)
+            writer.name("locstatecode").value(locStateCode);
+        writer.endObject();
+    }
+
+    public String getSteamId() {
+        return steamId;
+    }
+
+    public String getPersonaName() {
+        return personaName;
+    }
+
+    public String getProfileUrl() {
+        return profileUrl;
+    }
+
+    public String getAvatarFull() {
+        return avatarFull;
+    }
+
+    public int getPersonaState() {
+        return personaState;
+    }
+
+    public int getCommunityVisibilityState() {
+        return communityVisibilityState;
+    }
+
+    public long getLastLogoff() {
+        return lastLogoff;
+    }
+
+    public long getTimeCreated() {
+        return timeCreated;
+    }
+
+    public String getLocCountryCode() {
+        return locCountryCode;
+    }
+
+    public String getLocStateCode() {
+        return locStateCode;
+    }
+}
@@ -1,17 +1,13 @@
 package services.api.steam;
 
+import java.util.List;
 import java.util.Map;
 
 import java.io.IOException;
-
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 import services.api.ApiGateway;
@@ -23,7 +19,7 @@ public class SteamApi {
      * The Steam API router is responsible for calling the correct URI.
      * @param event The Lambda Function event.
      * @param resourceName The name of the resource.
-     * @return API Gateway proxy response containing status code, headers, body, and base64 encoding enabled.
+     * @return API Gateway proxy response containing status code, headers, and body.
      */
     public static ApiGatewayProxyResponse steamApiRouter(Map<String, Object> event, String resourceName) {
         Map<String, Object> queryStringParameters = (Map<String, Object>) event.get("queryStringParameters");
@@ -33,92 +29,135 @@ public class SteamApi {
             case "/GetPlayerSummaries":
                 steamId = (String) queryStringParameters.get("steamid");
                 // Returns basic profile information for a list of 64-bit Steam IDs.
-                return getSteamApiData(event, "http://api.steampowered.com/ISteamUser/GetPlayerSummaries/v0002/?" +
+                return getSteamApiData(event, "https://api.steampowered.com/ISteamUser/GetPlayerSummaries/v0002/?" +
                         "key=" + System.getenv("STEAM_API_KEY") + "&" +
                         "steamids=" + steamId,
-                        "/GetPlayerSummaries");
+                        "/GetPlayerSummaries", "steamid=" + steamId);
             case "/GetFriendList":
                 steamId = (String) queryStringParameters.get("steamid");
                 // Returns the friend list of any Steam user, provided their Steam Community profile visibility is set to "Public".
-                return getSteamApiData(event, "http://api.steampowered.com/ISteamUser/GetFriendList/v0001/?" +
+                return getSteamApiData(event, "https://api.steampowered.com/ISteamUser/GetFriendList/v0001/?" +
                         "key=" + System.getenv("STEAM_API_KEY") + "&" +
                         "steamid=" + steamId + "&" +
-                        "relationship=friend", "/GetFriendList");
+                        "relationship=friend", "/GetFriendList",
+                        "steamid=" + steamId + "&cursor=" + getIntParameter(queryStringParameters, "cursor") + "&limit=" + getIntParameter(queryStringParameters, "limit"));
             case "/GetUserStatsForGame":
                 steamId = (String) queryStringParameters.get("steamid");
                 // Returns a list of achievements for this user by app id.
-                return getSteamApiData(event, "http://api.steampowered.com/ISteamUserStats/GetUserStatsForGame/v0002/?" +
+                return getSteamApiData(event, "https://api.steampowered.com/ISteamUserStats/GetUserStatsForGame/v0002/?" +
                         "appid=" + System.getenv("CS_GO_APP_ID") + "&key=" + System.getenv("STEAM_API_KEY") + "&" +
-                        "steamid=" + steamId, "/GetUserStatsForGame");
+                        "steamid=" + steamId, "/GetUserStatsForGame", "steamid=" + steamId);
             case "/GetNewsForApp":
                 // Returns a list of achievements for this user by app id.
                 return getSteamApiData(event, "https://api.steampowered.com/ISteamNews/GetNewsForApp/v2?" +
-                        "appid=" + System.getenv("CS_GO_APP_ID") + "&key=" + System.getenv("STEAM_API_KEY"), "/GetNewsForApp");
+                        "appid=" + System.getenv("CS_GO_APP_ID") + "&key=" + System.getenv("STEAM_API_KEY"), "/GetNewsForApp",
+                        "appid=" + System.getenv("CS_GO_APP_ID"));
         }
         return new ApiGatewayProxyResponse();
     }
 
     /**
-     * Get response data from the specified Steam API URI.
+     * Get response data from the specified Steam API URI, served from the Steam response cache when possible.
+     * Concurrent cache misses of the same resource and query share a single upstream request. While the Steam API
+     * is throttling or unavailable, the last known response is served, even if it has expired.
      * @param event The Lambda Function event.
+     * @param uri The Steam API URI.
      * @param resourceName The name of the resource.
-     * @return API Gateway proxy response containing status code, headers, body, and base64 encoding enabled.
+     * @param query The query parameters that identify the response in the cache.
+     * @return API Gateway proxy response containing status code, headers, and body.
      */
-    public static ApiGatewayProxyResponse getSteamApiData(Map<String, Object> event, String uri, String resourceName) {
+    public static ApiGatewayProxyResponse getSteamApiData(Map<String, Object> event, String uri, String resourceName, String query) {
         // Handles CORS preflight OPTIONS request
         if (event.get("httpMethod").equals("OPTIONS")) {
             return ApiGateway.generateResponseForOptionsRequest();
         }
 
-        HttpResponse<String> httpResponse;
         try {
-            // Initiate request
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest request = HttpRequest
-                    .newBuilder()
-                    .uri(URI.create(uri))
-                    .GET()
-                    .header("Accept", "application/json")
-                    .build();
+            Map<String, Object> queryStringParameters = (Map<String, Object>) event.get("queryStringParameters");
+            String responseBody = SteamResponseCache.get(resourceName, query, () -> SteamRequestCoalescer.execute(resourceName, query,
+                    () -> requestSteamApiData(uri, resourceName, queryStringParameters)));
+            if (responseBody != null)
+                return ApiGateway.generateResponseForPostOrGetRequest(responseBody);
+        } catch (SteamApiException error) {
+            System.err.println(error.getMessage() + ", rate limiter: " + SteamHttpClient.getRateLimiter() +
+                    ", circuit breaker: " + SteamHttpClient.getCircuitBreaker() + ", transport: " + SteamHttpClient.getMetrics());
+            return getLastKnownSteamApiData(resourceName, query, error.getStatusCode(), error.getMessage(), error.getRetryAfterSeconds());
+        } catch (IOException | ParseException error) {
+            error.printStackTrace();
+            return getLastKnownSteamApiData(resourceName, query, 502, "The Steam API request failed", 0);
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            return getLastKnownSteamApiData(resourceName, query, 503, "The Steam API request was interrupted", 0);
+        }
+        return new ApiGatewayProxyResponse();
+    }
 
-            // Get response
-            httpResponse = client.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Serves the last known response of the resource, or an error response if nothing is cached.
+     * @param resourceName The name of the resource.
+     * @param query The query parameters that identify the response in the cache.
+     * @param statusCode The status code of the error response.
+     * @param message The message of the error response.
+     * @param retryAfterSeconds Seconds after which the client may retry the request, or 0 if unknown.
+     * @return API Gateway proxy response containing status code, headers, and body.
+     */
+    private static ApiGatewayProxyResponse getLastKnownSteamApiData(String resourceName, String query, int statusCode, String message, long retryAfterSeconds) {
+        String lastKnownResponseBody = SteamResponseCache.getLastKnown(resourceName, query);
+        if (lastKnownResponseBody != null)
+            return ApiGateway.generateResponseForPostOrGetRequest(lastKnownResponseBody);
+        return ApiGateway.generateErrorResponse(statusCode, message, retryAfterSeconds);
+    }
 
-            if (resourceName.equals("/GetUserStatsForGame")) {
-                return ApiGateway.generateResponseForPostOrGetRequest(httpResponse.body());
+    /**
+     * Requests response data from the specified Steam API URI and reads the fields the front-end needs straight from the response stream.
+     * Responses with a status other than 200, e.g. the stats of a private profile, are passed through unchanged.
+     * Only responses built from a 2xx upstream response are cacheable, which leaves out the empty friend list that
+     * stands in for a friend list that could not be read.
+     * @param uri The Steam API URI.
+     * @param resourceName The name of the resource.
+     * @param queryStringParameters The query string parameters of the request.
+     * @return Response with a null body if the resource is unknown.
+     */
+    private static SteamResponse requestSteamApiData(String uri, String resourceName, Map<String, Object> queryStringParameters) throws IOException, InterruptedException {
+        // Get response
+        HttpResponse<InputStream> httpResponse = SteamHttpClient.send(uri);
+        boolean isSuccessful = httpResponse.statusCode() / 100 == 2;
+
+        try (InputStream responseBody = SteamHttpClient.body(httpResponse)) {
+            if (resourceName.equals("/GetFriendList")) {
+                // A friend list that is not public has no friends to resolve
+                List<String> steamIds = httpResponse.statusCode() == 200 ? SteamJson.readFriendSteamIds(responseBody) : List.of();
+                // Resolves the friend list, or the requested page of it, into the friends' profiles
+                int cursor = getIntParameter(queryStringParameters, "cursor");
+                int limit = getIntParameter(queryStringParameters, "limit");
+                return new SteamResponse(FriendListPipeline.getFriendProfiles(steamIds, cursor, limit), isSuccessful);
+            } else if (httpResponse.statusCode() != 200) {
+                return new SteamResponse(new String(responseBody.readAllBytes(), StandardCharsets.UTF_8), isSuccessful);
+            } else if (resourceName.equals("/GetUserStatsForGame")) {
+                return new SteamResponse(SteamJson.writePlayerStats(SteamJson.readPlayerStats(responseBody)), true);
             } else if (resourceName.equals("/GetPlayerSummaries")) {
-                return ApiGateway.generateResponseForPostOrGetRequest(httpResponse.body());
+                return new SteamResponse(SteamJson.writePlayerSummaries(SteamJson.readPlayerSummaries(responseBody), null), true);
             } else if (resourceName.equals("/GetNewsForApp")) {
-                return ApiGateway.generateResponseForPostOrGetRequest(httpResponse.body());
-            }else if (resourceName.equals("/GetFriendList")) {
-                JSONParser jsonParser = new JSONParser();
-                JSONObject jsonResponse = (JSONObject) jsonParser.parse(httpResponse.body());
-                JSONObject friendsList = (JSONObject) jsonParser.parse(jsonResponse.get("friendslist").toString());
-                JSONArray friends = (JSONArray) jsonParser.parse(friendsList.get("friends").toString());
-
-                StringBuilder profileIds = new StringBuilder();
-                for (Object friend : friends) {
-                    JSONObject friendSteamId = (JSONObject) jsonParser.parse(friend.toString());
-                    if (friend.equals(friends.get(friends.size() - 1))) {
-                        profileIds.append(friendSteamId.get("steamid").toString());
-                        break;
-                    }
-                    profileIds.append(friendSteamId.get("steamid").toString()).append(",");
-                }
+                return new SteamResponse(SteamJson.writeNews(SteamJson.readNews(responseBody)), true);
+            }
+        }
+        return new SteamResponse(null, false);
+    }
 
-                HttpRequest friendProfileRequest = HttpRequest
-                        .newBuilder()
-                        .uri(URI.create("http://api.steampowered.com/ISteamUser/GetPlayerSummaries/v0002/?key=" + System.getenv("STEAM_API_KEY") + "&steamids=" + profileIds))
-                        .GET()
-                        .header("Accept", "application/json")
-                        .build();
+    /**
+     * Gets a non-negative integer query string parameter.
+     * @param queryStringParameters The query string parameters of the request.
+     * @param name The name of the parameter.
+     * @return Value of the parameter or 0 if it is missing or invalid.
+     */
+    private static int getIntParameter(Map<String, Object> queryStringParameters, String name) {
+        if (queryStringParameters == null || queryStringParameters.get(name) == null)
+            return 0;
 
-                HttpResponse<String> friendProfileResponse = client.send(friendProfileRequest, HttpResponse.BodyHandlers.ofString());
-                return ApiGateway.generateResponseForPostOrGetRequest(friendProfileResponse.body());
-            }
-        } catch (IOException | InterruptedException | ParseException error) {
-            error.printStackTrace();
+        try {
+            return Math.max(0, Integer.parseInt(queryStringParameters.get(name).toString()));
+        } catch (NumberFormatException error) {
+            return 0;
         }
-        return new ApiGatewayProxyResponse();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package services.api.steam;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the Steam Web API cannot serve a request: it keeps responding with 429 or 5xx after all retries,
+ * the client-side rate limit is saturated, or the circuit breaker is open.
+ */
+public class SteamApiException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final long retryAfterSeconds;
+
+    /**
+     * @param message The detail message.
+     * @param statusCode The HTTP status code to respond with.
+     * @param retryAfterSeconds Seconds after which the request may succeed, or 0 if unknown.
+     */
+    public SteamApiException(String message, int statusCode, long retryAfterSeconds) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
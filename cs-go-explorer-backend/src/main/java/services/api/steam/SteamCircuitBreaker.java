@@ -0,0 +1,122 @@
+package services.api.steam;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker in front of the Steam Web API. After STEAM_BREAKER_FAILURE_THRESHOLD consecutive failed requests
+ * the breaker opens and requests fail fast for STEAM_BREAKER_OPEN_MS milliseconds. Then a single trial request is let
+ * through: if it succeeds the breaker closes, otherwise it opens again.
+ */
+public class SteamCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean isTrialInFlight;
+
+    private final AtomicLong trips = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+
+    /**
+     * @param failureThreshold The number of consecutive failures that opens the breaker.
+     * @param openMillis How long the breaker stays open before a trial request is let through.
+     */
+    public SteamCircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Creates the circuit breaker configured by the environment variables.
+     * @return Steam circuit breaker.
+     */
+    public static SteamCircuitBreaker fromEnvironment() {
+        String failureThreshold = System.getenv("STEAM_BREAKER_FAILURE_THRESHOLD");
+        String openMillis = System.getenv("STEAM_BREAKER_OPEN_MS");
+        return new SteamCircuitBreaker(
+                failureThreshold == null || failureThreshold.isEmpty() ? 5 : Integer.parseInt(failureThreshold),
+                openMillis == null || openMillis.isEmpty() ? 30000 : Long.parseLong(openMillis));
+    }
+
+    /**
+     * Checks whether a request may be sent.
+     * @return True if the request may be sent, false if it has to fail fast.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            isTrialInFlight = false;
+        }
+
+        if (state == State.CLOSED)
+            return true;
+        if (state == State.HALF_OPEN && !isTrialInFlight) {
+            isTrialInFlight = true;
+            return true;
+        }
+        rejectedRequests.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Gives back a permission that was granted by {@link #allowRequest()} but not used to send a request.
+     */
+    public synchronized void release() {
+        isTrialInFlight = false;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        isTrialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        isTrialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            trips.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of seconds until the open breaker lets a trial request through.
+     * @return Seconds until the breaker half-opens, or 0 if it is not open.
+     */
+    public synchronized long getSecondsUntilHalfOpen() {
+        if (state != State.OPEN)
+            return 0;
+        long remainingNanos = openNanos - (System.nanoTime() - openedAt);
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getTrips() {
+        return trips.get();
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.get();
+    }
+
+    @Override
+    public String toString() {
+        return "{state=" + getState() +
+                ", trips=" + trips.get() +
+                ", rejectedRequests=" + rejectedRequests.get() + '}';
+    }
+}
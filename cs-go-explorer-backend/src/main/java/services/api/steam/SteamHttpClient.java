@@ -0,0 +1,393 @@
+package services.api.steam;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import javax.net.ssl.SSLSession;
+
+/**
+ * The single HTTP transport used for all Steam Web API calls. The underlying HttpClient is created once per container,
+ * so its connection pool and TLS sessions are reused across requests. Requests are sent over HTTPS only, negotiate
+ * HTTP/2, ask for gzip-compressed responses and are bounded by explicit connect and request timeouts.
+ * Timeouts and the size of the executor can be configured with the STEAM_CONNECT_TIMEOUT_MS,
+ * STEAM_REQUEST_TIMEOUT_MS and STEAM_HTTP_THREADS environment variables.
+ * <p>
+ * Every request takes a token from the {@link SteamRateLimiter} shared by all routes and passes the
+ * {@link SteamCircuitBreaker}. Responses with status 429, 502, 503 or 504 and transport errors are retried up to
+ * STEAM_RETRY_MAX_ATTEMPTS times with decorrelated jitter backoff between STEAM_RETRY_BASE_DELAY_MS and
+ * STEAM_RETRY_MAX_DELAY_MS, waiting at least as long as the Retry-After header asks. Status 500 is passed through,
+ * because GetUserStatsForGame answers with it for profiles whose game details are private.
+ */
+public class SteamHttpClient {
+
+    private static final Duration connectTimeout = Duration.ofMillis(getEnvOrDefault("STEAM_CONNECT_TIMEOUT_MS", 2000));
+    private static final Duration requestTimeout = Duration.ofMillis(getEnvOrDefault("STEAM_REQUEST_TIMEOUT_MS", 10000));
+    private static final ExecutorService executor = createExecutor(getEnvOrDefault("STEAM_HTTP_THREADS", 8));
+    private static final HttpClient httpClient = HttpClient
+            .newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(executor)
+            .build();
+    private static final TransportMetrics metrics = new TransportMetrics();
+    private static final SteamRateLimiter rateLimiter = SteamRateLimiter.fromEnvironment();
+    private static final SteamCircuitBreaker circuitBreaker = SteamCircuitBreaker.fromEnvironment();
+    private static final int maxAttempts = getEnvOrDefault("STEAM_RETRY_MAX_ATTEMPTS", 3);
+    private static final long baseRetryDelayMillis = getEnvOrDefault("STEAM_RETRY_BASE_DELAY_MS", 100);
+    private static final long maxRetryDelayMillis = getEnvOrDefault("STEAM_RETRY_MAX_DELAY_MS", 2000);
+
+    /**
+     * Sends a GET request and returns the response once its headers are received, retrying throttled and failed requests.
+     * The body of the response is not decompressed, use {@link #body(HttpResponse)} to read it.
+     * @param uri The Steam API URI.
+     * @return Future response with the raw body stream, completed with a {@link SteamApiException} if the Steam API cannot serve the request.
+     */
+    public static CompletableFuture<HttpResponse<InputStream>> sendAsync(String uri) {
+        HttpRequest request = HttpRequest
+                .newBuilder()
+                .uri(toHttps(uri))
+                .timeout(requestTimeout)
+                .GET()
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .build();
+
+        CompletableFuture<HttpResponse<InputStream>> result = new CompletableFuture<>();
+        sendAttempt(request, 1, baseRetryDelayMillis, result);
+        return result;
+    }
+
+    /**
+     * Sends a GET request and waits for the response.
+     * @param uri The Steam API URI.
+     * @return Response with the raw body stream.
+     */
+    public static HttpResponse<InputStream> send(String uri) throws IOException, InterruptedException {
+        CompletableFuture<HttpResponse<InputStream>> response = sendAsync(uri);
+        try {
+            return response.get();
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof IOException)
+                throw (IOException) error.getCause();
+            throw new IOException(error.getCause());
+        } catch (InterruptedException error) {
+            // Stops the retries of the abandoned request
+            response.cancel(true);
+            throw error;
+        }
+    }
+
+    /**
+     * Sends a GET request and reads the whole response body.
+     * @param uri The Steam API URI.
+     * @return Response body.
+     */
+    public static String getString(String uri) throws IOException, InterruptedException {
+        try (InputStream inputStream = body(send(uri))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Opens the body of the response, decompressing it while it is read when the server sent it gzip-encoded.
+     * @param response Response with the raw body stream.
+     * @return Stream of the decoded response body.
+     */
+    public static InputStream body(HttpResponse<InputStream> response) throws IOException {
+        boolean isGzipEncoded = response
+                .headers()
+                .firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return isGzipEncoded ? new GZIPInputStream(response.body(), 8192) : response.body();
+    }
+
+    /**
+     * Gets the executor that runs the HTTP client's asynchronous tasks.
+     * @return Executor of the Steam transport.
+     */
+    public static ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public static TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    public static SteamRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public static SteamCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Rewrites plain HTTP Steam API URIs to HTTPS and rejects any other scheme.
+     * @param uri The Steam API URI.
+     * @return HTTPS URI.
+     */
+    static URI toHttps(String uri) {
+        URI parsedUri = URI.create(uri.startsWith("http://") ? "https://" + uri.substring("http://".length()) : uri);
+        if (!"https".equalsIgnoreCase(parsedUri.getScheme()))
+            throw new IllegalArgumentException("Only HTTPS Steam API URIs are supported: " + uri);
+        return parsedUri;
+    }
+
+    /**
+     * Sends one attempt of the request once the rate limiter and the circuit breaker allow it,
+     * and schedules the next attempt if the response or error is retryable.
+     * @param request The request to send.
+     * @param attempt The number of this attempt, starting at 1.
+     * @param previousDelayMillis The backoff delay before this attempt.
+     * @param result The future completed with the final response or error.
+     */
+    private static void sendAttempt(HttpRequest request, int attempt, long previousDelayMillis, CompletableFuture<HttpResponse<InputStream>> result) {
+        // The caller is no longer interested in the response
+        if (result.isDone())
+            return;
+
+        if (!circuitBreaker.allowRequest()) {
+            result.completeExceptionally(new SteamApiException("The Steam API circuit breaker is open",
+                    503, circuitBreaker.getSecondsUntilHalfOpen()));
+            return;
+        }
+
+        long waitNanos = rateLimiter.reserve();
+        if (waitNanos < 0) {
+            circuitBreaker.release();
+            result.completeExceptionally(new SteamApiException("The Steam API rate limit is saturated", 503, 1));
+            return;
+        }
+
+        if (waitNanos > 0) {
+            CompletableFuture
+                    .delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor)
+                    .execute(() -> sendNow(request, attempt, previousDelayMillis, result));
+        } else {
+            sendNow(request, attempt, previousDelayMillis, result);
+        }
+    }
+
+    private static void sendNow(HttpRequest request, int attempt, long previousDelayMillis, CompletableFuture<HttpResponse<InputStream>> result) {
+        if (result.isDone()) {
+            circuitBreaker.release();
+            return;
+        }
+
+        CompletableFuture<HttpResponse<InputStream>> pendingResponse = httpClient
+                .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(SteamHttpClient::recordResponse);
+        // Propagate the cancellation of the caller to the request in flight
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled())
+                pendingResponse.cancel(true);
+        });
+
+        pendingResponse.whenComplete((response, error) -> {
+            if (error == null && !isRetryable(response.statusCode())) {
+                circuitBreaker.recordSuccess();
+                if (!result.complete(response))
+                    close(response);
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                circuitBreaker.release();
+                return;
+            }
+            circuitBreaker.recordFailure();
+
+            long retryAfterMillis = 0;
+            if (response != null) {
+                retryAfterMillis = getRetryAfterMillis(response);
+                close(response);
+            }
+
+            // Decorrelated jitter: a random delay between the base delay and three times the previous delay
+            long delayMillis = Math.min(maxRetryDelayMillis,
+                    ThreadLocalRandom.current().nextLong(baseRetryDelayMillis, Math.max(baseRetryDelayMillis, previousDelayMillis * 3) + 1));
+            if (attempt >= maxAttempts || retryAfterMillis > maxRetryDelayMillis) {
+                metrics.exhaustedRetries.incrementAndGet();
+                result.completeExceptionally(response == null
+                        ? toIOException(cause)
+                        : new SteamApiException("The Steam API responded with status " + response.statusCode() + " after " + attempt + " attempts",
+                                response.statusCode() == 429 ? 503 : 502,
+                                TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999)));
+                return;
+            }
+
+            metrics.retries.incrementAndGet();
+            CompletableFuture
+                    .delayedExecutor(Math.max(delayMillis, retryAfterMillis), TimeUnit.MILLISECONDS, executor)
+                    .execute(() -> sendAttempt(request, attempt + 1, delayMillis, result));
+        });
+    }
+
+    /**
+     * Checks whether the response status means that the Steam API is throttling or temporarily unavailable.
+     * @param statusCode The status code of the response.
+     * @return True if the request should be retried.
+     */
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Parses the Retry-After header, given either in seconds or as an HTTP date.
+     * @param response The throttled response.
+     * @return Milliseconds to wait before retrying, or 0 if the header is missing or invalid.
+     */
+    private static long getRetryAfterMillis(HttpResponse<InputStream> response) {
+        String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+        if (retryAfter == null)
+            return 0;
+
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException error) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, retryAt.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException parseError) {
+                return 0;
+            }
+        }
+    }
+
+    private static IOException toIOException(Throwable error) {
+        return error instanceof IOException ? (IOException) error : new IOException(error);
+    }
+
+    private static void close(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException error) {
+            error.printStackTrace();
+        }
+    }
+
+    private static HttpResponse<InputStream> recordResponse(HttpResponse<InputStream> response) {
+        metrics.requests.incrementAndGet();
+        if (response.version() == HttpClient.Version.HTTP_2)
+            metrics.http2Responses.incrementAndGet();
+
+        response.sslSession().map(SSLSession::getId).ifPresent(sessionId -> {
+            // Bound the memory used by the set of known TLS sessions
+            if (metrics.sessionIds.size() > 1000)
+                metrics.sessionIds.clear();
+
+            if (metrics.sessionIds.add(Base64.getEncoder().encodeToString(sessionId)))
+                metrics.newSessions.incrementAndGet();
+            else
+                metrics.reusedSessions.incrementAndGet();
+        });
+        return response;
+    }
+
+    /**
+     * Creates a bounded executor, or a virtual thread per task executor on Java 21 and later.
+     * @param threads The maximum number of platform threads.
+     * @return Executor for the HTTP client.
+     */
+    private static ExecutorService createExecutor(int threads) {
+        if (Runtime.version().feature() >= 21) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException error) {
+                error.printStackTrace();
+            }
+        }
+
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "steam-http");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    private static int getEnvOrDefault(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Counts the requests sent through the transport and how often their TLS session was reused.
+     */
+    public static class TransportMetrics {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong http2Responses = new AtomicLong();
+        private final AtomicLong newSessions = new AtomicLong();
+        private final AtomicLong reusedSessions = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong exhaustedRetries = new AtomicLong();
+        private final Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getHttp2Responses() {
+            return http2Responses.get();
+        }
+
+        public long getNewSessions() {
+            return newSessions.get();
+        }
+
+        public long getReusedSessions() {
+            return reusedSessions.get();
+        }
+
+        public long getRetries() {
+            return retries.get();
+        }
+
+        /**
+         * Gets the number of requests that failed after their last attempt or whose Retry-After was too long to wait for.
+         * @return Number of requests that ran out of retries.
+         */
+        public long getExhaustedRetries() {
+            return exhaustedRetries.get();
+        }
+
+        @Override
+        public String toString() {
+            return "{requests=" + requests.get() +
+                    ", http2Responses=" + http2Responses.get() +
+                    ", newSessions=" + newSessions.get() +
+                    ", reusedSessions=" + reusedSessions.get() +
+                    ", retries=" + retries.get() +
+                    ", exhaustedRetries=" + exhaustedRetries.get() + '}';
+        }
+    }
+}
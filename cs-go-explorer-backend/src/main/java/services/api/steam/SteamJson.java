@@ -0,0 +1,192 @@
+package services.api.steam;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming JSON layer for Steam Web API responses. Responses are read with a pull parser straight from the response
+ * stream, only the fields the front-end needs are kept in typed objects, and everything else is skipped without being
+ * materialized. The typed objects are written back in the shape of the Steam Web API, so the front-end is unchanged.
+ */
+public class SteamJson {
+
+    /**
+     * Reads the players of a GetPlayerSummaries response.
+     * @param inputStream The decoded response body.
+     * @return Players, or an empty list if the response has none.
+     */
+    public static List<PlayerSummary> readPlayerSummaries(InputStream inputStream) throws IOException {
+        List<PlayerSummary> players = new ArrayList<>();
+        try (JsonReader reader = newReader(inputStream)) {
+            reader.beginObject();
+            if (findMember(reader, "response")) {
+                reader.beginObject();
+                if (findMember(reader, "players")) {
+                    reader.beginArray();
+                    while (reader.hasNext())
+                        players.add(PlayerSummary.read(reader));
+                }
+            }
+        } catch (IllegalStateException | NumberFormatException error) {
+            throw new IOException("Malformed GetPlayerSummaries response", error);
+        }
+        return players;
+    }
+
+    /**
+     * Reads the stats of a GetUserStatsForGame response.
+     * @param inputStream The decoded response body.
+     * @return Player stats, or null if the response has no "playerstats".
+     */
+    public static PlayerStats readPlayerStats(InputStream inputStream) throws IOException {
+        try (JsonReader reader = newReader(inputStream)) {
+            reader.beginObject();
+            return findMember(reader, "playerstats") ? PlayerStats.read(reader) : null;
+        } catch (IllegalStateException | NumberFormatException error) {
+            throw new IOException("Malformed GetUserStatsForGame response", error);
+        }
+    }
+
+    /**
+     * Reads the news items of a GetNewsForApp response.
+     * @param inputStream The decoded response body.
+     * @return News items, or an empty list if the response has none.
+     */
+    public static List<NewsItem> readNews(InputStream inputStream) throws IOException {
+        List<NewsItem> newsItems = new ArrayList<>();
+        try (JsonReader reader = newReader(inputStream)) {
+            reader.beginObject();
+            if (findMember(reader, "appnews")) {
+                reader.beginObject();
+                if (findMember(reader, "newsitems")) {
+                    reader.beginArray();
+                    while (reader.hasNext())
+                        newsItems.add(NewsItem.read(reader));
+                }
+            }
+        } catch (IllegalStateException | NumberFormatException error) {
+            throw new IOException("Malformed GetNewsForApp response", error);
+        }
+        return newsItems;
+    }
+
+    /**
+     * Reads the Steam IDs of the friends in a GetFriendList response.
+     * @param inputStream The decoded response body.
+     * @return Steam IDs of the friends, or an empty list if the response has none.
+     */
+    public static List<String> readFriendSteamIds(InputStream inputStream) throws IOException {
+        List<String> steamIds = new ArrayList<>();
+        try (JsonReader reader = newReader(inputStream)) {
+            reader.beginObject();
+            if (findMember(reader, "friendslist")) {
+                reader.beginObject();
+                if (findMember(reader, "friends")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        reader.beginObject();
+                        if (findMember(reader, "steamid"))
+                            steamIds.add(reader.nextString());
+                        while (reader.hasNext()) {
+                            reader.nextName();
+                            reader.skipValue();
+                        }
+                        reader.endObject();
+                    }
+                }
+            }
+        } catch (IllegalStateException | NumberFormatException error) {
+            throw new IOException("Malformed GetFriendList response", error);
+        }
+        return steamIds;
+    }
+
+    /**
+     * Writes players in the GetPlayerSummaries format.
+     * @param players The players.
+     * @param nextCursor The cursor of the next page of a friend list, or null if there is none.
+     * @return Response body.
+     */
+    public static String writePlayerSummaries(List<PlayerSummary> players, String nextCursor) throws IOException {
+        StringWriter stringWriter = new StringWriter(256 * (players.size() + 1));
+        try (JsonWriter writer = new JsonWriter(stringWriter)) {
+            writer.beginObject();
+            writer.name("response").beginObject();
+            writer.name("players").beginArray();
+            for (PlayerSummary player : players)
+                player.write(writer);
+            writer.endArray();
+            writer.endObject();
+            if (nextCursor != null)
+                writer.name("nextCursor").value(nextCursor);
+            writer.endObject();
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Writes player stats in the GetUserStatsForGame format.
+     * @param playerStats The player stats, or null if there are none.
+     * @return Response body.
+     */
+    public static String writePlayerStats(PlayerStats playerStats) throws IOException {
+        StringWriter stringWriter = new StringWriter(playerStats == null ? 16 : 48 * (playerStats.getStatCount() + 1));
+        try (JsonWriter writer = new JsonWriter(stringWriter)) {
+            writer.beginObject();
+            if (playerStats != null) {
+                writer.name("playerstats");
+                playerStats.write(writer);
+            }
+            writer.endObject();
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Writes news items in the GetNewsForApp format.
+     * @param newsItems The news items.
+     * @return Response body.
+     */
+    public static String writeNews(List<NewsItem> newsItems) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(stringWriter)) {
+            writer.beginObject();
+            writer.name("appnews").beginObject();
+            writer.name("newsitems").beginArray();
+            for (NewsItem newsItem : newsItems)
+                newsItem.write(writer);
+            writer.endArray();
+            writer.endObject();
+            writer.endObject();
+        }
+        return stringWriter.toString();
+    }
+
+    private static JsonReader newReader(InputStream inputStream) {
+        return new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Skips the members of the current object until the member with the given name.
+     * @param reader The reader inside an object.
+     * @param name The name of the member.
+     * @return True if the reader is positioned at the non-null value of the member, false if the object has no such member.
+     */
+    private static boolean findMember(JsonReader reader, String name) throws IOException {
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(name) && reader.peek() != JsonToken.NULL)
+                return true;
+            reader.skipValue();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,105 @@
+package services.api.steam;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side token bucket shared by all Steam Web API routes. The bucket refills at the rate of the Steam key quota,
+ * STEAM_DAILY_QUOTA calls per day (100,000 by default), and holds up to STEAM_RATE_LIMIT_BURST tokens. A request that
+ * finds the bucket empty is delayed until its token is available, or rejected if that is further away than
+ * STEAM_RATE_LIMIT_MAX_WAIT_MS milliseconds.
+ */
+public class SteamRateLimiter {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final long maxWaitNanos;
+    private double tokens;
+    private long lastRefillNanos;
+
+    private final AtomicLong immediatePermits = new AtomicLong();
+    private final AtomicLong delayedPermits = new AtomicLong();
+    private final AtomicLong rejectedPermits = new AtomicLong();
+
+    /**
+     * @param permitsPerDay The number of requests the Steam key may send per day.
+     * @param capacity The maximum number of requests that can be sent in a burst.
+     * @param maxWaitMillis The longest a request may be delayed before it is rejected.
+     */
+    public SteamRateLimiter(long permitsPerDay, int capacity, long maxWaitMillis) {
+        this.permitsPerNano = permitsPerDay / (double) TimeUnit.DAYS.toNanos(1);
+        this.capacity = capacity;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Creates the rate limiter configured by the environment variables.
+     * @return Steam rate limiter.
+     */
+    public static SteamRateLimiter fromEnvironment() {
+        return new SteamRateLimiter(
+                getEnvOrDefault("STEAM_DAILY_QUOTA", 100_000),
+                (int) getEnvOrDefault("STEAM_RATE_LIMIT_BURST", 50),
+                getEnvOrDefault("STEAM_RATE_LIMIT_MAX_WAIT_MS", 2000));
+    }
+
+    /**
+     * Takes a token from the bucket, going into debt if the bucket is empty.
+     * @return Nanoseconds to wait before the request may be sent, or -1 if the request is rejected.
+     */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            immediatePermits.incrementAndGet();
+            return 0;
+        }
+
+        long waitNanos = (long) Math.ceil((1 - tokens) / permitsPerNano);
+        if (waitNanos > maxWaitNanos) {
+            rejectedPermits.incrementAndGet();
+            return -1;
+        }
+        tokens -= 1;
+        delayedPermits.incrementAndGet();
+        return waitNanos;
+    }
+
+    /**
+     * Gets the number of tokens left in the bucket. A negative value means that delayed requests already hold future tokens.
+     * @return Available tokens.
+     */
+    public synchronized double getAvailableTokens() {
+        return tokens;
+    }
+
+    public long getImmediatePermits() {
+        return immediatePermits.get();
+    }
+
+    public long getDelayedPermits() {
+        return delayedPermits.get();
+    }
+
+    public long getRejectedPermits() {
+        return rejectedPermits.get();
+    }
+
+    @Override
+    public String toString() {
+        return "{availableTokens=" + getAvailableTokens() +
+                ", immediatePermits=" + immediatePermits.get() +
+                ", delayedPermits=" + delayedPermits.get() +
+                ", rejectedPermits=" + rejectedPermits.get() + '}';
+    }
+
+    private static long getEnvOrDefault(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+}
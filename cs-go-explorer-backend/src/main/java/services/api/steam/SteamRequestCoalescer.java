@@ -0,0 +1,163 @@
+package services.api.steam;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.simple.parser.ParseException;
+
+/**
+ * Coalesces identical Steam Web API lookups that are in flight at the same time, e.g. several dashboard tabs opening the
+ * same profile. The first caller starts the upstream request and every concurrent caller with the same resource and
+ * query parameters waits for its result instead of sending its own request. Callers wait at most
+ * STEAM_COALESCE_MAX_WAIT_MS milliseconds, and the upstream request is cancelled once no caller waits for it anymore.
+ */
+public class SteamRequestCoalescer {
+
+    private static final long maxWaitMillis = getMaxWaitMillis();
+    private static final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "steam-single-flight");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicLong upstreamRequests = new AtomicLong();
+    private static final AtomicLong coalescedRequests = new AtomicLong();
+    private static final AtomicLong timeouts = new AtomicLong();
+    private static final AtomicLong cancellations = new AtomicLong();
+
+    /**
+     * Sends the request, or joins the identical request that is already in flight.
+     * @param resourceName The name of the resource.
+     * @param query The query parameters of the request.
+     * @param request Sends the request to the Steam Web API.
+     * @return Response shared by all coalesced callers.
+     */
+    public static SteamResponse execute(String resourceName, String query, SteamResponseCache.SteamRequest request) throws IOException, InterruptedException, ParseException {
+        String key = normalize(resourceName, query);
+        Flight newFlight = new Flight(key, request);
+        Flight flight = inFlight.compute(key, (flightKey, existingFlight) -> {
+            if (existingFlight == null || existingFlight.isDone())
+                return newFlight;
+
+            existingFlight.waiters++;
+            return existingFlight;
+        });
+
+        if (flight == newFlight) {
+            upstreamRequests.incrementAndGet();
+            executor.execute(flight);
+        } else {
+            coalescedRequests.incrementAndGet();
+        }
+
+        try {
+            return flight.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException error) {
+            timeouts.incrementAndGet();
+            leave(flight);
+            throw new IOException("Timed out waiting for the Steam API response of " + key, error);
+        } catch (InterruptedException error) {
+            leave(flight);
+            throw error;
+        } catch (CancellationException error) {
+            throw new IOException("The Steam API request " + key + " was cancelled", error);
+        } catch (ExecutionException error) {
+            Throwable cause = error.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof ParseException)
+                throw (ParseException) cause;
+            if (cause instanceof InterruptedException)
+                throw new IOException("The Steam API request " + key + " was interrupted", cause);
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    public static long getUpstreamRequests() {
+        return upstreamRequests.get();
+    }
+
+    /**
+     * Gets the number of upstream requests saved by joining an in-flight request.
+     * @return Number of coalesced requests.
+     */
+    public static long getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+
+    public static long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public static long getCancellations() {
+        return cancellations.get();
+    }
+
+    /**
+     * Stops waiting for the flight and cancels its upstream request if this was the last caller waiting for it.
+     * @param flight The flight the caller gives up on.
+     */
+    private static void leave(Flight flight) {
+        boolean[] isAbandoned = new boolean[1];
+        inFlight.compute(flight.key, (flightKey, existingFlight) -> {
+            if (--flight.waiters > 0)
+                return existingFlight;
+
+            isAbandoned[0] = true;
+            return existingFlight == flight ? null : existingFlight;
+        });
+
+        // Cancelled outside of compute, because the flight removes itself from the map once it is done
+        if (isAbandoned[0] && flight.cancel(true))
+            cancellations.incrementAndGet();
+    }
+
+    /**
+     * Builds the key of a request from the resource and its query parameters sorted by name.
+     * @param resourceName The name of the resource.
+     * @param query The query parameters of the request.
+     * @return Key of the request.
+     */
+    private static String normalize(String resourceName, String query) {
+        String[] parameters = query.trim().split("&");
+        Arrays.sort(parameters);
+        return resourceName + "?" + String.join("&", parameters);
+    }
+
+    private static long getMaxWaitMillis() {
+        String value = System.getenv("STEAM_COALESCE_MAX_WAIT_MS");
+        return value == null || value.isEmpty() ? 15000 : Long.parseLong(value);
+    }
+
+    /**
+     * An upstream request together with the number of callers waiting for it. The waiter count
+     * is only changed inside {@link ConcurrentHashMap#compute} of the flight's key.
+     */
+    private static class Flight extends FutureTask<SteamResponse> {
+        private final String key;
+        private int waiters = 1;
+
+        Flight(String key, SteamResponseCache.SteamRequest request) {
+            super(request::send);
+            this.key = key;
+        }
+
+        @Override
+        protected void done() {
+            inFlight.remove(key, this);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package services.api.steam;
+
+/**
+ * A response body prepared for the front-end, together with whether it may be cached. Only bodies built from a
+ * successful upstream response are cached, so that an error or a fallback is not served after the Steam API recovers.
+ */
+public final class SteamResponse {
+    private final String body;
+    private final boolean isCacheable;
+
+    /**
+     * @param body The response body, or null if there is none.
+     * @param isCacheable Whether the body was built from a 2xx upstream response.
+     */
+    public SteamResponse(String body, boolean isCacheable) {
+        this.body = body;
+        this.isCacheable = isCacheable;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public boolean isCacheable() {
+        return isCacheable && body != null;
+    }
+}
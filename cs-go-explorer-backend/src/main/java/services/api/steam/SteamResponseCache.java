@@ -0,0 +1,162 @@
+package services.api.steam;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.simple.parser.ParseException;
+
+import services.ClientRegistry;
+import services.cache.CacheEntry;
+import services.cache.CacheMetrics;
+import services.cache.CacheTier;
+import services.cache.DynamoDbCacheTier;
+import services.cache.LruCacheTier;
+
+/**
+ * Caches Steam Web API responses in front of the upstream calls. Lookups go through a size-bounded in-process tier
+ * and, when the STEAM_CACHE_TABLE_NAME environment variable is set, a DynamoDB tier shared by all Lambda containers.
+ * Every resource has its own time to live. Once it passes, the stale response is still served for another time to live
+ * while a single background request revalidates it. Only responses built from a 2xx upstream response are stored.
+ */
+public class SteamResponseCache {
+
+    private static final Map<String, Duration> timeToLive = Map.of(
+            "/GetPlayerSummaries", Duration.ofSeconds(60),
+            "/GetFriendList", Duration.ofMinutes(2),
+            "/GetUserStatsForGame", Duration.ofMinutes(5),
+            "/GetNewsForApp", Duration.ofMinutes(10));
+
+    private static final CacheMetrics metrics = new CacheMetrics();
+    private static final List<CacheTier<String>> tiers = createTiers();
+    private static final Set<String> revalidatingKeys = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService revalidationExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "steam-cache-revalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Sends a request to the Steam Web API and returns the response body.
+     */
+    @FunctionalInterface
+    public interface SteamRequest {
+        SteamResponse send() throws IOException, InterruptedException, ParseException;
+    }
+
+    /**
+     * Gets the response of the resource from the cache or sends the request and caches its response.
+     * @param resourceName The name of the resource.
+     * @param query The query parameters that identify the response, e.g. steamid=76561197960435530.
+     * @param request Sends the request to the Steam Web API. A response that is not cacheable is only returned.
+     * @return Response body.
+     */
+    public static String get(String resourceName, String query, SteamRequest request) throws IOException, InterruptedException, ParseException {
+        Duration resourceTimeToLive = timeToLive.get(resourceName);
+        if (resourceTimeToLive == null)
+            return request.send().getBody();
+
+        String key = resourceName + "?" + query;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < tiers.size(); i++) {
+            CacheEntry<String> entry = tiers.get(i).get(key);
+            if (entry == null || entry.isExpired(now))
+                continue;
+
+            // Promote the entry to the faster tiers
+            for (int j = 0; j < i; j++)
+                tiers.get(j).put(key, entry);
+
+            if (entry.isFresh(now)) {
+                metrics.recordHit();
+            } else {
+                metrics.recordStaleHit();
+                revalidate(key, resourceTimeToLive, request);
+            }
+            return entry.getValue();
+        }
+
+        metrics.recordMiss();
+        SteamResponse response = request.send();
+        store(key, resourceTimeToLive, response);
+        return response.getBody();
+    }
+
+    /**
+     * Removes the cached response of the resource from every tier.
+     * @param resourceName The name of the resource.
+     * @param query The query parameters that identify the response.
+     */
+    public static void invalidate(String resourceName, String query) {
+        for (CacheTier<String> tier : tiers)
+            tier.invalidate(resourceName + "?" + query);
+    }
+
+    /**
+     * Gets the last known response of the resource, even if it has expired, to serve while the Steam Web API is unavailable.
+     * @param resourceName The name of the resource.
+     * @param query The query parameters that identify the response.
+     * @return Last known response body or null if none is cached.
+     */
+    public static String getLastKnown(String resourceName, String query) {
+        String key = resourceName + "?" + query;
+        for (CacheTier<String> tier : tiers) {
+            CacheEntry<String> entry = tier.get(key);
+            if (entry != null)
+                return entry.getValue();
+        }
+        return null;
+    }
+
+    public static CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Refreshes a stale entry in the background, unless a refresh of the same key is already running.
+     */
+    private static void revalidate(String key, Duration resourceTimeToLive, SteamRequest request) {
+        if (!revalidatingKeys.add(key))
+            return;
+
+        revalidationExecutor.execute(() -> {
+            try {
+                store(key, resourceTimeToLive, request.send());
+            } catch (IOException | ParseException error) {
+                error.printStackTrace();
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+            } finally {
+                revalidatingKeys.remove(key);
+            }
+        });
+    }
+
+    private static void store(String key, Duration resourceTimeToLive, SteamResponse response) {
+        if (!response.isCacheable())
+            return;
+
+        long now = System.currentTimeMillis();
+        long ttlMillis = resourceTimeToLive.toMillis();
+        CacheEntry<String> entry = new CacheEntry<>(response.getBody(), now + ttlMillis, now + 2 * ttlMillis);
+        for (CacheTier<String> tier : tiers)
+            tier.put(key, entry);
+    }
+
+    private static List<CacheTier<String>> createTiers() {
+        List<CacheTier<String>> cacheTiers = new ArrayList<>();
+        String maxEntries = System.getenv("STEAM_CACHE_MAX_ENTRIES");
+        cacheTiers.add(new LruCacheTier<>(maxEntries == null ? 1000 : Integer.parseInt(maxEntries), metrics));
+
+        String tableName = System.getenv("STEAM_CACHE_TABLE_NAME");
+        if (tableName != null && !tableName.isEmpty())
+            cacheTiers.add(new DynamoDbCacheTier(ClientRegistry::dynamoDb, tableName));
+        return cacheTiers;
+    }
+}
@@ -16,20 +16,20 @@ public class BotAlias {
      * Creates an alias for the specified version of a bot. Use an alias to enable you to change
      * the version of a bot without updating applications that use the bot.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot.
      * @param lambdaArn The Amazon Resource Name (ARN) of the Lambda function.
      * @param localeId The identifier of the language and locale that the bot will be used in.
      *                 The string must match one of the supported locales.
      *                 All the intents, slot types, and slots used in the bot must have the same locale.
-     * @param createBotVersionResponse The response object contains the metadata of the created bot version.
+     * @param botVersion The version of the bot that the alias points to.
      * @param botAliasName The alias to create. The name must be unique for the bot.
      * @return The response object contains the metadata of the created bot alias.
      */
     public static CreateBotAliasResponse createBotAlias(LexModelsV2Client lexModelsV2Client,
-                                                        CreateBotResponse createBotResponse,
+                                                        String botId,
                                                         String lambdaArn,
                                                         String localeId,
-                                                        CreateBotVersionResponse createBotVersionResponse,
+                                                        String botVersion,
                                                         String botAliasName) {
         Map<String, BotAliasLocaleSettings> botAliasLocaleSettingsMap = new HashMap<>();
 
@@ -55,9 +55,9 @@ public class BotAlias {
         CreateBotAliasRequest createBotAliasRequest = CreateBotAliasRequest
                 .builder()
                 .botAliasLocaleSettings(botAliasLocaleSettingsMap)
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .botAliasName(botAliasName)
-                .botVersion(createBotVersionResponse.botVersion())
+                .botVersion(botVersion)
                 .description("CS:GO Explorer bot alias")
                 .build();
 
@@ -78,7 +78,7 @@ public class BotAlias {
     /**
      * Updates the configuration of an existing bot alias.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot.
      * @param lambdaArn The Amazon Resource Name (ARN) of the Lambda function.
      * @param localeId The identifier of the language and locale that the bot will be used in.
      *                 The string must match one of the supported locales.
@@ -86,15 +86,17 @@ public class BotAlias {
      * @param botVersion The new bot version to assign to the bot alias.
      * @param botAliasId The unique identifier of the bot alias.
      * @param botAliasName The new name to assign to the bot alias.
+     * @param botAliasDescription The new description to assign to the bot alias.
      * @return The response object contains the metadata of the updated bot alias.
      */
     public static UpdateBotAliasResponse updateBotAlias(LexModelsV2Client lexModelsV2Client,
-                                                        CreateBotResponse createBotResponse,
+                                                        String botId,
                                                         String lambdaArn,
                                                         String localeId,
                                                         String botVersion,
                                                         String botAliasId,
-                                                        String botAliasName) {
+                                                        String botAliasName,
+                                                        String botAliasDescription) {
         Map<String, BotAliasLocaleSettings> botAliasLocaleSettingsMap = new HashMap<>();
 
         LambdaCodeHook lambdaCodeHook = LambdaCodeHook
@@ -119,11 +121,11 @@ public class BotAlias {
         UpdateBotAliasRequest updateBotAliasRequest = UpdateBotAliasRequest
                 .builder()
                 .botAliasLocaleSettings(botAliasLocaleSettingsMap)
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .botAliasId(botAliasId)
                 .botAliasName(botAliasName)
                 .botVersion(botVersion)
-                .description("test bot alias")
+                .description(botAliasDescription)
                 .build();
 
         UpdateBotAliasResponse updateBotAliasResponse = lexModelsV2Client.updateBotAlias(updateBotAliasRequest);
@@ -139,4 +141,29 @@ public class BotAlias {
 
         return updateBotAliasResponse;
     }
-}
\ No newline at end of file
+
+    /**
+     * Finds an alias of the bot by its name.
+     * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
+     * @param botId The identifier of the bot.
+     * @param botAliasName The name of the alias.
+     * @return The unique identifier of the bot alias, or null if the bot has no alias with the name.
+     */
+    public static String findBotAliasId(LexModelsV2Client lexModelsV2Client, String botId, String botAliasName) {
+        String nextToken = null;
+        do {
+            ListBotAliasesRequest listBotAliasesRequest = ListBotAliasesRequest
+                    .builder()
+                    .botId(botId)
+                    .nextToken(nextToken)
+                    .build();
+
+            ListBotAliasesResponse listBotAliasesResponse = lexModelsV2Client.listBotAliases(listBotAliasesRequest);
+            for (BotAliasSummary botAliasSummary : listBotAliasesResponse.botAliasSummaries())
+                if (botAliasSummary.botAliasName().equals(botAliasName))
+                    return botAliasSummary.botAliasId();
+            nextToken = listBotAliasesResponse.nextToken();
+        } while (nextToken != null);
+        return null;
+    }
+}
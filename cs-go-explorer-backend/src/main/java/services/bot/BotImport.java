@@ -0,0 +1,273 @@
+package services.bot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import software.amazon.awssdk.core.waiters.WaiterResponse;
+import software.amazon.awssdk.services.lexmodelsv2.LexModelsV2Client;
+import software.amazon.awssdk.services.lexmodelsv2.model.*;
+
+/**
+ * Creates a bot from its definition in a single import. The definition is packaged in the Lex V2 import format, a zip
+ * archive with one JSON file for the bot, its locale, and each intent, slot, and slot type, and the archive is
+ * imported with StartImport.
+ * Import file format: https://docs.aws.amazon.com/lexv2/latest/dg/import-export-format.html
+ */
+public class BotImport {
+
+    private static final long importTimeoutMillis = 300000;
+
+    /**
+     * Imports the bot. A bot with the same name is overwritten, so the import can be repeated.
+     * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
+     * @param botSpec The definition of the bot.
+     * @param roleArn The Amazon Resource Name (ARN) of an IAM role that has permission to access the bot.
+     * @param botName The name of the bot.
+     * @param botDescription The description of the bot.
+     * @return The identifier of the imported bot.
+     */
+    public static String importBot(LexModelsV2Client lexModelsV2Client,
+                                   BotSpec botSpec,
+                                   String roleArn,
+                                   String botName,
+                                   String botDescription) throws IOException, InterruptedException {
+        byte[] importArchive = createImportArchive(botSpec, botName, botDescription);
+
+        // Upload the archive to the URL that Lex provides for the import
+        CreateUploadUrlResponse createUploadUrlResponse = lexModelsV2Client.createUploadUrl(CreateUploadUrlRequest.builder().build());
+        HttpRequest uploadRequest = HttpRequest
+                .newBuilder(URI.create(createUploadUrlResponse.uploadUrl()))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(importArchive))
+                .build();
+
+        HttpResponse<String> uploadResponse = HttpClient.newHttpClient().send(uploadRequest, HttpResponse.BodyHandlers.ofString());
+        if (uploadResponse.statusCode() != 200)
+            throw new IOException("The bot definition could not be uploaded: " + uploadResponse.statusCode() + " " + uploadResponse.body());
+
+        DataPrivacy dataPrivacy = DataPrivacy
+                .builder()
+                .childDirected(false)
+                .build();
+
+        BotImportSpecification botImportSpecification = BotImportSpecification
+                .builder()
+                .botName(botName)
+                .roleArn(roleArn)
+                .dataPrivacy(dataPrivacy)
+                .idleSessionTTLInSeconds(botSpec.idleSessionTTLInSeconds)
+                .build();
+
+        StartImportRequest startImportRequest = StartImportRequest
+                .builder()
+                .importId(createUploadUrlResponse.importId())
+                .resourceSpecification(ImportResourceSpecification.builder().botImportSpecification(botImportSpecification).build())
+                .mergeStrategy(MergeStrategy.OVERWRITE)
+                .build();
+
+        StartImportResponse startImportResponse = lexModelsV2Client.startImport(startImportRequest);
+        DescribeImportResponse describeImportResponse = waitUntilImported(lexModelsV2Client, startImportResponse.importId());
+
+        DescribeBotRequest describeBotRequest = DescribeBotRequest
+                .builder()
+                .botId(describeImportResponse.importedResourceId())
+                .build();
+
+        WaiterResponse<DescribeBotResponse> waitUntilBotAvailable = lexModelsV2Client.waiter().waitUntilBotAvailable(describeBotRequest);
+        waitUntilBotAvailable.matched().response().ifPresent(System.out::println);
+
+        return describeImportResponse.importedResourceId();
+    }
+
+    /**
+     * Polls the import until it is completed.
+     * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
+     * @param importId The identifier of the import.
+     * @return The description of the completed import.
+     */
+    private static DescribeImportResponse waitUntilImported(LexModelsV2Client lexModelsV2Client, String importId) throws IOException, InterruptedException {
+        DescribeImportRequest describeImportRequest = DescribeImportRequest
+                .builder()
+                .importId(importId)
+                .build();
+
+        long deadline = System.currentTimeMillis() + importTimeoutMillis;
+        DescribeImportResponse describeImportResponse = lexModelsV2Client.describeImport(describeImportRequest);
+        while (describeImportResponse.importStatus() == ImportStatus.IN_PROGRESS) {
+            if (System.currentTimeMillis() >= deadline)
+                throw new IOException("The import " + importId + " did not complete within " + importTimeoutMillis + " ms");
+            Thread.sleep(2000);
+            describeImportResponse = lexModelsV2Client.describeImport(describeImportRequest);
+        }
+
+        if (describeImportResponse.importStatus() != ImportStatus.COMPLETED)
+            throw new IOException("The import " + importId + " is " + describeImportResponse.importStatusAsString() + ": " + describeImportResponse.failureReasons());
+        return describeImportResponse;
+    }
+
+    /**
+     * Packages the definition of the bot in the Lex V2 import format.
+     * @param botSpec The definition of the bot.
+     * @param botName The name of the bot.
+     * @param botDescription The description of the bot.
+     * @return Zip archive.
+     */
+    static byte[] createImportArchive(BotSpec botSpec, String botName, String botDescription) throws IOException {
+        ByteArrayOutputStream importArchive = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(importArchive)) {
+            JSONObject metadata = new JSONObject();
+            metadata.put("schemaVersion", "1");
+            metadata.put("fileFormat", "LexJson");
+            metadata.put("resourceType", "Bot");
+            JSONObject manifest = new JSONObject();
+            manifest.put("metadata", metadata);
+            addFile(zipOutputStream, "Manifest.json", manifest);
+
+            JSONObject dataPrivacy = new JSONObject();
+            dataPrivacy.put("childDirected", false);
+            JSONObject bot = new JSONObject();
+            bot.put("name", botName);
+            bot.put("version", "DRAFT");
+            bot.put("description", botDescription);
+            bot.put("dataPrivacy", dataPrivacy);
+            bot.put("idleSessionTTLInSeconds", botSpec.idleSessionTTLInSeconds);
+            addFile(zipOutputStream, botName + "/Bot.json", bot);
+
+            String localePath = botName + "/BotLocales/" + botSpec.localeId;
+            JSONObject voiceSettings = new JSONObject();
+            voiceSettings.put("voiceId", botSpec.voiceId);
+            voiceSettings.put("engine", "standard");
+            JSONObject botLocale = new JSONObject();
+            botLocale.put("name", Locale.forLanguageTag(botSpec.localeId.replace('_', '-')).getDisplayName(Locale.US));
+            botLocale.put("identifier", botSpec.localeId);
+            botLocale.put("voiceSettings", voiceSettings);
+            botLocale.put("nluConfidenceThreshold", botSpec.nluIntentConfidenceThreshold);
+            addFile(zipOutputStream, localePath + "/BotLocale.json", botLocale);
+
+            for (BotSpec.SlotTypeSpec slotTypeSpec : botSpec.slotTypes)
+                addFile(zipOutputStream, localePath + "/SlotTypes/" + slotTypeSpec.name + "/SlotType.json", slotType(slotTypeSpec));
+
+            for (BotSpec.IntentSpec intentSpec : botSpec.intents) {
+                String intentPath = localePath + "/Intents/" + intentSpec.name;
+                addFile(zipOutputStream, intentPath + "/Intent.json", intent(intentSpec));
+                for (BotSpec.SlotSpec slotSpec : intentSpec.slots)
+                    addFile(zipOutputStream, intentPath + "/Slots/" + slotSpec.name + "/Slot.json", slot(slotSpec));
+            }
+        }
+        return importArchive.toByteArray();
+    }
+
+    private static JSONObject slotType(BotSpec.SlotTypeSpec slotTypeSpec) {
+        JSONArray slotTypeValues = new JSONArray();
+        for (String value : slotTypeSpec.values) {
+            JSONObject sampleValue = new JSONObject();
+            sampleValue.put("value", value);
+            JSONObject slotTypeValue = new JSONObject();
+            slotTypeValue.put("sampleValue", sampleValue);
+            slotTypeValues.add(slotTypeValue);
+        }
+
+        JSONObject valueSelectionSetting = new JSONObject();
+        valueSelectionSetting.put("resolutionStrategy", SlotValueResolutionStrategy.ORIGINAL_VALUE.toString());
+
+        JSONObject slotType = new JSONObject();
+        slotType.put("name", slotTypeSpec.name);
+        slotType.put("description", slotTypeSpec.description);
+        slotType.put("slotTypeValues", slotTypeValues);
+        slotType.put("valueSelectionSetting", valueSelectionSetting);
+        return slotType;
+    }
+
+    private static JSONObject intent(BotSpec.IntentSpec intentSpec) {
+        JSONArray sampleUtterances = new JSONArray();
+        for (String utterance : intentSpec.utterances) {
+            JSONObject sampleUtterance = new JSONObject();
+            sampleUtterance.put("utterance", utterance);
+            sampleUtterances.add(sampleUtterance);
+        }
+
+        // Slots are elicited in the order they are defined
+        JSONArray slotPriorities = new JSONArray();
+        for (BotSpec.SlotSpec slotSpec : intentSpec.slots) {
+            JSONObject slotPriority = new JSONObject();
+            slotPriority.put("priority", slotPriorities.size() + 1);
+            slotPriority.put("slotName", slotSpec.name);
+            slotPriorities.add(slotPriority);
+        }
+
+        JSONObject intent = new JSONObject();
+        intent.put("name", intentSpec.name);
+        intent.put("description", intentSpec.description);
+        intent.put("sampleUtterances", sampleUtterances);
+        intent.put("slotPriorities", slotPriorities);
+        if (intentSpec.isFulfillmentCodeHook) {
+            JSONObject fulfillmentCodeHook = new JSONObject();
+            fulfillmentCodeHook.put("enabled", true);
+            fulfillmentCodeHook.put("active", true);
+            intent.put("fulfillmentCodeHook", fulfillmentCodeHook);
+        }
+        if (intentSpec.isDialogCodeHook) {
+            JSONObject dialogCodeHook = new JSONObject();
+            dialogCodeHook.put("enabled", true);
+            intent.put("dialogCodeHook", dialogCodeHook);
+        }
+        return intent;
+    }
+
+    private static JSONObject slot(BotSpec.SlotSpec slotSpec) {
+        JSONObject message = new JSONObject();
+        if (slotSpec.buttons.isEmpty()) {
+            JSONObject plainTextMessage = new JSONObject();
+            plainTextMessage.put("value", slotSpec.prompt);
+            message.put("plainTextMessage", plainTextMessage);
+        } else {
+            JSONArray buttons = new JSONArray();
+            for (String buttonName : slotSpec.buttons) {
+                JSONObject button = new JSONObject();
+                button.put("text", buttonName);
+                button.put("value", buttonName);
+                buttons.add(button);
+            }
+            JSONObject imageResponseCard = new JSONObject();
+            imageResponseCard.put("title", slotSpec.prompt);
+            imageResponseCard.put("buttons", buttons);
+            message.put("imageResponseCard", imageResponseCard);
+        }
+
+        JSONObject messageGroup = new JSONObject();
+        messageGroup.put("message", message);
+        JSONArray messageGroupsList = new JSONArray();
+        messageGroupsList.add(messageGroup);
+
+        JSONObject promptSpecification = new JSONObject();
+        promptSpecification.put("messageGroupsList", messageGroupsList);
+        promptSpecification.put("maxRetries", 2);
+
+        JSONObject valueElicitationSetting = new JSONObject();
+        valueElicitationSetting.put("slotConstraint", "Required");
+        valueElicitationSetting.put("promptSpecification", promptSpecification);
+
+        JSONObject slot = new JSONObject();
+        slot.put("name", slotSpec.name);
+        slot.put("description", slotSpec.description);
+        slot.put("slotTypeName", slotSpec.slotType);
+        slot.put("valueElicitationSetting", valueElicitationSetting);
+        return slot;
+    }
+
+    private static void addFile(ZipOutputStream zipOutputStream, String path, JSONObject content) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(path));
+        zipOutputStream.write(content.toJSONString().getBytes(StandardCharsets.UTF_8));
+        zipOutputStream.closeEntry();
+    }
+}
@@ -7,14 +7,16 @@ import software.amazon.awssdk.services.lexmodelsv2.model.*;
 /**
  * The locale contains the intents and slot types that the bot uses in
  * conversations with users in the specified language and locale.
- * You can create and build a locale.
+ * You can create, build, and delete a locale.
  */
 public class BotLocale {
 
+    private static final long localeDeletedTimeoutMillis = 300000;
+
     /**
      * Creates a locale for the bot.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot.
      * @param localeId The identifier of the language and locale that the bot will be used in.
      *                 The string must match one of the supported locales.
      *                 All the intents, slot types, and slots used in the bot must have the same locale.
@@ -23,7 +25,7 @@ public class BotLocale {
      * @return The response object contains the metadata of the created bot locale.
      */
     public static CreateBotLocaleResponse createBotLocale(LexModelsV2Client lexModelsV2Client,
-                                                          CreateBotResponse createBotResponse,
+                                                          String botId,
                                                           String localeId,
                                                           String botVersion,
                                                           String voiceId) {
@@ -35,7 +37,7 @@ public class BotLocale {
 
         CreateBotLocaleRequest createBotLocaleRequest = CreateBotLocaleRequest
                 .builder()
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .botVersion(botVersion)
                 .localeId(localeId)
                 .voiceSettings(voiceSettings)
@@ -62,7 +64,7 @@ public class BotLocale {
      * A bot can be built into multiple locales.
      * At runtime the locale is used to choose a specific build of the bot.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot to build.
      * @param localeId The identifier of the language and locale that the bot will be used in.
      *                 The string must match one of the supported locales.
      *                 All the intents, slot types, and slots used in the bot must have the same locale.
@@ -70,12 +72,12 @@ public class BotLocale {
      * @return The response object contains the metadata of the build bot locale.
      */
     public static BuildBotLocaleResponse buildBotLocale(LexModelsV2Client lexModelsV2Client,
-                                                        CreateBotResponse createBotResponse,
+                                                        String botId,
                                                         String localeId,
                                                         String botVersion) {
         BuildBotLocaleRequest buildBotLocaleRequest = BuildBotLocaleRequest
                 .builder()
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .botVersion(botVersion)
                 .localeId(localeId)
                 .build();
@@ -94,4 +96,44 @@ public class BotLocale {
 
         return buildBotLocaleResponse;
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes a locale of the bot with its intents, slots, and slot types, and waits until it is gone.
+     * A locale that does not exist is ignored.
+     * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
+     * @param botId The identifier of the bot.
+     * @param localeId The identifier of the language and locale to delete.
+     * @param botVersion The version of the bot. This is only the DRAFT version of the bot.
+     */
+    public static void deleteBotLocale(LexModelsV2Client lexModelsV2Client,
+                                       String botId,
+                                       String localeId,
+                                       String botVersion) throws InterruptedException {
+        DescribeBotLocaleRequest describeBotLocaleRequest = DescribeBotLocaleRequest
+                .builder()
+                .botId(botId)
+                .botVersion(botVersion)
+                .localeId(localeId)
+                .build();
+
+        DeleteBotLocaleRequest deleteBotLocaleRequest = DeleteBotLocaleRequest
+                .builder()
+                .botId(botId)
+                .botVersion(botVersion)
+                .localeId(localeId)
+                .build();
+
+        try {
+            lexModelsV2Client.deleteBotLocale(deleteBotLocaleRequest);
+            long deadline = System.currentTimeMillis() + localeDeletedTimeoutMillis;
+            while (true) {
+                DescribeBotLocaleResponse describeBotLocaleResponse = lexModelsV2Client.describeBotLocale(describeBotLocaleRequest);
+                if (System.currentTimeMillis() >= deadline)
+                    throw LexModelsV2Exception.builder().message("The locale " + localeId + " of the bot " + botId + " is still " + describeBotLocaleResponse.botLocaleStatusAsString() + " after " + localeDeletedTimeoutMillis + " ms").build();
+                Thread.sleep(2000);
+            }
+        } catch (ResourceNotFoundException error) {
+            // The locale does not exist, or its deletion completed
+        }
+    }
+}
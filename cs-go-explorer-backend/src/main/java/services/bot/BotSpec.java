@@ -0,0 +1,136 @@
+package services.bot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Definition of the bot as data: its locale, custom slot types, and intents with their sample utterances and slots.
+ * The definition is read from a versioned JSON file in the resources, e.g. /bot/cs-go-explorer-bot.json, so that
+ * changing the conversation does not require changing code.
+ */
+public final class BotSpec {
+    final long specVersion;
+    final String localeId;
+    final String voiceId;
+    final double nluIntentConfidenceThreshold;
+    final int idleSessionTTLInSeconds;
+    final List<SlotTypeSpec> slotTypes;
+    final List<IntentSpec> intents;
+
+    private BotSpec(JSONObject spec) {
+        specVersion = (Long) spec.get("specVersion");
+        localeId = (String) spec.get("localeId");
+        voiceId = (String) spec.get("voiceId");
+        nluIntentConfidenceThreshold = ((Number) spec.get("nluIntentConfidenceThreshold")).doubleValue();
+        idleSessionTTLInSeconds = ((Number) spec.get("idleSessionTTLInSeconds")).intValue();
+
+        slotTypes = new ArrayList<>();
+        for (Object slotType : (JSONArray) spec.get("slotTypes"))
+            slotTypes.add(new SlotTypeSpec((JSONObject) slotType));
+
+        intents = new ArrayList<>();
+        for (Object intent : (JSONArray) spec.get("intents"))
+            intents.add(new IntentSpec((JSONObject) intent));
+    }
+
+    /**
+     * Reads the definition of the bot from the resources.
+     * @param resourceName The name of the resource, e.g. /bot/cs-go-explorer-bot.json.
+     * @return Definition of the bot.
+     */
+    public static BotSpec read(String resourceName) throws IOException, ParseException {
+        InputStream inputStream = BotSpec.class.getResourceAsStream(resourceName);
+        if (inputStream == null)
+            throw new IOException("The bot definition " + resourceName + " does not exist");
+
+        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            return new BotSpec((JSONObject) new JSONParser().parse(bufferedReader));
+        }
+    }
+
+    public long getSpecVersion() {
+        return specVersion;
+    }
+
+    /**
+     * A custom slot type and the values a slot of the type can take.
+     */
+    static final class SlotTypeSpec {
+        final String name;
+        final String description;
+        final List<String> values;
+
+        private SlotTypeSpec(JSONObject slotType) {
+            name = (String) slotType.get("name");
+            description = (String) slotType.get("description");
+            values = strings(slotType.get("values"));
+        }
+    }
+
+    /**
+     * An intent with its sample utterances, code hooks, and slots in the order they are elicited.
+     */
+    static final class IntentSpec {
+        final String name;
+        final String description;
+        final List<String> utterances;
+        final boolean isFulfillmentCodeHook;
+        final boolean isDialogCodeHook;
+        final List<SlotSpec> slots;
+
+        private IntentSpec(JSONObject intent) {
+            name = (String) intent.get("name");
+            description = (String) intent.get("description");
+            utterances = strings(intent.get("utterances"));
+            isFulfillmentCodeHook = Boolean.TRUE.equals(intent.get("fulfillmentCodeHook"));
+            isDialogCodeHook = Boolean.TRUE.equals(intent.get("dialogCodeHook"));
+
+            slots = new ArrayList<>();
+            if (intent.get("slots") != null)
+                for (Object slot : (JSONArray) intent.get("slots"))
+                    slots.add(new SlotSpec((JSONObject) slot));
+        }
+    }
+
+    /**
+     * A required slot of an intent. A slot with buttons is elicited with an image response card whose title is the
+     * prompt, otherwise with a plain text message.
+     */
+    static final class SlotSpec {
+        final String name;
+        final String description;
+        final String slotType;
+        final String prompt;
+        final List<String> buttons;
+
+        private SlotSpec(JSONObject slot) {
+            name = (String) slot.get("name");
+            description = (String) slot.get("description");
+            slotType = (String) slot.get("slotType");
+            prompt = (String) slot.get("prompt");
+            buttons = strings(slot.get("buttons"));
+        }
+
+        boolean isBuiltInSlotType() {
+            return slotType.startsWith("AMAZON.");
+        }
+    }
+
+    private static List<String> strings(Object array) {
+        List<String> strings = new ArrayList<>();
+        if (array != null)
+            for (Object value : (JSONArray) array)
+                strings.add((String) value);
+        return strings;
+    }
+}
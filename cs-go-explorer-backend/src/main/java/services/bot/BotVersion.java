@@ -20,7 +20,7 @@ public class BotVersion {
      * resource hasn't changed since you created the last version, Amazon Lex doesn't create
      * a new version, it returns the last created version.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot to create the version for.
      * @param localeId The identifier of the language and locale that the bot will be used in.
      *                 The string must match one of the supported locales.
      *                 All the intents, slot types, and slots used in the bot must have the same locale.
@@ -28,7 +28,7 @@ public class BotVersion {
      * @return The response object contains the metadata of the created bot version.
      */
     public static CreateBotVersionResponse createBotVersion(LexModelsV2Client lexModelsV2Client,
-                                                            CreateBotResponse createBotResponse,
+                                                            String botId,
                                                             String localeId,
                                                             String botVersion) {
         Map<String, BotVersionLocaleDetails> botVersionLocaleDetailsMap = new HashMap<>();
@@ -42,7 +42,7 @@ public class BotVersion {
 
         CreateBotVersionRequest createBotVersionRequest = CreateBotVersionRequest
                 .builder()
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .botVersionLocaleSpecification(botVersionLocaleDetailsMap)
                 .description("Release version")
                 .build();
@@ -14,7 +14,7 @@ public class Intent {
     /**
      * To define the interaction between the user and the bot, you define one or more intents.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot.
      * @param localeId The locale that the intent is specified to use.
      * @param botVersion The version of the bot associated with the intent.
      * @param intentName The name specified for the intent.
@@ -25,7 +25,7 @@ public class Intent {
      * @return The response object contains the metadata of the created intent.
      */
     public static CreateIntentResponse createIntent(LexModelsV2Client lexModelsV2Client,
-                                                    CreateBotResponse createBotResponse,
+                                                    String botId,
                                                     String localeId,
                                                     String botVersion,
                                                     String intentName,
@@ -44,7 +44,7 @@ public class Intent {
 
             createIntentRequest = CreateIntentRequest
                     .builder()
-                    .botId(createBotResponse.botId())
+                    .botId(botId)
                     .botVersion(botVersion)
                     .localeId(localeId)
                     .intentName(intentName)
@@ -60,7 +60,7 @@ public class Intent {
 
             createIntentRequest = CreateIntentRequest
                     .builder()
-                    .botId(createBotResponse.botId())
+                    .botId(botId)
                     .botVersion(botVersion)
                     .localeId(localeId)
                     .intentName(intentName)
@@ -82,7 +82,7 @@ public class Intent {
 
             createIntentRequest = CreateIntentRequest
                     .builder()
-                    .botId(createBotResponse.botId())
+                    .botId(botId)
                     .botVersion(botVersion)
                     .localeId(localeId)
                     .intentName(intentName)
@@ -95,7 +95,7 @@ public class Intent {
         else {
             createIntentRequest = CreateIntentRequest
                     .builder()
-                    .botId(createBotResponse.botId())
+                    .botId(botId)
                     .botVersion(botVersion)
                     .localeId(localeId)
                     .intentName(intentName)
@@ -109,7 +109,7 @@ public class Intent {
     /**
      * Updates the settings for an intent.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot.
      * @param createIntentResponse The response object contains the metadata of already created intent.
      * @param intentSlotResponsesList List of responses containing metadata of already created slots.
      * @param intentSlotPrioritiesList List of slot priorities.
@@ -124,7 +124,7 @@ public class Intent {
      * @return The response object contains the metadata of the updated intent.
      */
     public static UpdateIntentResponse updateIntent(LexModelsV2Client lexModelsV2Client,
-                                                    CreateBotResponse createBotResponse,
+                                                    String botId,
                                                     CreateIntentResponse createIntentResponse,
                                                     List<CreateSlotResponse> intentSlotResponsesList,
                                                     List<Integer> intentSlotPrioritiesList,
@@ -146,7 +146,7 @@ public class Intent {
 
             updateIntentRequest = UpdateIntentRequest
                     .builder()
-                    .botId(createBotResponse.botId())
+                    .botId(botId)
                     .botVersion(botVersion)
                     .localeId(localeId)
                     .intentId(createIntentResponse.intentId())
@@ -164,7 +164,7 @@ public class Intent {
 
             updateIntentRequest = UpdateIntentRequest
                     .builder()
-                    .botId(createBotResponse.botId())
+                    .botId(botId)
                     .botVersion(botVersion)
                     .localeId(localeId)
                     .intentId(createIntentResponse.intentId())
@@ -188,7 +188,7 @@ public class Intent {
 
             updateIntentRequest = UpdateIntentRequest
                     .builder()
-                    .botId(createBotResponse.botId())
+                    .botId(botId)
                     .botVersion(botVersion)
                     .localeId(localeId)
                     .intentId(createIntentResponse.intentId())
@@ -1,8 +1,17 @@
 package services.bot;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.json.simple.parser.ParseException;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
@@ -19,10 +28,9 @@ public class Lex {
 
     private static final String botVersion = "DRAFT";
     private static final String botAliasName = "CsGoExplorerBotAlias";
-    private static final String localeId = "en_US";
-    private static final String voiceId = "Salli";
     private static final String testBotAliasId = "TSTALIASID";
     private static final String testBotAliasName = "TestBotAlias";
+    public static final String botSpecResource = "/bot/cs-go-explorer-bot.json";
 
     /**
      * Authenticate to the Lex v2 client using the AWS user's credentials.
@@ -39,6 +47,8 @@ public class Lex {
 
     /**
      * Configure the Lex bot creating a DRAFT version for testing and the release version that is used in the application.
+     * The bot is created from its definition in the resources with a single import. If the import fails, the bot is
+     * created with a request for each intent, slot, and slot type instead, with independent intents created concurrently.
      * @param lexModelsV2Client Service client for accessing Lex Models V2.
      * @param lexRoleArn Service-linked role (ARN) for the Lex bot.
      * @param lambdaArn Lambda ARN defines a function hook that will be called during the conversation.
@@ -49,415 +59,203 @@ public class Lex {
                                           String lexRoleArn,
                                           String lambdaArn,
                                           String botName,
-                                          String botDescription) {
-        // Create bot
-        CreateBotResponse createBotResponse = createLexV2Bot(
-                lexModelsV2Client,
-                lexRoleArn,
-                botName,
-                botDescription
-        );
-
-        // Create bot locale
-        CreateBotLocaleResponse createBotLocaleResponse = BotLocale.createBotLocale(
-                lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion,
-                voiceId
-        );
-
-        // Create "Greeting" intent
-        CreateIntentResponse greetingIntentResponse = Intent.createIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion,
-                "Greeting",
-                "Bot greeting",
-                Utterance.getGreetingIntentSampleUtterances(),
-                true,
-                false
-        );
-
-        // Create "GetStudent" intent
-        CreateIntentResponse getStudentIntentResponse = Intent.createIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion,
-                "GetStudent",
-                "GET student data",
-                Utterance.getGetStudentIntentSampleUtterances(),
-                true,
-                false
-        );
-
-        // Create "StudentId" slot of "GetStudent" intent
-        CreateSlotResponse getStudentIntentStudentIdSlotResponse = Slot.createSlotWithPlainTextMessage(lexModelsV2Client,
-                createBotResponse,
-                getStudentIntentResponse,
-                localeId,
-                botVersion,
-                "StudentId",
-                "StudentId slot is required to search for and retrieve student data.",
-                "Please enter a student ID to search.",
-                "AMAZON.Number"
-        );
-
-        // Prioritize the slots of "GetStudent" intent in the order they created
-        List<CreateSlotResponse> updateGetStudentIntentSlotResponsesList = new ArrayList<>();
-        updateGetStudentIntentSlotResponsesList.add(getStudentIntentStudentIdSlotResponse);
-        List<Integer> updateGetStudentIntentSlotPrioritiesList = new ArrayList<>();
-        updateGetStudentIntentSlotPrioritiesList.add(0);
-
-        // GetStudent intent should be updated because the slotPriorities method is missing at CreateIntentRequest in the AWS Java SDK.
-        // I assume that adding this method was forgotten by the developers.
-        // Intent file structure: https://docs.aws.amazon.com/lexv2/latest/dg/import-export-format.html#json-intent
-        UpdateIntentResponse updateGetStudentIntentResponse = Intent.updateIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                getStudentIntentResponse,
-                updateGetStudentIntentSlotResponsesList,
-                updateGetStudentIntentSlotPrioritiesList,
-                localeId,
-                botVersion,
-                "GetStudent",
-                "GET student data",
-                Utterance.getGetStudentIntentSampleUtterances(),
-                true,
-                false
-        );
-
-        // Create "RemoveStudent" intent
-        CreateIntentResponse removeStudentIntentResponse = Intent.createIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion,
-                "RemoveStudent",
-                "REMOVE student data",
-                Utterance.getRemoveStudentIntentSampleUtterances(),
-                true,
-                false
-        );
-
-        // Create "StudentId" slot of "RemoveStudent" intent
-        CreateSlotResponse removeStudentIntentStudentIdSlotResponse = Slot.createSlotWithPlainTextMessage(lexModelsV2Client,
-                createBotResponse,
-                removeStudentIntentResponse,
-                localeId,
-                botVersion,
-                "StudentId",
-                "StudentId slot is required to search and remove a student.",
-                "Please enter a student ID.",
-                "AMAZON.Number"
-        );
-
-        // Prioritize the slots of "RemoveStudent" intent in the order they created
-        List<CreateSlotResponse> updateRemoveStudentIntentSlotResponsesList = new ArrayList<>();
-        updateRemoveStudentIntentSlotResponsesList.add(removeStudentIntentStudentIdSlotResponse);
-        List<Integer> updateRemoveStudentIntentSlotPrioritiesList = new ArrayList<>();
-        updateRemoveStudentIntentSlotPrioritiesList.add(0);
-
-        // RemoveStudent intent should be updated because the slotPriorities method is missing at CreateIntentRequest in the AWS Java SDK.
-        // I assume that adding this method was forgotten by the developers.
-        // Intent file structure: https://docs.aws.amazon.com/lexv2/latest/dg/import-export-format.html#json-intent
-        UpdateIntentResponse updateRemoveStudentIntentResponse = Intent.updateIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                removeStudentIntentResponse,
-                updateRemoveStudentIntentSlotResponsesList,
-                updateRemoveStudentIntentSlotPrioritiesList,
-                localeId,
-                botVersion,
-                "RemoveStudent",
-                "REMOVE student data",
-                Utterance.getRemoveStudentIntentSampleUtterances(),
-                true,
-                false
-        );
-
-        // Create "UpdateStudent" intent
-        CreateIntentResponse updateStudentIntentResponse = Intent.createIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion,
-                "UpdateStudent",
-                "UPDATE student data",
-                Utterance.getUpdateStudentIntentSampleUtterances(),
-                true,
-                false
-        );
-
-        // Create "StudentId" slot of "UpdateStudent" intent
-        CreateSlotResponse updateStudentIntentStudentIdSlotResponse = Slot.createSlotWithPlainTextMessage(
-                lexModelsV2Client,
-                createBotResponse,
-                updateStudentIntentResponse,
-                localeId,
-                botVersion,
-                "StudentId",
-                "StudentId slot is required to search for a student.",
-                "Please enter a student ID to find a person.",
-                "AMAZON.Number"
-        );
+                                          String botDescription) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        BotSpec botSpec = null;
+        try {
+            botSpec = BotSpec.read(botSpecResource);
+        } catch (IOException | ParseException error) {
+            System.err.println(error.getMessage());
+            System.exit(1);
+        }
 
-        // Create "AttributeName" slot of "UpdateStudent" intent
-        CreateSlotResponse updateStudentIntentAttributeNameSlotResponse = Slot.createSlotWithPlainTextMessage(
-                lexModelsV2Client,
-                createBotResponse,
-                updateStudentIntentResponse,
-                localeId,
-                botVersion,
-                "AttributeName",
-                "The entered attribute that needs to be updated in the Students table.",
-                "Which student attribute do you need to update?",
-                "AMAZON.FreeFormInput"
-        );
+        String botId;
+        try {
+            botId = BotImport.importBot(lexModelsV2Client, botSpec, lexRoleArn, botName, botDescription);
+            System.out.println("Imported version " + botSpec.getSpecVersion() + " of the bot definition in " + (System.currentTimeMillis() - startTime) + " ms.");
+        } catch (LexModelsV2Exception | IOException error) {
+            System.err.println("The bot definition could not be imported, creating the bot with a request per intent, slot, and slot type: " + error.getMessage());
+            botId = createBot(lexModelsV2Client, botSpec, lexRoleArn, botName, botDescription, 4);
+            System.out.println("Created version " + botSpec.getSpecVersion() + " of the bot definition in " + (System.currentTimeMillis() - startTime) + " ms.");
+        }
 
-        // Create "NewAttributeValue" slot of "UpdateStudent" intent
-        CreateSlotResponse updateStudentIntentNewAttributeValueSlotResponse = Slot.createSlotWithPlainTextMessage(
+        // Update TestBotAlias by enabling the lambda hook
+        BotAlias.updateBotAlias(
                 lexModelsV2Client,
-                createBotResponse,
-                updateStudentIntentResponse,
-                localeId,
+                botId,
+                lambdaArn,
+                botSpec.localeId,
                 botVersion,
-                "NewAttributeValue",
-                "New attribute value that will update the old one.",
-                "Enter a new attribute value.",
-                "AMAZON.FreeFormInput"
+                testBotAliasId,
+                testBotAliasName,
+                "test bot alias"
         );
 
-        // Prioritize the slots of "UpdateStudent" intent in the order they created
-        List<CreateSlotResponse> updateUpdateStudentIntentSlotResponsesList = new ArrayList<>();
-        updateUpdateStudentIntentSlotResponsesList.add(updateStudentIntentStudentIdSlotResponse);
-        updateUpdateStudentIntentSlotResponsesList.add(updateStudentIntentAttributeNameSlotResponse);
-        updateUpdateStudentIntentSlotResponsesList.add(updateStudentIntentNewAttributeValueSlotResponse);
-        List<Integer> updateUpdateStudentIntentSlotPrioritiesList = new ArrayList<>();
-        updateUpdateStudentIntentSlotPrioritiesList.add(0);
-        updateUpdateStudentIntentSlotPrioritiesList.add(1);
-        updateUpdateStudentIntentSlotPrioritiesList.add(2);
-
-        // UpdateStudent intent should be updated because the slotPriorities method is missing at CreateIntentRequest in the AWS Java SDK.
-        // I assume that adding this method was forgotten by the developers.
-        // Intent file structure: https://docs.aws.amazon.com/lexv2/latest/dg/import-export-format.html#json-intent
-        UpdateIntentResponse updateUpdateStudentIntentResponse = Intent.updateIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                updateStudentIntentResponse,
-                updateUpdateStudentIntentSlotResponsesList,
-                updateUpdateStudentIntentSlotPrioritiesList,
-                localeId,
-                botVersion,
-                "UpdateStudent",
-                "UPDATE student data",
-                Utterance.getUpdateStudentIntentSampleUtterances(),
-                true,
-                false);
-
-        List<String> stringSampleValuesClassificationList = new ArrayList<>();
-        stringSampleValuesClassificationList.add("Freshman");
-        stringSampleValuesClassificationList.add("Sophomore");
-        stringSampleValuesClassificationList.add("Junior");
-        stringSampleValuesClassificationList.add("Senior");
-
-        // Create "Classification" custom slot type
-        CreateSlotTypeResponse createClassificationSlotTypeResponse = Slot.createSlotType(
+        // Build bot
+        BotLocale.buildBotLocale(
                 lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion,
-                "Classification",
-                "Classification level of the student at the university",
-                Slot.getSlotTypeValues(stringSampleValuesClassificationList)
+                botId,
+                botSpec.localeId,
+                botVersion
         );
 
-        // Create "InsertStudent" intent
-        CreateIntentResponse insertStudentIntentResponse = Intent.createIntent(
+        // Create bot version
+        CreateBotVersionResponse createVersion1BotResponse = BotVersion.createBotVersion(
                 lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion,
-                "InsertStudent",
-                "Insert student data",
-                Utterance.getInsertStudentIntentSampleUtterances(),
-                true,
-                false
+                botId,
+                botSpec.localeId,
+                botVersion
         );
 
-        // Create "StudentId" slot of "InsertStudent" intent
-        CreateSlotResponse insertStudentIntentStudentIdSlotResponse = Slot.createSlotWithPlainTextMessage(
-                lexModelsV2Client,
-                createBotResponse,
-                insertStudentIntentResponse,
-                localeId,
-                botVersion,
-                "StudentId",
-                "StudentId is a required attribute that needs to be inserted into the Students table.",
-                "Please provide me a student ID.",
-                "AMAZON.Number"
-        );
+        // Create bot alias, or point the alias of an earlier deployment to the new version
+        String botAliasId = BotAlias.findBotAliasId(lexModelsV2Client, botId, botAliasName);
+        if (botAliasId == null)
+            BotAlias.createBotAlias(lexModelsV2Client, botId, lambdaArn, botSpec.localeId, createVersion1BotResponse.botVersion(), botAliasName);
+        else
+            BotAlias.updateBotAlias(lexModelsV2Client, botId, lambdaArn, botSpec.localeId, createVersion1BotResponse.botVersion(),
+                    botAliasId, botAliasName, "CS:GO Explorer bot alias");
 
-        // Create "FirstName" slot of "InsertStudent" intent
-        CreateSlotResponse insertStudentIntentFirstNameSlotResponse = Slot.createSlotWithPlainTextMessage(
-                lexModelsV2Client,
-                createBotResponse,
-                insertStudentIntentResponse,
-                localeId,
-                botVersion,
-                "FirstName",
-                "FirstName is a required attribute that needs to be inserted into the Students table.",
-                "Student's first name.",
-                "AMAZON.FirstName"
-        );
+        System.out.println("Provisioned the bot " + botName + " in " + (System.currentTimeMillis() - startTime) + " ms.");
+        return botId;
+    }
 
-        // Create "LastName" slot of "InsertStudent" intent
-        CreateSlotResponse insertStudentIntentLastNameSlotResponse = Slot.createSlotWithPlainTextMessage(
-                lexModelsV2Client,
-                createBotResponse,
-                insertStudentIntentResponse,
-                localeId,
-                botVersion,
-                "LastName",
-                "LastName is a required attribute that needs to be inserted into the Students table.",
-                "Last name.",
-                "AMAZON.LastName"
-        );
+    /**
+     * Creates the bot, its locale, and its slot types, and then the intents with their slots. Intents do not depend
+     * on each other, so they are created concurrently. A bot with the same name that already exists, from an earlier
+     * deployment or an import that failed partway, is reused: its DRAFT locale is deleted and created again, since it
+     * may hold some of the intents and slot types already.
+     * @param lexModelsV2Client Service client for accessing Lex Models V2.
+     * @param botSpec The definition of the bot.
+     * @param lexRoleArn Service-linked role (ARN) for the Lex bot.
+     * @param botName The name of the bot.
+     * @param botDescription The description of the bot.
+     * @param concurrency The number of intents created at the same time.
+     * @return The identifier of the bot.
+     */
+    private static String createBot(LexModelsV2Client lexModelsV2Client,
+                                    BotSpec botSpec,
+                                    String lexRoleArn,
+                                    String botName,
+                                    String botDescription,
+                                    int concurrency) throws InterruptedException {
+        // Create bot, or reuse the bot of an earlier deployment since CreateBot rejects a name that is taken
+        String botId = findBotId(lexModelsV2Client, botName);
+        if (botId == null) {
+            botId = createLexV2Bot(
+                    lexModelsV2Client,
+                    lexRoleArn,
+                    botName,
+                    botDescription,
+                    botSpec.idleSessionTTLInSeconds
+            );
+        } else {
+            System.out.println("Bot " + botName + " already exists, recreating its " + botSpec.localeId + " locale.");
+            waitUntilBotAvailable(lexModelsV2Client, botId);
+            BotLocale.deleteBotLocale(lexModelsV2Client, botId, botSpec.localeId, botVersion);
+        }
 
-        // Create "DateOfBirth" slot of "InsertStudent" intent
-        CreateSlotResponse insertStudentIntentDateOfBirthSlotResponse = Slot.createSlotWithPlainTextMessage(
+        // Create bot locale
+        BotLocale.createBotLocale(
                 lexModelsV2Client,
-                createBotResponse,
-                insertStudentIntentResponse,
-                localeId,
+                botId,
+                botSpec.localeId,
                 botVersion,
-                "DateOfBirth",
-                "DateOfBirth is a required attribute that needs to be inserted into the Students table.",
-                "Date of birth (MM/DD/YYYY).",
-                "AMAZON.Date"
+                botSpec.voiceId
         );
 
-        // List of button names for the Classification slot
-        List<String> buttonNamesList = new ArrayList<>();
-        buttonNamesList.add("Freshman");
-        buttonNamesList.add("Sophomore");
-        buttonNamesList.add("Junior");
-        buttonNamesList.add("Senior");
+        // Create custom slot types, which the slots of the intents refer to by ID
+        Map<String, String> slotTypeIds = new HashMap<>();
+        for (BotSpec.SlotTypeSpec slotTypeSpec : botSpec.slotTypes) {
+            CreateSlotTypeResponse createSlotTypeResponse = Slot.createSlotType(
+                    lexModelsV2Client,
+                    botId,
+                    botSpec.localeId,
+                    botVersion,
+                    slotTypeSpec.name,
+                    slotTypeSpec.description,
+                    Slot.getSlotTypeValues(slotTypeSpec.values)
+            );
+            slotTypeIds.put(slotTypeSpec.name, createSlotTypeResponse.slotTypeId());
+        }
 
-        // Create "Classification" slot of "InsertStudent" intent
-        CreateSlotResponse insertStudentIntentClassificationSlotResponse = Slot.createSlotWithImageResponseCard(
-                lexModelsV2Client,
-                createBotResponse,
-                insertStudentIntentResponse,
-                localeId,
-                botVersion,
-                createClassificationSlotTypeResponse.slotTypeName(),
-                "Classification is a required attribute that needs to be inserted into the Students table.",
-                "Student Classification",
-                Buttons.getButtons(buttonNamesList),
-                createClassificationSlotTypeResponse.slotTypeId()
-        );
+        String createdBotId = botId;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (BotSpec.IntentSpec intentSpec : botSpec.intents)
+                results.add(executor.submit(() -> createIntent(lexModelsV2Client, createdBotId, botSpec.localeId, intentSpec, slotTypeIds)));
+
+            for (Future<?> result : results)
+                result.get();
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof RuntimeException)
+                throw (RuntimeException) error.getCause();
+            throw new IllegalStateException(error.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return botId;
+    }
 
-        // Create "Email" slot of "InsertStudent" intent
-        CreateSlotResponse insertStudentIntentEmailSlotResponse = Slot.createSlotWithPlainTextMessage(
+    /**
+     * Creates an intent and its slots.
+     * @param lexModelsV2Client Service client for accessing Lex Models V2.
+     * @param botId The identifier of the bot.
+     * @param localeId The locale that the intent is specified to use.
+     * @param intentSpec The definition of the intent.
+     * @param slotTypeIds The identifiers of the custom slot types by name.
+     */
+    private static void createIntent(LexModelsV2Client lexModelsV2Client,
+                                     String botId,
+                                     String localeId,
+                                     BotSpec.IntentSpec intentSpec,
+                                     Map<String, String> slotTypeIds) {
+        CreateIntentResponse createIntentResponse = Intent.createIntent(
                 lexModelsV2Client,
-                createBotResponse,
-                insertStudentIntentResponse,
+                botId,
                 localeId,
                 botVersion,
-                "Email",
-                "Classification is a required attribute that needs to be inserted into the Students table.",
-                "Student's email address.",
-                "AMAZON.EmailAddress"
+                intentSpec.name,
+                intentSpec.description,
+                intentSpec.utterances,
+                intentSpec.isFulfillmentCodeHook,
+                intentSpec.isDialogCodeHook
         );
+        if (intentSpec.slots.isEmpty())
+            return;
+
+        // Slots are prioritized in the order they are created
+        List<CreateSlotResponse> intentSlotResponsesList = new ArrayList<>();
+        List<Integer> intentSlotPrioritiesList = new ArrayList<>();
+        for (BotSpec.SlotSpec slotSpec : intentSpec.slots) {
+            String slotTypeId = slotSpec.isBuiltInSlotType() ? slotSpec.slotType : slotTypeIds.get(slotSpec.slotType);
+            CreateSlotResponse createSlotResponse;
+            if (slotSpec.buttons.isEmpty())
+                createSlotResponse = Slot.createSlotWithPlainTextMessage(lexModelsV2Client, botId, createIntentResponse,
+                        localeId, botVersion, slotSpec.name, slotSpec.description, slotSpec.prompt, slotTypeId);
+            else
+                createSlotResponse = Slot.createSlotWithImageResponseCard(lexModelsV2Client, botId, createIntentResponse,
+                        localeId, botVersion, slotSpec.name, slotSpec.description, slotSpec.prompt, Buttons.getButtons(slotSpec.buttons), slotTypeId);
+            intentSlotResponsesList.add(createSlotResponse);
+            intentSlotPrioritiesList.add(intentSlotPrioritiesList.size());
+        }
 
-        // Prioritize the slots of "InsertStudent" intent in the order they created
-        List<CreateSlotResponse> updateInsertStudentIntentSlotResponsesList = new ArrayList<>();
-        updateInsertStudentIntentSlotResponsesList.add(insertStudentIntentStudentIdSlotResponse);
-        updateInsertStudentIntentSlotResponsesList.add(insertStudentIntentFirstNameSlotResponse);
-        updateInsertStudentIntentSlotResponsesList.add(insertStudentIntentLastNameSlotResponse);
-        updateInsertStudentIntentSlotResponsesList.add(insertStudentIntentDateOfBirthSlotResponse);
-        updateInsertStudentIntentSlotResponsesList.add(insertStudentIntentClassificationSlotResponse);
-        updateInsertStudentIntentSlotResponsesList.add(insertStudentIntentEmailSlotResponse);
-        List<Integer> updateInsertStudentIntentSlotPrioritiesList = new ArrayList<>();
-        updateInsertStudentIntentSlotPrioritiesList.add(0);
-        updateInsertStudentIntentSlotPrioritiesList.add(1);
-        updateInsertStudentIntentSlotPrioritiesList.add(2);
-        updateInsertStudentIntentSlotPrioritiesList.add(3);
-        updateInsertStudentIntentSlotPrioritiesList.add(4);
-        updateInsertStudentIntentSlotPrioritiesList.add(5);
-
-        // InsertStudent intent should be updated because the slotPriorities method is missing at CreateIntentRequest in the AWS Java SDK.
-        // I assume that adding this method was forgotten by the developers.
+        // The intent should be updated because the slotPriorities method is missing at CreateIntentRequest in the AWS Java SDK.
         // Intent file structure: https://docs.aws.amazon.com/lexv2/latest/dg/import-export-format.html#json-intent
-        UpdateIntentResponse updateInsertStudentIntentResponse = Intent.updateIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                insertStudentIntentResponse,
-                updateInsertStudentIntentSlotResponsesList,
-                updateInsertStudentIntentSlotPrioritiesList,
-                localeId,
-                botVersion,
-                "InsertStudent",
-                "INSERT student data",
-                Utterance.getInsertStudentIntentSampleUtterances(),
-                true,
-                false
-        );
-
-        // EndOfConversation intent
-        CreateIntentResponse endOfConversationIntentResponse = Intent.createIntent(
-                lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion,
-                "EndOfConversation",
-                "End the conversation if the user no longer wants to manage the database",
-                Utterance.getEndOfConversationIntentSampleUtterances(),
-                false,
-                true
-        );
-
-        // Update TestBotAlias by enabling the lambda hook
-        UpdateBotAliasResponse updateBotAliasResponse = BotAlias.updateBotAlias(
+        Intent.updateIntent(
                 lexModelsV2Client,
-                createBotResponse,
-                lambdaArn,
+                botId,
+                createIntentResponse,
+                intentSlotResponsesList,
+                intentSlotPrioritiesList,
                 localeId,
                 botVersion,
-                testBotAliasId,
-                testBotAliasName
-        );
-
-        // Build bot
-        BuildBotLocaleResponse buildBotLocaleResponse = BotLocale.buildBotLocale(
-                lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion
-        );
-
-        // Create bot version
-        CreateBotVersionResponse createVersion1BotResponse = BotVersion.createBotVersion(
-                lexModelsV2Client,
-                createBotResponse,
-                localeId,
-                botVersion
+                intentSpec.name,
+                intentSpec.description,
+                intentSpec.utterances,
+                intentSpec.isFulfillmentCodeHook,
+                intentSpec.isDialogCodeHook
         );
-
-        // Create bot alias
-        CreateBotAliasResponse createBotAliasResponse = BotAlias.createBotAlias(
-                lexModelsV2Client,
-                createBotResponse,
-                lambdaArn,
-                localeId,
-                createVersion1BotResponse,
-                botAliasName
-        );
-
-        return createBotResponse.botId();
     }
 
     /**
@@ -466,12 +264,14 @@ public class Lex {
      * @param roleArn The Amazon Resource Name (ARN) of an IAM role that has permission to access the bot.
      * @param botName The name of the bot. The bot name must be unique in the account that creates the bot.
      * @param botDescription A description of the bot. It appears in lists to help you identify a particular bot.
-     * @return If the action is successful, returns a response object with metadata.
+     * @param idleSessionTTLInSeconds The time, in seconds, that Amazon Lex keeps information about a user's conversation with the bot.
+     * @return The identifier of the bot.
      */
-    private static CreateBotResponse createLexV2Bot(LexModelsV2Client lexModelsV2Client,
-                                                    String roleArn,
-                                                    String botName,
-                                                    String botDescription) {
+    private static String createLexV2Bot(LexModelsV2Client lexModelsV2Client,
+                                         String roleArn,
+                                         String botName,
+                                         String botDescription,
+                                         int idleSessionTTLInSeconds) {
         DataPrivacy dataPrivacy = DataPrivacy
                 .builder()
                 .childDirected(false)
@@ -483,20 +283,59 @@ public class Lex {
                 .description(botDescription)
                 .roleArn(roleArn)
                 .dataPrivacy(dataPrivacy)
-                .idleSessionTTLInSeconds(600)
+                .idleSessionTTLInSeconds(idleSessionTTLInSeconds)
                 .build();
 
         CreateBotResponse createBotResponse = lexModelsV2Client.createBot(createBotRequest);
+        waitUntilBotAvailable(lexModelsV2Client, createBotResponse.botId());
+
+        return createBotResponse.botId();
+    }
 
+    /**
+     * Waits until the bot is available, so that its locales can be changed.
+     * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
+     * @param botId The identifier of the bot.
+     */
+    private static void waitUntilBotAvailable(LexModelsV2Client lexModelsV2Client, String botId) {
         DescribeBotRequest describeBotRequest = DescribeBotRequest
                 .builder()
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .build();
 
         WaiterResponse<DescribeBotResponse> waitUntilBotAvailable = lexModelsV2Client.waiter().waitUntilBotAvailable(describeBotRequest);
         waitUntilBotAvailable.matched().response().ifPresent(System.out::println);
+    }
+
+    /**
+     * Finds a bot by its name.
+     * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
+     * @param botName The name of the bot.
+     * @return The unique identifier of the bot, or null if there is no bot with the name.
+     */
+    public static String findBotId(LexModelsV2Client lexModelsV2Client, String botName) {
+        BotFilter botNameFilter = BotFilter
+                .builder()
+                .name(BotFilterName.BOT_NAME)
+                .operator(BotFilterOperator.EQ)
+                .values(botName)
+                .build();
 
-        return createBotResponse;
+        String nextToken = null;
+        do {
+            ListBotsRequest listBotsRequest = ListBotsRequest
+                    .builder()
+                    .filters(botNameFilter)
+                    .nextToken(nextToken)
+                    .build();
+
+            ListBotsResponse listBotsResponse = lexModelsV2Client.listBots(listBotsRequest);
+            for (BotSummary botSummary : listBotsResponse.botSummaries())
+                if (botSummary.botName().equals(botName))
+                    return botSummary.botId();
+            nextToken = listBotsResponse.nextToken();
+        } while (nextToken != null);
+        return null;
     }
 
     /**
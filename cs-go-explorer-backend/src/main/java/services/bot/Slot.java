@@ -15,7 +15,7 @@ public class Slot {
     /**
      * Creates a slot in an intent with a prompt in a form of image response card.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot.
      * @param createIntentResponse The response object contains the metadata of the created intent.
      * @param localeId The identifier of the language and locale that the slot will be used in.
      *                 The string must match one of the supported locales.
@@ -30,7 +30,7 @@ public class Slot {
      * @return The response object contains the metadata of the created image response card slot.
      */
     public static CreateSlotResponse createSlotWithImageResponseCard(LexModelsV2Client lexModelsV2Client,
-                                                                     CreateBotResponse createBotResponse,
+                                                                     String botId,
                                                                      CreateIntentResponse createIntentResponse,
                                                                      String localeId,
                                                                      String botVersion,
@@ -69,7 +69,7 @@ public class Slot {
 
         CreateSlotRequest createSlotRequest = CreateSlotRequest
                 .builder()
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .botVersion(botVersion)
                 .localeId(localeId)
                 .slotName(slotName)
@@ -86,7 +86,7 @@ public class Slot {
     /**
      * Creates a slot in an intent with a prompt in a form of plain text message.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot.
      * @param createIntentResponse The response object contains the metadata of the created intent.
      * @param localeId The identifier of the language and locale that the slot will be used in.
      *                 The string must match one of the supported locales.
@@ -99,7 +99,7 @@ public class Slot {
      * @return The response object contains the metadata of the created plain text message slot.
      */
     public static CreateSlotResponse createSlotWithPlainTextMessage(LexModelsV2Client lexModelsV2Client,
-                                                                   CreateBotResponse createBotResponse,
+                                                                   String botId,
                                                                    CreateIntentResponse createIntentResponse,
                                                                    String localeId,
                                                                    String botVersion,
@@ -136,7 +136,7 @@ public class Slot {
 
         CreateSlotRequest createSlotRequest = CreateSlotRequest
                 .builder()
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .botVersion(botVersion)
                 .localeId(localeId)
                 .slotName(slotName)
@@ -154,7 +154,7 @@ public class Slot {
      * Creates a custom slot type. To create a custom slot type, specify a name for the slot type
      * and a set of enumeration values, the values that a slot of this type can assume.
      * @param lexModelsV2Client LexModelsV2Client lexModelsV2Client.
-     * @param createBotResponse The response object contains the metadata of the created bot.
+     * @param botId The identifier of the bot.
      * @param localeId The identifier of the language and locale that the slot will be used in.
      *                 The string must match one of the supported locales.
      *                 All the bots, intents, slot types used by the slot must have the same locale.
@@ -167,7 +167,7 @@ public class Slot {
      * @return The response object contains the metadata of the created slot type.
      */
     public static CreateSlotTypeResponse createSlotType(LexModelsV2Client lexModelsV2Client,
-                                                        CreateBotResponse createBotResponse,
+                                                        String botId,
                                                         String localeId,
                                                         String botVersion,
                                                         String slotTypeName,
@@ -182,7 +182,7 @@ public class Slot {
 
         CreateSlotTypeRequest createSlotTypeRequest = CreateSlotTypeRequest
                 .builder()
-                .botId(createBotResponse.botId())
+                .botId(botId)
                 .botVersion(botVersion)
                 .localeId(localeId)
                 .slotTypeName(slotTypeName)
@@ -28,78 +28,4 @@ public class Utterance {
         }
         return sampleUtterancesListObjects;
     }
-
-    /**
-     * Creates a list of utterances for the "Greeting" intent.
-     * @return List of utterances.
-     */
-    public static List<String> getGreetingIntentSampleUtterances() {
-        List<String> sampleUtterances = new ArrayList<>();
-        sampleUtterances.add("Hi");
-        sampleUtterances.add("Hello");
-        sampleUtterances.add("Good morning");
-        sampleUtterances.add("Good afternoon");
-        sampleUtterances.add("Good evening");
-        sampleUtterances.add("Hey");
-        sampleUtterances.add("Nova");
-        sampleUtterances.add("Yes");
-        sampleUtterances.add("Sure");
-        sampleUtterances.add("Yeah");
-        sampleUtterances.add("Restart");
-        sampleUtterances.add("Start over");
-        return sampleUtterances;
-    }
-
-    /**
-     * Creates a list of utterances for the "GetStudent" intent.
-     * @return List of utterances.
-     */
-    public static List<String> getGetStudentIntentSampleUtterances() {
-        List<String> sampleUtterances = new ArrayList<>();
-        sampleUtterances.add("Get");
-        return sampleUtterances;
-    }
-
-    /**
-     * Creates a list of utterances for the "RemoveStudent" intent.
-     * @return List of utterances.
-     */
-    public static List<String> getRemoveStudentIntentSampleUtterances() {
-        List<String> sampleUtterances = new ArrayList<>();
-        sampleUtterances.add("Remove");
-        return sampleUtterances;
-    }
-
-    /**
-     * Creates a list of utterances for the "UpdateStudent" intent.
-     * @return List of utterances.
-     */
-    public static List<String> getUpdateStudentIntentSampleUtterances() {
-        List<String> sampleUtterances = new ArrayList<>();
-        sampleUtterances.add("Update");
-        return sampleUtterances;
-    }
-
-    /**
-     * Creates a list of utterances for the "InsertStudent" intent.
-     * @return List of utterances.
-     */
-    public static List<String> getInsertStudentIntentSampleUtterances() {
-        List<String> sampleUtterances = new ArrayList<>();
-        sampleUtterances.add("Insert");
-        return sampleUtterances;
-    }
-
-    /**
-     * Creates a list of utterances for the "EndOfConversation" intent.
-     * @return List of utterances.
-     */
-    public static List<String> getEndOfConversationIntentSampleUtterances() {
-        List<String> sampleUtterances = new ArrayList<>();
-        sampleUtterances.add("No");
-        sampleUtterances.add("No action");
-        sampleUtterances.add("Bye");
-        sampleUtterances.add("No, thank you");
-        return sampleUtterances;
-    }
-}
\ No newline at end of file
+}
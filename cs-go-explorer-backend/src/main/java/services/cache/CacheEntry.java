@@ -0,0 +1,44 @@
+package services.cache;
+
+/**
+ * A cached value with its freshness window. A fresh entry is served as is, a stale entry can still be served
+ * while it is revalidated in the background, and an expired entry is not served at all.
+ * @param <V> The type of the cached value.
+ */
+public final class CacheEntry<V> {
+
+    private final V value;
+    private final long freshUntil;
+    private final long staleUntil;
+
+    /**
+     * @param value The cached value.
+     * @param freshUntil Epoch milliseconds until which the value is fresh.
+     * @param staleUntil Epoch milliseconds until which the stale value may still be served.
+     */
+    public CacheEntry(V value, long freshUntil, long staleUntil) {
+        this.value = value;
+        this.freshUntil = freshUntil;
+        this.staleUntil = staleUntil;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    public long getFreshUntil() {
+        return freshUntil;
+    }
+
+    public long getStaleUntil() {
+        return staleUntil;
+    }
+
+    public boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= staleUntil;
+    }
+}
@@ -0,0 +1,28 @@
+package services.cache;
+
+/**
+ * A single level of a tiered cache, e.g. an in-process map or a table shared by all Lambda containers.
+ * @param <V> The type of the cached values.
+ */
+public interface CacheTier<V> {
+
+    /**
+     * Gets the entry stored under the key.
+     * @param key The cache key.
+     * @return The cache entry or null if there is none.
+     */
+    CacheEntry<V> get(String key);
+
+    /**
+     * Stores the entry under the key, replacing any previous entry.
+     * @param key The cache key.
+     * @param entry The cache entry.
+     */
+    void put(String key, CacheEntry<V> entry);
+
+    /**
+     * Removes the entry stored under the key.
+     * @param key The cache key.
+     */
+    void invalidate(String key);
+}
@@ -0,0 +1,83 @@
+package services.cache;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+/**
+ * Cache tier shared by all Lambda containers, stored in a DynamoDB table with a "cacheKey" string partition key.
+ * The "expiresAt" attribute holds the epoch seconds after which the entry can be removed by DynamoDB TTL.
+ * Failures of the tier are treated as misses, so the cache never fails a request.
+ */
+public class DynamoDbCacheTier implements CacheTier<String> {
+
+    // DynamoDB items are limited to 400 KB
+    private static final int maxValueLength = 350_000;
+
+    private final Supplier<DynamoDbClient> dynamoDbClient;
+    private final String tableName;
+
+    /**
+     * @param dynamoDbClient Supplies the client for accessing DynamoDB on every call, so that a client that was
+     *                       closed and created again, e.g. after a snapshot restore, is picked up.
+     * @param tableName The name of the cache table.
+     */
+    public DynamoDbCacheTier(Supplier<DynamoDbClient> dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public CacheEntry<String> get(String key) {
+        try {
+            GetItemResponse getItemResponse = dynamoDbClient.get().getItem(builder -> builder
+                    .tableName(tableName)
+                    .key(Map.of("cacheKey", AttributeValue.builder().s(key).build())));
+            if (!getItemResponse.hasItem())
+                return null;
+
+            Map<String, AttributeValue> item = getItemResponse.item();
+            return new CacheEntry<>(
+                    item.get("value").s(),
+                    Long.parseLong(item.get("freshUntil").n()),
+                    Long.parseLong(item.get("staleUntil").n()));
+        } catch (DynamoDbException error) {
+            System.err.println(error.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, CacheEntry<String> entry) {
+        if (entry.getValue().length() > maxValueLength)
+            return;
+
+        try {
+            dynamoDbClient.get().putItem(builder -> builder
+                    .tableName(tableName)
+                    .item(Map.of(
+                            "cacheKey", AttributeValue.builder().s(key).build(),
+                            "value", AttributeValue.builder().s(entry.getValue()).build(),
+                            "freshUntil", AttributeValue.builder().n(String.valueOf(entry.getFreshUntil())).build(),
+                            "staleUntil", AttributeValue.builder().n(String.valueOf(entry.getStaleUntil())).build(),
+                            "expiresAt", AttributeValue.builder().n(String.valueOf(entry.getStaleUntil() / 1000)).build())));
+        } catch (DynamoDbException error) {
+            System.err.println(error.getMessage());
+        }
+    }
+
+    @Override
+    public void invalidate(String key) {
+        try {
+            dynamoDbClient.get().deleteItem(builder -> builder
+                    .tableName(tableName)
+                    .key(Map.of("cacheKey", AttributeValue.builder().s(key).build())));
+        } catch (DynamoDbException error) {
+            System.err.println(error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package services.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process cache tier bounded by the number of entries. When the tier is full, the least recently used entry is evicted.
+ * @param <V> The type of the cached values.
+ */
+public class LruCacheTier<V> implements CacheTier<V> {
+
+    private final Map<String, CacheEntry<V>> entries;
+
+    /**
+     * @param maxEntries The maximum number of entries kept in memory.
+     * @param metrics Metrics that record the evictions of this tier.
+     */
+    public LruCacheTier(int maxEntries, CacheMetrics metrics) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+                if (size() > maxEntries) {
+                    metrics.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized CacheEntry<V> get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(String key, CacheEntry<V> entry) {
+        entries.put(key, entry);
+    }
+
+    @Override
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -1,16 +1,19 @@
 package services.database;
 
-import handler.AppHandler;
-
-import java.lang.reflect.Field;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
+import com.google.gson.stream.JsonWriter;
 
 import services.SNS;
 import services.api.ApiGateway;
@@ -20,13 +23,10 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.waiters.WaiterResponse;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
-import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
 import software.amazon.awssdk.services.dynamodb.waiters.DynamoDbWaiter;
-import software.amazon.awssdk.services.sns.SnsClient;
 
 /**
  * Amazon DynamoDB is a fully managed NoSQL database service that provides fast and predictable performance with
@@ -35,6 +35,12 @@ import software.amazon.awssdk.services.sns.SnsClient;
  */
 public class DynamoDB {
 
+    private static final int defaultScanPageSize = 100;
+    private static final int maxScanPageSize = 1000;
+
+    // Attributes that can be updated by their lower case name, computed once instead of on every update
+    private static final Map<String, String> updatableAttributes = getUpdatableAttributes();
+
     /**
      * Authenticate to the DynamoDB client using the AWS user's credentials.
      * @param awsBasicCredentials The AWS Access Key ID and Secret Access Key are credentials that are used to securely sign requests to AWS services.
@@ -59,7 +65,7 @@ public class DynamoDB {
      *                      N - the attribute is of type Number,
      *                      B - the attribute is of type Binary.
      * @param keyType The role that this key attribute will assume: HASH - partition key or RANGE - sort key
-     * @return The id of the table.
+     * @return The id of the table, or of the existing table with the same name.
      */
     public static String createTable(DynamoDbClient dynamoDbClient,
                                      String tableName,
@@ -67,11 +73,13 @@ public class DynamoDB {
                                      ScalarAttributeType attributeType,
                                      KeyType keyType) {
         try {
-            ListTablesResponse listTables = dynamoDbClient.listTables();
-
-            for (String table : listTables.tableNames())
-                if (table.equals(System.getenv("DYNAMO_DB_TABLE_NAME")))
-                    return table + " table already exists.";
+            // Reuse the table if a previous deployment created it
+            for (String table : dynamoDbClient.listTablesPaginator().tableNames()) {
+                if (table.equals(tableName)) {
+                    System.out.println(tableName + " table already exists.");
+                    return dynamoDbClient.describeTable(DescribeTableRequest.builder().tableName(tableName).build()).table().tableId();
+                }
+            }
 
             CreateTableRequest request = CreateTableRequest
                     .builder()
@@ -119,8 +127,9 @@ public class DynamoDB {
      * @param dynamoDbClient Client for accessing DynamoDB.
      * @param primaryKeyName The name of the primary key attribute.
      * @param primaryKeyValue The value of the primary key attribute.
+     * @return Messages that will be displayed to the user in the lex-bot.
      */
-    public static void getRecord(DynamoDbClient dynamoDbClient, String primaryKeyName, String primaryKeyValue) {
+    public static List<String> getRecord(DynamoDbClient dynamoDbClient, String primaryKeyName, String primaryKeyValue) {
         List<String> messages = new ArrayList<>();
         Map<String,AttributeValue> keyToGet = new HashMap<>();
         keyToGet.put(primaryKeyName, AttributeValue.builder().n(primaryKeyValue).build());
@@ -132,34 +141,19 @@ public class DynamoDB {
                     .tableName(System.getenv("DYNAMO_DB_TABLE_NAME"))
                     .build();
 
-            Map<String, AttributeValue> returnedItem = dynamoDbClient.getItem(getItemRequest).item();
+            Map<String, AttributeValue> returnedItem = StudentsCache.get(primaryKeyValue, () -> dynamoDbClient.getItem(getItemRequest).item());
+            System.out.println("Students cache hit ratio: " + StudentsCache.getMetrics().getHitRatio() + " " + StudentsCache.getMetrics());
 
-            if (!returnedItem.isEmpty()) {
-                Set<String> keys = returnedItem.keySet();
-                messages.add("Amazon DynamoDB table attributes: \n");
-
-                for (String key : keys) {
-                    messages.add(String.format("%s: %s\n", key, returnedItem.get(key).toString()));
-                }
-                messages.add("Student with ID " + primaryKeyValue + " was successfully retrieved.");
-            } else {
-                messages.add(String.format("No item found with the key %s!\n", primaryKeyName));
-            }
+            messages.addAll(getRecordMessages(primaryKeyName, primaryKeyValue, returnedItem));
         } catch (DynamoDbException error) {
             System.err.println(error.getMessage());
             System.exit(1);
         }
 
         // Publish the message to the SNS topic
-        String mainMessage;
-        if (messages.size() > 1) {
-            mainMessage = messages.get(messages.size() - 1);
-        } else {
-            mainMessage = messages.get(0);
-        }
-        SnsClient snsClient = SNS.authenticateSNS(AppHandler.getAwsBasicCredentials(), Region.of(System.getenv("AWS_REGION")));
-        SNS.publishMessage(snsClient, System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, "GET");
-        snsClient.close();
+        String mainMessage = messages.get(messages.size() - 1);
+        SNS.publishMessage(System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, "GET");
+        return messages;
     }
 
     /**
@@ -167,9 +161,10 @@ public class DynamoDB {
      * the same primary key as the new item already exists in the specified table,
      * the new item completely replaces the existing item.
      * @param dynamoDbClient Client for accessing DynamoDB.
+     * @param studentRecord The student to put into the table.
+     * @return Messages that will be displayed to the user in the lex-bot.
      */
-    public static void putRecord(DynamoDbClient dynamoDbClient) {
-        Students studentRecord = new Students();
+    public static List<String> putRecord(DynamoDbClient dynamoDbClient, Students studentRecord) {
         try {
             DynamoDbEnhancedClient dynamoDbEnhancedClient = DynamoDbEnhancedClient
                     .builder()
@@ -177,18 +172,11 @@ public class DynamoDB {
                     .build();
 
             DynamoDbTable<Students> table = dynamoDbEnhancedClient.table(
-                    System.getenv("DYNAMO_DB_TABLE_NAME"), TableSchema.fromBean(Students.class));
-
-            // Populate the table
-            studentRecord.setStudentId(Integer.parseInt(AppHandler.getSlotValue("StudentId")));
-            studentRecord.setFirstName(AppHandler.getSlotValue("FirstName"));
-            studentRecord.setLastName(AppHandler.getSlotValue("LastName"));
-            studentRecord.setDateOfBirth(AppHandler.getSlotValue("DateOfBirth"));
-            studentRecord.setClassification(AppHandler.getSlotValue("Classification"));
-            studentRecord.setEmail(AppHandler.getSlotValue("Email"));
+                    System.getenv("DYNAMO_DB_TABLE_NAME"), StudentsSchema.tableSchema);
 
             // Put the student data into an Amazon DynamoDB table
             table.putItem(studentRecord);
+            StudentsCache.update(String.valueOf(studentRecord.getStudentId()), StudentsSchema.tableSchema.itemToMap(studentRecord, true));
         } catch (DynamoDbException error) {
             System.err.println(error.getMessage());
             System.exit(1);
@@ -198,40 +186,38 @@ public class DynamoDB {
         List<String> messages = new ArrayList<>();
         String mainMessage = "Student with ID: " + studentRecord.getStudentId() + " has been successfully added.";
         messages.add(mainMessage);
-        SnsClient snsClient = SNS.authenticateSNS(AppHandler.getAwsBasicCredentials(), Region.of(System.getenv("AWS_REGION")));
-        SNS.publishMessage(snsClient, System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, "INSERT");
-        snsClient.close();
+        SNS.publishMessage(System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, "INSERT");
+        return messages;
     }
 
     /**
-     * Deletes a single item in a table by primary key.
+     * Deletes a single item in a table by primary key. The delete is conditional on the item existing,
+     * so a single round trip tells whether the student was removed or not found.
      * @param dynamoDbClient Client for accessing DynamoDB.
      * @param primaryKeyName The name of the primary key attribute.
      * @param primaryKeyValue The value of the primary key attribute.
+     * @return Messages that will be displayed to the user in the lex-bot.
      */
-    public static void removeRecord(DynamoDbClient dynamoDbClient, String primaryKeyName, String primaryKeyValue) {
+    public static List<String> removeRecord(DynamoDbClient dynamoDbClient, String primaryKeyName, String primaryKeyValue) {
         List<String> messages = new ArrayList<>();
-        Map<String, AttributeValue> keyToGet = new HashMap<>();
-        keyToGet.put(primaryKeyName, AttributeValue.builder().n(primaryKeyValue).build());
+        Map<String, AttributeValue> keyToDelete = new HashMap<>();
+        keyToDelete.put(primaryKeyName, AttributeValue.builder().n(primaryKeyValue).build());
 
         try {
-            GetItemRequest getItemRequest = GetItemRequest
-                    .builder()
-                    .key(keyToGet)
+            DeleteItemRequest deleteRequest = DeleteItemRequest.builder()
                     .tableName(System.getenv("DYNAMO_DB_TABLE_NAME"))
+                    .key(keyToDelete)
+                    .conditionExpression("attribute_exists(#key)")
+                    .expressionAttributeNames(Map.of("#key", primaryKeyName))
+                    .returnValues(ReturnValue.ALL_OLD)
                     .build();
-
-            GetItemResponse getItemResponse = dynamoDbClient.getItem(getItemRequest);
-            if (getItemResponse.hasItem()) {
-                DeleteItemRequest deleteRequest = DeleteItemRequest.builder()
-                        .tableName(System.getenv("DYNAMO_DB_TABLE_NAME"))
-                        .key(keyToGet)
-                        .build();
-                dynamoDbClient.deleteItem(deleteRequest);
-                messages.add("Student with ID: " + primaryKeyValue + " has been successfully removed.");
-            } else {
-                messages.add("Student with ID: " + primaryKeyValue + " has not been found.");
-            }
+            DeleteItemResponse deleteResponse = dynamoDbClient.deleteItem(deleteRequest);
+            StudentsCache.invalidate(primaryKeyValue);
+            messages.add("Student with ID: " + primaryKeyValue + " has been successfully removed.");
+            if (deleteResponse.hasAttributes())
+                System.out.println("Removed student: " + deleteResponse.attributes());
+        } catch (ConditionalCheckFailedException error) {
+            messages.add("Student with ID: " + primaryKeyValue + " has not been found.");
         } catch (DynamoDbException error) {
             System.err.println(error.getMessage());
             System.exit(1);
@@ -239,107 +225,292 @@ public class DynamoDB {
 
         // Publish the message to the SNS topic
         String mainMessage = messages.get(0);
-        SnsClient snsClient = SNS.authenticateSNS(AppHandler.getAwsBasicCredentials(), Region.of(System.getenv("AWS_REGION")));
-        SNS.publishMessage(snsClient, System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, "REMOVE");
-        snsClient.close();
+        SNS.publishMessage(System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, "REMOVE");
+        return messages;
     }
 
     /**
-     * Edits an existing item's attributes, or adds a new item to the table if it does not already exist.
+     * Edits an existing item's attribute.
      * @param dynamoDbClient Client for accessing DynamoDB.
      * @param primaryKeyName The name of the primary key attribute.
      * @param primaryKeyValue The value of the primary key attribute.
      * @param attributeName The name of the attribute to update its value.
      * @param newValue The new value of the attribute.
+     * @return Messages that will be displayed to the user in the lex-bot.
      */
-    public static void updateRecord(DynamoDbClient dynamoDbClient,
+    public static List<String> updateRecord(DynamoDbClient dynamoDbClient,
                                     String primaryKeyName,
                                     String primaryKeyValue,
                                     String attributeName,
                                     String newValue) {
-        List<String> messages = new ArrayList<>();
-        Map<String,AttributeValue> itemKey = new HashMap<>();
-        itemKey.put(primaryKeyName, AttributeValue.builder().n(primaryKeyValue).build());
+        return updateRecord(dynamoDbClient, primaryKeyName, primaryKeyValue, Map.of(attributeName, newValue));
+    }
 
-        List<String> dynamoDbAttributes = new ArrayList<>();
-        Field[] fields = Students.class.getDeclaredFields();
-        for (Field field : fields)
-            dynamoDbAttributes.add(field.getName().toLowerCase());
+    /**
+     * Edits several attributes of an existing item with a single conditional update. Attribute names are matched
+     * case-insensitively, and the update fails without writing anything if the item does not exist.
+     * @param dynamoDbClient Client for accessing DynamoDB.
+     * @param primaryKeyName The name of the primary key attribute.
+     * @param primaryKeyValue The value of the primary key attribute.
+     * @param newValues The new values by attribute name.
+     * @return Messages that will be displayed to the user in the lex-bot.
+     */
+    public static List<String> updateRecord(DynamoDbClient dynamoDbClient,
+                                    String primaryKeyName,
+                                    String primaryKeyValue,
+                                    Map<String, String> newValues) {
+        List<String> messages = new ArrayList<>();
+        List<String> updatedAttributes = new ArrayList<>();
+        UpdateItemRequest request = buildUpdateRequest(primaryKeyName, primaryKeyValue, newValues, updatedAttributes);
 
-        AttributeValueUpdate attributeValue;
         String mainMessage;
-        if (dynamoDbAttributes.contains(attributeName.toLowerCase())) {
-            // Update the column specified by attributeName with newValue
-            attributeValue = AttributeValueUpdate
-                    .builder()
-                    .value(AttributeValue.builder().s(newValue).build())
-                    .action(AttributeAction.PUT)
-                    .build();
-
-            Map<String, AttributeValueUpdate> updatedValues = new HashMap<>();
-            updatedValues.put(attributeName, attributeValue);
-
-            UpdateItemRequest request = UpdateItemRequest.builder()
-                    .tableName(System.getenv("DYNAMO_DB_TABLE_NAME"))
-                    .key(itemKey)
-                    .attributeUpdates(updatedValues)
-                    .build();
+        if (request != null) {
             try {
-                dynamoDbClient.updateItem(request);
+                UpdateItemResponse response = dynamoDbClient.updateItem(request);
+                StudentsCache.update(primaryKeyValue, response.attributes());
+                mainMessage = getUpdateMessage(updatedAttributes, primaryKeyValue);
+            } catch (ConditionalCheckFailedException error) {
+                mainMessage = "Student with ID: " + primaryKeyValue + " has not been found.";
             } catch (DynamoDbException error) {
                 System.err.println(error.getMessage());
                 System.exit(1);
+                return messages;
             }
-            mainMessage = "The " + attributeName + " attribute's value of the student with id " + primaryKeyValue + " has been successfully updated.";
         } else {
             mainMessage = "An invalid student ID or attribute name was entered. Please try again.";
         }
 
         // Publish the message to the SNS topic
         messages.add(mainMessage);
-        SnsClient snsClient = SNS.authenticateSNS(AppHandler.getAwsBasicCredentials(), Region.of(System.getenv("AWS_REGION")));
-        SNS.publishMessage(snsClient, System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, "UPDATE");
+        SNS.publishMessage(System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, "UPDATE");
+        return messages;
     }
 
     /**
-     * Scans table items and returns an API Gateway proxy response containing all table items
-     * that will be displayed to the user on the website.
+     * Builds the messages that present a retrieved student.
+     * @param primaryKeyName The name of the primary key attribute.
+     * @param primaryKeyValue The value of the primary key attribute.
+     * @param returnedItem Item of the student, or an empty map if the student does not exist.
+     * @return Messages that will be displayed to the user in the lex-bot, the last one being the main message.
+     */
+    static List<String> getRecordMessages(String primaryKeyName, String primaryKeyValue, Map<String, AttributeValue> returnedItem) {
+        List<String> messages = new ArrayList<>();
+        if (!returnedItem.isEmpty()) {
+            Set<String> keys = returnedItem.keySet();
+            messages.add("Amazon DynamoDB table attributes: \n");
+
+            for (String key : keys) {
+                messages.add(String.format("%s: %s\n", key, returnedItem.get(key).toString()));
+            }
+            messages.add("Student with ID " + primaryKeyValue + " was successfully retrieved.");
+        } else {
+            messages.add(String.format("No item found with the key %s!\n", primaryKeyName));
+        }
+        return messages;
+    }
+
+    /**
+     * Builds a conditional update of the attributes that may be updated, e.g. "SET #a0 = :v0, #a1 = :v1".
+     * @param primaryKeyName The name of the primary key attribute.
+     * @param primaryKeyValue The value of the primary key attribute.
+     * @param newValues The new values by attribute name.
+     * @param updatedAttributes Receives the canonical names of the updated attributes.
+     * @return Update request, or null if an attribute may not be updated.
+     */
+    static UpdateItemRequest buildUpdateRequest(String primaryKeyName,
+                                                String primaryKeyValue,
+                                                Map<String, String> newValues,
+                                                List<String> updatedAttributes) {
+        StringBuilder updateExpression = new StringBuilder();
+        Map<String, String> expressionAttributeNames = new HashMap<>();
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeNames.put("#key", primaryKeyName);
+        for (Map.Entry<String, String> newValue : newValues.entrySet()) {
+            String attributeName = updatableAttributes.get(newValue.getKey().toLowerCase());
+            if (attributeName == null) {
+                updatedAttributes.clear();
+                return null;
+            }
+
+            int index = updatedAttributes.size();
+            updateExpression.append(index == 0 ? "SET " : ", ").append("#a").append(index).append(" = :v").append(index);
+            expressionAttributeNames.put("#a" + index, attributeName);
+            expressionAttributeValues.put(":v" + index, AttributeValue.builder().s(newValue.getValue()).build());
+            updatedAttributes.add(attributeName);
+        }
+        if (updatedAttributes.isEmpty())
+            return null;
+
+        return UpdateItemRequest.builder()
+                .tableName(System.getenv("DYNAMO_DB_TABLE_NAME"))
+                .key(Map.of(primaryKeyName, AttributeValue.builder().n(primaryKeyValue).build()))
+                .updateExpression(updateExpression.toString())
+                .conditionExpression("attribute_exists(#key)")
+                .expressionAttributeNames(expressionAttributeNames)
+                .expressionAttributeValues(expressionAttributeValues)
+                .returnValues(ReturnValue.ALL_NEW)
+                .build();
+    }
+
+    static String getUpdateMessage(List<String> updatedAttributes, String primaryKeyValue) {
+        return "The " + String.join(", ", updatedAttributes) + (updatedAttributes.size() == 1 ? " attribute's value" : " attributes' values") +
+                " of the student with id " + primaryKeyValue + " has been successfully updated.";
+    }
+
+    /**
+     * Scans a page of table items and returns an API Gateway proxy response containing them, together with the cursor
+     * of the next page. The page size is set by the "limit" query string parameter (100 by default, at most 1000) and
+     * the page is continued from the "cursor" returned with the previous page. Clients can scan the table in parallel
+     * by passing "segment" and "totalSegments" and following the cursors of each segment.
      * @param dynamoDbClient Client for accessing DynamoDB.
      * @param event The Lambda Function event.
-     * @return API Gateway proxy response containing status code, headers, body, and base64 encoding enabled.
+     * @return API Gateway proxy response containing status code, headers, and body.
      */
     public static ApiGatewayProxyResponse scanTable(DynamoDbClient dynamoDbClient, Map<String, Object> event) {
         // Handles CORS preflight request
         if (event.get("httpMethod").equals("OPTIONS"))
             return ApiGateway.generateResponseForOptionsRequest();
 
-        ScanRequest scanRequest = ScanRequest.builder()
-                .tableName("CsGoExplorerTable")
+        Map<String, Object> queryStringParameters = (Map<String, Object>) event.get("queryStringParameters");
+        ScanRequest.Builder scanRequest = ScanRequest.builder()
+                .tableName(System.getenv("DYNAMO_DB_TABLE_NAME"))
                 .consistentRead(false)
-                .attributesToGet("studentID", "classification", "dateOfBirth", "email", "firstName", "lastName")
-                .limit(Integer.MAX_VALUE)
-                .build();
+                .projectionExpression(StudentsSchema.projectionExpression)
+                .expressionAttributeNames(StudentsSchema.projectionAttributeNames);
+        int pageSize;
+        try {
+            pageSize = getIntParameter(queryStringParameters, "limit", defaultScanPageSize);
+            if (pageSize < 1 || pageSize > maxScanPageSize)
+                throw new IllegalArgumentException("The limit must be between 1 and " + maxScanPageSize);
+
+            scanRequest.exclusiveStartKey(ScanCursor.decode((String) getParameter(queryStringParameters, "cursor")));
+
+            if (getParameter(queryStringParameters, "totalSegments") != null) {
+                int totalSegments = getIntParameter(queryStringParameters, "totalSegments", 1);
+                int segment = getIntParameter(queryStringParameters, "segment", -1);
+                if (totalSegments < 1 || segment < 0 || segment >= totalSegments)
+                    throw new IllegalArgumentException("The segment must be between 0 and totalSegments - 1");
+                scanRequest.segment(segment).totalSegments(totalSegments);
+            }
+        } catch (IllegalArgumentException error) {
+            return ApiGateway.generateErrorResponse(400, error.getMessage(), 0);
+        }
 
-        ScanIterable scanIterable = dynamoDbClient.scanPaginator(scanRequest);
-
-        if (scanIterable.items().stream().count() != 0) {
-            JSONArray jsonArray = new JSONArray();
-            for (ScanResponse page : scanIterable) {
-                for (Map<String, AttributeValue> item : page.items()) {
-                    JSONObject jsonObject = new JSONObject();
-                    for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
-                        if (attribute.getValue().type().equals(AttributeValue.Type.N)) {
-                            jsonObject.put(attribute.getKey(), attribute.getValue().n());
-                        } else if (attribute.getValue().type().equals(AttributeValue.Type.S)) {
-                            jsonObject.put(attribute.getKey(), attribute.getValue().s());
-                        }
-                    }
-                    jsonArray.add(jsonObject);
-                }
+        StringWriter responseBody = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(responseBody)) {
+            writer.beginObject();
+            writer.name("items").beginArray();
+
+            // Fills the page in a single pass, since a scan call stops early once it has read 1 MB
+            int count = 0;
+            Map<String, AttributeValue> lastEvaluatedKey;
+            do {
+                ScanResponse page = dynamoDbClient.scan(scanRequest.limit(pageSize - count).build());
+                for (Map<String, AttributeValue> item : page.items())
+                    StudentsSchema.writeJson(writer, item);
+                count += page.count();
+                lastEvaluatedKey = page.hasLastEvaluatedKey() ? page.lastEvaluatedKey() : null;
+                scanRequest.exclusiveStartKey(lastEvaluatedKey);
+            } while (count < pageSize && lastEvaluatedKey != null);
+
+            writer.endArray();
+            writer.name("count").value(count);
+            String nextCursor = ScanCursor.encode(lastEvaluatedKey);
+            if (nextCursor != null)
+                writer.name("nextCursor").value(nextCursor);
+            writer.endObject();
+        } catch (DynamoDbException | IOException error) {
+            System.err.println(error.getMessage());
+            return ApiGateway.generateErrorResponse(502, "The table could not be scanned", 0);
+        }
+        return ApiGateway.generateResponseForPostOrGetRequest(responseBody.toString());
+    }
+
+    /**
+     * Exports every item of the table as newline-delimited JSON with the Students attributes, the format that the
+     * import reads. The table is scanned as totalSegments parallel segments, and only the current page of each segment
+     * is held in memory.
+     * @param dynamoDbClient Client for accessing DynamoDB.
+     * @param tableName The name of the table.
+     * @param totalSegments The number of segments scanned in parallel.
+     * @param output The writer that receives one JSON item per line.
+     * @return Number of exported items.
+     */
+    public static long exportTable(DynamoDbClient dynamoDbClient, String tableName, int totalSegments, Writer output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(totalSegments, runnable -> {
+            Thread thread = new Thread(runnable, "dynamodb-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Long>> segments = new ArrayList<>();
+        try {
+            for (int segment = 0; segment < totalSegments; segment++) {
+                ScanRequest scanRequest = ScanRequest.builder()
+                        .tableName(tableName)
+                        .segment(segment)
+                        .totalSegments(totalSegments)
+                        .projectionExpression(StudentsSchema.projectionExpression)
+                        .expressionAttributeNames(StudentsSchema.projectionAttributeNames)
+                        .build();
+                segments.add(executor.submit(() -> exportSegment(dynamoDbClient, scanRequest, output)));
             }
-            return ApiGateway.generateResponseForPostOrGetRequest(jsonArray.toString());
-        } else {
-            return ApiGateway.generateResponseForPostOrGetRequest("");
+
+            long count = 0;
+            for (Future<Long> segment : segments)
+                count += segment.get();
+            return count;
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof IOException)
+                throw (IOException) error.getCause();
+            if (error.getCause() instanceof RuntimeException)
+                throw (RuntimeException) error.getCause();
+            throw new IOException(error.getCause());
+        } finally {
+            for (Future<Long> segment : segments)
+                segment.cancel(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private static long exportSegment(DynamoDbClient dynamoDbClient, ScanRequest scanRequest, Writer output) throws IOException {
+        long count = 0;
+        for (ScanResponse page : dynamoDbClient.scanPaginator(scanRequest)) {
+            StringWriter lines = new StringWriter();
+            for (Map<String, AttributeValue> item : page.items()) {
+                JsonWriter writer = new JsonWriter(lines);
+                StudentsSchema.writeJson(writer, item);
+                writer.flush();
+                lines.write('\n');
+            }
+            synchronized (output) {
+                output.write(lines.toString());
+            }
+            count += page.count();
         }
+        return count;
+    }
+
+    private static Object getParameter(Map<String, Object> queryStringParameters, String name) {
+        return queryStringParameters == null ? null : queryStringParameters.get(name);
+    }
+
+    private static int getIntParameter(Map<String, Object> queryStringParameters, String name, int defaultValue) {
+        Object value = getParameter(queryStringParameters, name);
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException error) {
+            throw new IllegalArgumentException("The " + name + " must be an integer");
+        }
+    }
+
+    private static Map<String, String> getUpdatableAttributes() {
+        Map<String, String> attributes = new HashMap<>();
+        for (String attributeName : StudentsSchema.attributeNames)
+            if (!attributeName.equals(StudentsSchema.partitionKey))
+                attributes.put(attributeName.toLowerCase(), attributeName);
+        return Map.copyOf(attributes);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package services.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import services.ClientRegistry;
+import services.SNS;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+/**
+ * Non-blocking variant of the Students operations of {@link DynamoDB} for the lex-bot. Every operation returns a future
+ * that completes with the same messages as its blocking counterpart, once the DynamoDB call, the SNS notification and
+ * the S3 audit write have finished. The notification and the audit write are sent concurrently as soon as the result
+ * of the DynamoDB call is known, so a Lex turn waits for the slowest of them instead of their sum.
+ */
+public class DynamoDBAsync {
+
+    /**
+     * Retrieves an item from a table by primary key.
+     * @param dynamoDbAsyncClient Asynchronous client for accessing DynamoDB.
+     * @param primaryKeyName The name of the primary key attribute.
+     * @param primaryKeyValue The value of the primary key attribute.
+     * @return Future messages that will be displayed to the user in the lex-bot.
+     */
+    public static CompletableFuture<List<String>> getRecord(DynamoDbAsyncClient dynamoDbAsyncClient, String primaryKeyName, String primaryKeyValue) {
+        GetItemRequest getItemRequest = GetItemRequest
+                .builder()
+                .key(Map.of(primaryKeyName, AttributeValue.builder().n(primaryKeyValue).build()))
+                .tableName(System.getenv("DYNAMO_DB_TABLE_NAME"))
+                .build();
+
+        return StudentsCache.getAsync(primaryKeyValue, () -> dynamoDbAsyncClient.getItem(getItemRequest).thenApply(GetItemResponse::item))
+                .thenApply(returnedItem -> DynamoDB.getRecordMessages(primaryKeyName, primaryKeyValue, returnedItem))
+                .exceptionally(error -> getErrorMessages(error, "retrieved"))
+                .thenCompose(messages -> publishMessage(messages, messages.get(messages.size() - 1), "GET"));
+    }
+
+    /**
+     * Puts the student record into the table, replacing an existing student with the same ID.
+     * @param dynamoDbAsyncClient Asynchronous client for accessing DynamoDB.
+     * @param studentRecord The student record.
+     * @return Future messages that will be displayed to the user in the lex-bot.
+     */
+    public static CompletableFuture<List<String>> putRecord(DynamoDbAsyncClient dynamoDbAsyncClient, Students studentRecord) {
+        DynamoDbEnhancedAsyncClient dynamoDbEnhancedAsyncClient = DynamoDbEnhancedAsyncClient
+                .builder()
+                .dynamoDbClient(dynamoDbAsyncClient)
+                .build();
+
+        DynamoDbAsyncTable<Students> table = dynamoDbEnhancedAsyncClient.table(
+                System.getenv("DYNAMO_DB_TABLE_NAME"), StudentsSchema.tableSchema);
+
+        // Put the student data into an Amazon DynamoDB table
+        return table.putItem(studentRecord)
+                .thenApply(ignored -> {
+                    StudentsCache.update(String.valueOf(studentRecord.getStudentId()), StudentsSchema.tableSchema.itemToMap(studentRecord, true));
+                    return messagesOf("Student with ID: " + studentRecord.getStudentId() + " has been successfully added.");
+                })
+                .exceptionally(error -> getErrorMessages(error, "added"))
+                .thenCompose(messages -> publishMessage(messages, messages.get(0), "INSERT"));
+    }
+
+    /**
+     * Deletes a single item in a table by primary key, conditional on the item existing.
+     * @param dynamoDbAsyncClient Asynchronous client for accessing DynamoDB.
+     * @param primaryKeyName The name of the primary key attribute.
+     * @param primaryKeyValue The value of the primary key attribute.
+     * @return Future messages that will be displayed to the user in the lex-bot.
+     */
+    public static CompletableFuture<List<String>> removeRecord(DynamoDbAsyncClient dynamoDbAsyncClient, String primaryKeyName, String primaryKeyValue) {
+        DeleteItemRequest deleteRequest = DeleteItemRequest.builder()
+                .tableName(System.getenv("DYNAMO_DB_TABLE_NAME"))
+                .key(Map.of(primaryKeyName, AttributeValue.builder().n(primaryKeyValue).build()))
+                .conditionExpression("attribute_exists(#key)")
+                .expressionAttributeNames(Map.of("#key", primaryKeyName))
+                .returnValues(ReturnValue.ALL_OLD)
+                .build();
+
+        return dynamoDbAsyncClient.deleteItem(deleteRequest)
+                .thenApply(deleteResponse -> {
+                    StudentsCache.invalidate(primaryKeyValue);
+                    if (deleteResponse.hasAttributes())
+                        System.out.println("Removed student: " + deleteResponse.attributes());
+                    return messagesOf("Student with ID: " + primaryKeyValue + " has been successfully removed.");
+                })
+                .exceptionally(error -> {
+                    if (unwrap(error) instanceof ConditionalCheckFailedException)
+                        return messagesOf("Student with ID: " + primaryKeyValue + " has not been found.");
+                    return getErrorMessages(error, "removed");
+                })
+                .thenCompose(messages -> publishMessage(messages, messages.get(0), "REMOVE"));
+    }
+
+    /**
+     * Edits several attributes of an existing item with a single conditional update.
+     * @param dynamoDbAsyncClient Asynchronous client for accessing DynamoDB.
+     * @param primaryKeyName The name of the primary key attribute.
+     * @param primaryKeyValue The value of the primary key attribute.
+     * @param newValues The new values by attribute name.
+     * @return Future messages that will be displayed to the user in the lex-bot.
+     */
+    public static CompletableFuture<List<String>> updateRecord(DynamoDbAsyncClient dynamoDbAsyncClient,
+                                                               String primaryKeyName,
+                                                               String primaryKeyValue,
+                                                               Map<String, String> newValues) {
+        List<String> updatedAttributes = new ArrayList<>();
+        UpdateItemRequest request = DynamoDB.buildUpdateRequest(primaryKeyName, primaryKeyValue, newValues, updatedAttributes);
+
+        CompletableFuture<List<String>> messages;
+        if (request != null) {
+            messages = dynamoDbAsyncClient.updateItem(request)
+                    .thenApply(response -> {
+                        StudentsCache.update(primaryKeyValue, response.attributes());
+                        return messagesOf(DynamoDB.getUpdateMessage(updatedAttributes, primaryKeyValue));
+                    })
+                    .exceptionally(error -> {
+                        if (unwrap(error) instanceof ConditionalCheckFailedException)
+                            return messagesOf("Student with ID: " + primaryKeyValue + " has not been found.");
+                        return getErrorMessages(error, "updated");
+                    });
+        } else {
+            messages = CompletableFuture.completedFuture(messagesOf("An invalid student ID or attribute name was entered. Please try again."));
+        }
+        return messages.thenCompose(updateMessages -> publishMessage(updateMessages, updateMessages.get(0), "UPDATE"));
+    }
+
+    /**
+     * Publishes the main message to the SNS topic, which also audits it in the S3 bucket.
+     * @param messages Messages that will be displayed to the user in the lex-bot.
+     * @param mainMessage The message to publish.
+     * @param type Type of action that was taken on the DynamoDB table (GET, INSERT, REMOVE, or UPDATE).
+     * @return Future messages, completed once the message was published and audited.
+     */
+    private static CompletableFuture<List<String>> publishMessage(List<String> messages, String mainMessage, String type) {
+        return SNS.publishMessageAsync(ClientRegistry.snsAsync(), System.getenv("SNS_TOPIC_ARN"), messages, mainMessage, type);
+    }
+
+    /**
+     * Logs a failed DynamoDB call. Unlike the blocking service, the Lambda container is kept alive and the user is told
+     * that the operation failed.
+     * @param error The failure of the DynamoDB call.
+     * @param action The action that failed, e.g. "retrieved".
+     * @return Messages that will be displayed to the user in the lex-bot.
+     */
+    private static List<String> getErrorMessages(Throwable error, String action) {
+        System.err.println(unwrap(error).getMessage());
+        return messagesOf("The student could not be " + action + ". Please try again.");
+    }
+
+    private static List<String> messagesOf(String message) {
+        List<String> messages = new ArrayList<>();
+        messages.add(message);
+        return messages;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
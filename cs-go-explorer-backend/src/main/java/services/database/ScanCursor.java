@@ -0,0 +1,86 @@
+package services.database;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Opaque pagination cursor of a table scan. The cursor is the LastEvaluatedKey of the previous page, serialized
+ * as JSON and base64url-encoded, so that clients can pass it back without knowing the key schema of the table.
+ */
+public class ScanCursor {
+
+    /**
+     * Encodes the LastEvaluatedKey of a scan page.
+     * @param lastEvaluatedKey The primary key of the last item of the page.
+     * @return Cursor of the next page, or null if the scan is complete.
+     */
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty())
+            return null;
+
+        StringWriter stringWriter = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(stringWriter)) {
+            writer.beginObject();
+            for (Map.Entry<String, AttributeValue> keyAttribute : lastEvaluatedKey.entrySet()) {
+                AttributeValue value = keyAttribute.getValue();
+                writer.name(keyAttribute.getKey()).beginObject();
+                if (value.n() != null)
+                    writer.name("N").value(value.n());
+                else if (value.s() != null)
+                    writer.name("S").value(value.s());
+                else
+                    throw new IllegalArgumentException("Unsupported key attribute type of " + keyAttribute.getKey());
+                writer.endObject();
+            }
+            writer.endObject();
+        } catch (IOException error) {
+            throw new IllegalStateException(error);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(stringWriter.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor back into the ExclusiveStartKey of the next scan page.
+     * @param cursor The cursor returned with the previous page.
+     * @return Primary key to start the scan after, or null if the cursor is missing.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public static Map<String, AttributeValue> decode(String cursor) {
+        if (cursor == null || cursor.isEmpty())
+            return null;
+
+        Map<String, AttributeValue> exclusiveStartKey = new HashMap<>();
+        try (JsonReader reader = new JsonReader(new StringReader(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String attributeName = reader.nextName();
+                reader.beginObject();
+                String type = reader.nextName();
+                String value = reader.nextString();
+                reader.endObject();
+                if (type.equals("N"))
+                    exclusiveStartKey.put(attributeName, AttributeValue.builder().n(value).build());
+                else if (type.equals("S"))
+                    exclusiveStartKey.put(attributeName, AttributeValue.builder().s(value).build());
+                else
+                    throw new IllegalArgumentException("Unsupported key attribute type " + type);
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException error) {
+            throw new IllegalArgumentException("Malformed cursor", error);
+        }
+        if (exclusiveStartKey.isEmpty())
+            throw new IllegalArgumentException("Malformed cursor");
+        return exclusiveStartKey;
+    }
+}
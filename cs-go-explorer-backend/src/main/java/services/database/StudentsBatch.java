@@ -0,0 +1,617 @@
+package services.database;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import services.api.ApiGateway;
+import services.api.ApiGatewayProxyResponse;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * Bulk import and multi-ID lookup of students. Rosters are streamed from CSV or newline-delimited JSON and written with
+ * 25-item BatchWriteItem calls, at most STUDENTS_BATCH_CONCURRENCY (4 by default) at a time and within a budget of
+ * STUDENTS_BATCH_WRITES_PER_SECOND items per second (10 by default, the provisioned write capacity of the table).
+ * Unprocessed items are retried with exponential backoff and jitter. Students are read with 100-key BatchGetItem calls.
+ * An import through the REST API has to finish within the 29 second integration timeout of API Gateway, so it is
+ * limited to STUDENTS_BATCH_MAX_REQUEST_ROWS rows (20 seconds of the write budget by default). Larger rosters are
+ * imported from a file with launcher.StudentsBatchLauncher.
+ */
+public class StudentsBatch {
+
+    private static final int maxBatchWriteItems = 25;
+    private static final int maxBatchGetKeys = 100;
+    private static final int maxAttempts = 8;
+    private static final long baseRetryDelayMillis = 50;
+    private static final long maxRetryDelayMillis = 2000;
+    private static final int concurrency = (int) getEnvOrDefault("STUDENTS_BATCH_CONCURRENCY", 4);
+    private static final long writesPerSecond = getEnvOrDefault("STUDENTS_BATCH_WRITES_PER_SECOND", 10);
+    private static final long maxRequestRows = getEnvOrDefault("STUDENTS_BATCH_MAX_REQUEST_ROWS", writesPerSecond * 20);
+    private static final int maxRequestIds = 1000;
+
+    /**
+     * Imports the students of the request body, sent as CSV with a header row (Content-Type text/csv)
+     * or as one JSON object per line. Rosters with more than STUDENTS_BATCH_MAX_REQUEST_ROWS rows are rejected before
+     * anything is written, because they could not be written before API Gateway times out the request.
+     * @param dynamoDbClient Client for accessing DynamoDB.
+     * @param event The Lambda Function event.
+     * @return API Gateway proxy response containing status code, headers, and body.
+     */
+    public static ApiGatewayProxyResponse importStudents(DynamoDbClient dynamoDbClient, Map<String, Object> event) {
+        // Handles CORS preflight request
+        if (event.get("httpMethod").equals("OPTIONS"))
+            return ApiGateway.generateResponseForOptionsRequest();
+
+        String body = event.get("body") == null ? "" : event.get("body").toString();
+        if (Boolean.TRUE.equals(event.get("isBase64Encoded")))
+            body = new String(Base64.getDecoder().decode(body), StandardCharsets.UTF_8);
+        String contentType = getHeader(event, "Content-Type");
+        boolean isCsv = contentType != null && contentType.toLowerCase().startsWith("text/csv");
+        if (countRows(body, isCsv, maxRequestRows) > maxRequestRows)
+            return ApiGateway.generateErrorResponse(413, "At most " + maxRequestRows + " students can be imported in a request, " +
+                    "larger rosters must be imported with launcher.StudentsBatchLauncher", 0);
+
+        try {
+            ImportResult result = importStudents(dynamoDbClient, System.getenv("DYNAMO_DB_TABLE_NAME"), new StringReader(body), isCsv);
+            return ApiGateway.generateResponseForPostOrGetRequest(result.toJson());
+        } catch (IOException error) {
+            return ApiGateway.generateErrorResponse(400, error.getMessage(), 0);
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            return ApiGateway.generateErrorResponse(503, "The import was interrupted", 0);
+        }
+    }
+
+    /**
+     * Gets the students whose IDs are listed in the comma-separated "ids" query string parameter.
+     * @param dynamoDbClient Client for accessing DynamoDB.
+     * @param event The Lambda Function event.
+     * @return API Gateway proxy response containing status code, headers, and body.
+     */
+    public static ApiGatewayProxyResponse getStudents(DynamoDbClient dynamoDbClient, Map<String, Object> event) {
+        // Handles CORS preflight request
+        if (event.get("httpMethod").equals("OPTIONS"))
+            return ApiGateway.generateResponseForOptionsRequest();
+
+        Map<String, Object> queryStringParameters = (Map<String, Object>) event.get("queryStringParameters");
+        Object ids = queryStringParameters == null ? null : queryStringParameters.get("ids");
+        // Deduplicated after parsing, because e.g. 7 and 007 are the same key and BatchGetItem rejects duplicate keys
+        Set<Long> studentIds = new LinkedHashSet<>();
+        if (ids != null) {
+            try {
+                for (String studentId : ids.toString().split(","))
+                    if (!studentId.isBlank())
+                        studentIds.add(StudentsSchema.parseStudentId(studentId));
+            } catch (NumberFormatException error) {
+                return ApiGateway.generateErrorResponse(400, "Student IDs must be numbers", 0);
+            }
+        }
+        if (studentIds.isEmpty() || studentIds.size() > maxRequestIds)
+            return ApiGateway.generateErrorResponse(400, "Between 1 and " + maxRequestIds + " comma-separated student IDs must be passed as ids", 0);
+
+        StringWriter responseBody = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(responseBody)) {
+            List<Map<String, AttributeValue>> items = getStudents(dynamoDbClient, System.getenv("DYNAMO_DB_TABLE_NAME"), studentIds);
+            writer.beginObject();
+            writer.name("items").beginArray();
+            for (Map<String, AttributeValue> item : items)
+                StudentsSchema.writeJson(writer, item);
+            writer.endArray();
+            writer.name("count").value(items.size());
+            writer.endObject();
+        } catch (SdkException | IOException error) {
+            System.err.println(error.getMessage());
+            return ApiGateway.generateErrorResponse(502, "The students could not be read", 0);
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            return ApiGateway.generateErrorResponse(503, "The lookup was interrupted", 0);
+        }
+        return ApiGateway.generateResponseForPostOrGetRequest(responseBody.toString());
+    }
+
+    /**
+     * Streams students from the input into the table. Rows that cannot be parsed are skipped and reported.
+     * @param dynamoDbClient Client for accessing DynamoDB.
+     * @param tableName The name of the table.
+     * @param input CSV with a header row, or one JSON object per line.
+     * @param isCsv Whether the input is CSV or newline-delimited JSON.
+     * @return Result of the import.
+     */
+    public static ImportResult importStudents(DynamoDbClient dynamoDbClient, String tableName, Reader input, boolean isCsv) throws IOException, InterruptedException {
+        ImportResult result = new ImportResult();
+        ThroughputBudget budget = new ThroughputBudget(writesPerSecond);
+        // Bounds the batches read ahead of the writers, so that a roster read from a file is never buffered in full
+        Semaphore pendingBatches = new Semaphore(concurrency * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "dynamodb-batch-write");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> batches = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(input)) {
+            RowReader rows = isCsv ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+            // Keyed by student ID, because a batch must not write the same key twice
+            Map<String, Map<String, AttributeValue>> batch = new LinkedHashMap<>();
+            Map<String, String> row;
+            while ((row = rows.next()) != null) {
+                Map<String, AttributeValue> item;
+                try {
+                    item = toItem(row);
+                } catch (IllegalArgumentException error) {
+                    result.reject("Row " + rows.getRowNumber() + ": " + error.getMessage());
+                    continue;
+                }
+
+                batch.put(item.get(StudentsSchema.partitionKey).n(), item);
+                if (batch.size() == maxBatchWriteItems) {
+                    batches.add(submit(executor, pendingBatches, dynamoDbClient, tableName, batch.values(), budget, result));
+                    batch = new LinkedHashMap<>();
+                }
+            }
+            if (!batch.isEmpty())
+                batches.add(submit(executor, pendingBatches, dynamoDbClient, tableName, batch.values(), budget, result));
+
+            for (Future<?> pendingBatch : batches)
+                pendingBatch.get();
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof RuntimeException)
+                throw (RuntimeException) error.getCause();
+            throw new IOException(error.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.println("Students import: " + result.toJson());
+        return result;
+    }
+
+    /**
+     * Gets the students with the given IDs. Students that do not exist are left out.
+     * @param dynamoDbClient Client for accessing DynamoDB.
+     * @param tableName The name of the table.
+     * @param studentIds The student IDs, without duplicates.
+     * @return Items of the students that exist.
+     */
+    public static List<Map<String, AttributeValue>> getStudents(DynamoDbClient dynamoDbClient, String tableName, Set<Long> studentIds) throws InterruptedException {
+        List<Map<String, AttributeValue>> items = new ArrayList<>(studentIds.size());
+        List<Map<String, AttributeValue>> keys = new ArrayList<>(maxBatchGetKeys);
+        for (long studentId : studentIds) {
+            keys.add(Map.of(StudentsSchema.partitionKey, AttributeValue.builder().n(String.valueOf(studentId)).build()));
+            if (keys.size() == maxBatchGetKeys) {
+                items.addAll(batchGet(dynamoDbClient, tableName, keys));
+                keys = new ArrayList<>(maxBatchGetKeys);
+            }
+        }
+        if (!keys.isEmpty())
+            items.addAll(batchGet(dynamoDbClient, tableName, keys));
+        return items;
+    }
+
+    private static List<Map<String, AttributeValue>> batchGet(DynamoDbClient dynamoDbClient, String tableName, List<Map<String, AttributeValue>> keys) throws InterruptedException {
+        List<Map<String, AttributeValue>> items = new ArrayList<>(keys.size());
+        Map<String, KeysAndAttributes> requestItems = Map.of(tableName, KeysAndAttributes
+                .builder()
+                .keys(keys)
+                .projectionExpression(StudentsSchema.projectionExpression)
+                .expressionAttributeNames(StudentsSchema.projectionAttributeNames)
+                .build());
+
+        for (int attempt = 1; ; attempt++) {
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder().requestItems(requestItems).build());
+            items.addAll(response.responses().getOrDefault(tableName, List.of()));
+            if (!response.hasUnprocessedKeys() || response.unprocessedKeys().isEmpty())
+                return items;
+            if (attempt == maxAttempts)
+                throw DynamoDbException.builder().message(response.unprocessedKeys().get(tableName).keys().size() +
+                        " keys were still unprocessed after " + maxAttempts + " attempts").build();
+
+            requestItems = response.unprocessedKeys();
+            sleepBeforeRetry(attempt);
+        }
+    }
+
+    private static Future<?> submit(ExecutorService executor,
+                                    Semaphore pendingBatches,
+                                    DynamoDbClient dynamoDbClient,
+                                    String tableName,
+                                    Collection<Map<String, AttributeValue>> items,
+                                    ThroughputBudget budget,
+                                    ImportResult result) throws InterruptedException {
+        List<WriteRequest> writeRequests = new ArrayList<>(items.size());
+        for (Map<String, AttributeValue> item : items)
+            writeRequests.add(WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build());
+
+        pendingBatches.acquire();
+        try {
+            return executor.submit(() -> {
+                try {
+                    writeBatch(dynamoDbClient, tableName, writeRequests, budget, result);
+                } finally {
+                    pendingBatches.release();
+                }
+                return null;
+            });
+        } catch (RuntimeException error) {
+            pendingBatches.release();
+            throw error;
+        }
+    }
+
+    /**
+     * Writes a batch, retrying its unprocessed items with exponential backoff and full jitter.
+     */
+    private static void writeBatch(DynamoDbClient dynamoDbClient, String tableName, List<WriteRequest> writeRequests,
+                                   ThroughputBudget budget, ImportResult result) throws InterruptedException {
+        result.batches.incrementAndGet();
+        List<WriteRequest> pending = writeRequests;
+        for (int attempt = 1; ; attempt++) {
+            budget.acquire(pending.size());
+            BatchWriteItemResponse response;
+            try {
+                response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder().requestItems(Map.of(tableName, pending)).build());
+            } catch (SdkException error) {
+                // Service errors, and client errors such as timeouts, fail the items of the batch that are not written yet
+                System.err.println(error.getMessage());
+                result.failed.addAndGet(pending.size());
+                invalidate(writeRequests);
+                return;
+            }
+
+            List<WriteRequest> unprocessed = response.hasUnprocessedItems()
+                    ? response.unprocessedItems().getOrDefault(tableName, List.of())
+                    : List.of();
+            result.imported.addAndGet(pending.size() - unprocessed.size());
+            if (unprocessed.isEmpty())
+                break;
+            if (attempt == maxAttempts) {
+                result.failed.addAndGet(unprocessed.size());
+                break;
+            }
+
+            result.retries.incrementAndGet();
+            pending = unprocessed;
+            sleepBeforeRetry(attempt);
+        }
+        invalidate(writeRequests);
+    }
+
+    private static void invalidate(List<WriteRequest> writeRequests) {
+        for (WriteRequest writeRequest : writeRequests)
+            StudentsCache.invalidate(writeRequest.putRequest().item().get(StudentsSchema.partitionKey).n());
+    }
+
+    private static void sleepBeforeRetry(int attempt) throws InterruptedException {
+        long maxDelayMillis = Math.min(maxRetryDelayMillis, baseRetryDelayMillis << Math.min(attempt, 10));
+        Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelayMillis + 1));
+    }
+
+    /**
+     * Converts a parsed row into a Students item, matching column names to attributes case-insensitively.
+     * @param row Column names and values of the row.
+     * @return Students item.
+     * @throws IllegalArgumentException If the row has no valid student ID.
+     */
+    private static Map<String, AttributeValue> toItem(Map<String, String> row) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        for (Map.Entry<String, String> column : row.entrySet()) {
+            String value = column.getValue() == null ? "" : column.getValue().trim();
+            if (value.isEmpty())
+                continue;
+
+            for (String attributeName : StudentsSchema.attributeNames) {
+                if (!attributeName.equalsIgnoreCase(column.getKey().trim()))
+                    continue;
+
+                if (attributeName.equals(StudentsSchema.partitionKey)) {
+                    try {
+                        item.put(attributeName, AttributeValue.builder().n(String.valueOf(StudentsSchema.parseStudentId(value))).build());
+                    } catch (NumberFormatException error) {
+                        throw new IllegalArgumentException("invalid student ID " + value);
+                    }
+                } else {
+                    item.put(attributeName, AttributeValue.builder().s(value).build());
+                }
+            }
+        }
+        if (!item.containsKey(StudentsSchema.partitionKey))
+            throw new IllegalArgumentException("missing student ID");
+        return item;
+    }
+
+    /**
+     * Counts the non-blank lines of a roster without the CSV header, stopping once the limit is exceeded. A quoted CSV
+     * field with line breaks is counted as several rows, which only makes the limit stricter.
+     * @param body The roster.
+     * @param isCsv Whether the roster is CSV or newline-delimited JSON.
+     * @param limit The maximum number of rows.
+     * @return Number of rows, or limit + 1 if there are more.
+     */
+    static long countRows(String body, boolean isCsv, long limit) {
+        long rows = isCsv ? -1 : 0;
+        boolean isBlankLine = true;
+        for (int i = 0; i < body.length() && rows <= limit; i++) {
+            char character = body.charAt(i);
+            if (character == '\n') {
+                if (!isBlankLine)
+                    rows++;
+                isBlankLine = true;
+            } else if (!Character.isWhitespace(character)) {
+                isBlankLine = false;
+            }
+        }
+        if (!isBlankLine)
+            rows++;
+        return Math.max(0, Math.min(rows, limit + 1));
+    }
+
+    private static String getHeader(Map<String, Object> event, String name) {
+        Map<String, Object> headers = (Map<String, Object>) event.get("headers");
+        if (headers == null)
+            return null;
+
+        for (Map.Entry<String, Object> header : headers.entrySet())
+            if (header.getKey().equalsIgnoreCase(name) && header.getValue() != null)
+                return header.getValue().toString();
+        return null;
+    }
+
+    private static long getEnvOrDefault(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+
+    /**
+     * Counts of an import.
+     */
+    public static class ImportResult {
+        private static final int maxReportedErrors = 20;
+
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+
+        private synchronized void reject(String error) {
+            rejected.incrementAndGet();
+            if (errors.size() < maxReportedErrors)
+                errors.add(error);
+        }
+
+        public long getImported() {
+            return imported.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        /**
+         * Gets the number of items that could not be written, even after retrying them.
+         * @return Number of failed items.
+         */
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public long getBatches() {
+            return batches.get();
+        }
+
+        public long getRetries() {
+            return retries.get();
+        }
+
+        public synchronized String toJson() {
+            StringWriter stringWriter = new StringWriter();
+            try (JsonWriter writer = new JsonWriter(stringWriter)) {
+                writer.beginObject();
+                writer.name("imported").value(imported.get());
+                writer.name("rejected").value(rejected.get());
+                writer.name("failed").value(failed.get());
+                writer.name("batches").value(batches.get());
+                writer.name("retries").value(retries.get());
+                writer.name("errors").beginArray();
+                for (String error : errors)
+                    writer.value(error);
+                writer.endArray();
+                writer.endObject();
+            } catch (IOException error) {
+                throw new IllegalStateException(error);
+            }
+            return stringWriter.toString();
+        }
+    }
+
+    /**
+     * Paces the writes so that they stay within a number of items per second.
+     */
+    private static class ThroughputBudget {
+        private final double nanosPerItem;
+        private long nextFreeNanos = System.nanoTime();
+
+        ThroughputBudget(long itemsPerSecond) {
+            this.nanosPerItem = TimeUnit.SECONDS.toNanos(1) / (double) Math.max(1, itemsPerSecond);
+        }
+
+        void acquire(int items) throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(now, nextFreeNanos);
+                nextFreeNanos = start + (long) (items * nanosPerItem);
+                waitNanos = start - now;
+            }
+            if (waitNanos > 0)
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Reads the rows of a roster one at a time.
+     */
+    interface RowReader {
+        Map<String, String> next() throws IOException;
+
+        long getRowNumber();
+    }
+
+    /**
+     * Reads CSV records, with quoted fields that may contain commas, doubled quotes and line breaks.
+     * The first record is the header with the column names.
+     */
+    static class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private List<String> header;
+        private long rowNumber;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                header = readRecord();
+                if (header == null)
+                    return null;
+            }
+
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null)
+                    return null;
+                rowNumber++;
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size() && i < record.size(); i++)
+                row.put(header.get(i), record.get(i));
+            return row;
+        }
+
+        @Override
+        public long getRowNumber() {
+            return rowNumber;
+        }
+
+        private List<String> readRecord() throws IOException {
+            int character = reader.read();
+            if (character == -1)
+                return null;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean isQuoted = false;
+            while (character != -1) {
+                if (isQuoted) {
+                    if (character == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            isQuoted = false;
+                        }
+                    } else {
+                        field.append((char) character);
+                    }
+                } else if (character == '"') {
+                    isQuoted = true;
+                } else if (character == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (character == '\n') {
+                    break;
+                } else if (character != '\r') {
+                    field.append((char) character);
+                }
+                character = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * Reads one JSON object per line. Blank lines are skipped.
+     */
+    private static class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long rowNumber;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null)
+                    return null;
+                rowNumber++;
+            } while (line.isBlank());
+
+            Map<String, String> row = new LinkedHashMap<>();
+            try (JsonReader jsonReader = new JsonReader(new StringReader(line))) {
+                jsonReader.beginObject();
+                while (jsonReader.hasNext()) {
+                    String name = jsonReader.nextName();
+                    JsonToken token = jsonReader.peek();
+                    if (token == JsonToken.STRING || token == JsonToken.NUMBER)
+                        row.put(name, jsonReader.nextString());
+                    else
+                        jsonReader.skipValue();
+                }
+                jsonReader.endObject();
+            } catch (IOException | IllegalStateException error) {
+                // Reported as a row without a student ID
+                row.clear();
+            }
+            return row;
+        }
+
+        @Override
+        public long getRowNumber() {
+            return rowNumber;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package services.database;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import services.cache.CacheEntry;
+import services.cache.CacheMetrics;
+import services.cache.LruCacheTier;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Read-through cache of Students items keyed by student ID. Items are kept in a size-bounded in-process tier of
+ * STUDENTS_CACHE_MAX_ENTRIES entries (500 by default) for STUDENTS_CACHE_TTL_SECONDS seconds (30 by default),
+ * which bounds how long a write made by another Lambda container can go unnoticed. Students that do not exist are
+ * cached as well. Writes through {@link DynamoDB} update or invalidate the entry of the student they change.
+ */
+public class StudentsCache {
+
+    private static final Map<String, AttributeValue> missingItem = Map.of();
+    private static final long timeToLiveMillis = getEnvOrDefault("STUDENTS_CACHE_TTL_SECONDS", 30) * 1000L;
+    private static final CacheMetrics metrics = new CacheMetrics();
+    private static final LruCacheTier<Map<String, AttributeValue>> items = new LruCacheTier<>(
+            (int) getEnvOrDefault("STUDENTS_CACHE_MAX_ENTRIES", 500), metrics);
+
+    // Incremented by every write, so that a read that raced with a write does not cache the value it read before the write
+    private static final AtomicLong writeGeneration = new AtomicLong();
+    // Held while the generation is changed or compared and the entry is changed, so that no write falls between the two
+    private static final Object writeLock = new Object();
+
+    /**
+     * Gets the item of the student from the cache, or loads it from the table and caches it.
+     * @param studentId The student ID.
+     * @param loader Reads the item from the table, returning an empty map if the student does not exist.
+     * @return Item of the student, or an empty map if the student does not exist.
+     */
+    public static Map<String, AttributeValue> get(String studentId, Supplier<Map<String, AttributeValue>> loader) {
+        String key = normalize(studentId);
+        Map<String, AttributeValue> cachedItem = getFresh(key);
+        if (cachedItem != null)
+            return cachedItem;
+
+        long generation = writeGeneration.get();
+        return store(key, loader.get(), generation);
+    }
+
+    /**
+     * Gets the item of the student from the cache, or loads it from the table without blocking and caches it.
+     * @param studentId The student ID.
+     * @param loader Starts reading the item from the table, completing with an empty map if the student does not exist.
+     * @return Future item of the student, or an empty map if the student does not exist.
+     */
+    public static CompletableFuture<Map<String, AttributeValue>> getAsync(String studentId, Supplier<CompletableFuture<Map<String, AttributeValue>>> loader) {
+        String key = normalize(studentId);
+        Map<String, AttributeValue> cachedItem = getFresh(key);
+        if (cachedItem != null)
+            return CompletableFuture.completedFuture(cachedItem);
+
+        long generation = writeGeneration.get();
+        return loader.get().thenApply(item -> store(key, item, generation));
+    }
+
+    /**
+     * Caches the item that was just written to the table.
+     * @param studentId The student ID.
+     * @param item The complete item of the student.
+     */
+    public static void update(String studentId, Map<String, AttributeValue> item) {
+        String key = normalize(studentId);
+        Map<String, AttributeValue> itemCopy = Map.copyOf(item);
+        synchronized (writeLock) {
+            writeGeneration.incrementAndGet();
+            put(key, itemCopy, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Removes the student from the cache after it was changed or deleted in the table.
+     * @param studentId The student ID.
+     */
+    public static void invalidate(String studentId) {
+        String key = normalize(studentId);
+        synchronized (writeLock) {
+            writeGeneration.incrementAndGet();
+            items.invalidate(key);
+        }
+    }
+
+    public static CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static Map<String, AttributeValue> getFresh(String key) {
+        CacheEntry<Map<String, AttributeValue>> entry = items.get(key);
+        if (entry != null && entry.isFresh(System.currentTimeMillis())) {
+            metrics.recordHit();
+            return entry.getValue();
+        }
+        metrics.recordMiss();
+        return null;
+    }
+
+    /**
+     * Caches the loaded item, unless the student was written while it was being loaded. The generation is compared
+     * under the write lock, since a write between the comparison and the put would be overwritten by the stale item.
+     * @param key Cache key of the student.
+     * @param item The loaded item.
+     * @param generation The write generation before the item was loaded.
+     * @return Item of the student, or an empty map if the student does not exist.
+     */
+    private static Map<String, AttributeValue> store(String key, Map<String, AttributeValue> item, long generation) {
+        if (item == null || item.isEmpty())
+            item = missingItem;
+        synchronized (writeLock) {
+            if (writeGeneration.get() == generation)
+                put(key, item, System.currentTimeMillis());
+        }
+        return item;
+    }
+
+    private static void put(String key, Map<String, AttributeValue> item, long now) {
+        items.put(key, new CacheEntry<>(item, now + timeToLiveMillis, now + timeToLiveMillis));
+    }
+
+    /**
+     * Normalizes the student ID the way DynamoDB compares numbers, so that e.g. "007" and "7" share an entry.
+     * @param studentId The student ID.
+     * @return Cache key of the student.
+     */
+    private static String normalize(String studentId) {
+        try {
+            return new BigDecimal(studentId.trim()).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException error) {
+            return studentId;
+        }
+    }
+
+    private static long getEnvOrDefault(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+}
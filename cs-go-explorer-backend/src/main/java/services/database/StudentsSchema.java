@@ -0,0 +1,107 @@
+package services.database;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.stream.JsonWriter;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Static table schema of the Students table. Unlike TableSchema.fromBean, it is built without reflection
+ * or bean introspection, which keeps it cheap to create on a cold start.
+ */
+public class StudentsSchema {
+
+    public static final String partitionKey = "studentId";
+
+    // Attributes in the order they are written to JSON, the partition key first
+    public static final List<String> attributeNames = List.of(
+            "studentId", "firstName", "lastName", "dateOfBirth", "classification", "email");
+
+    public static final TableSchema<Students> tableSchema = StaticTableSchema
+            .builder(Students.class)
+            .newItemSupplier(Students::new)
+            .addAttribute(Integer.class, attribute -> attribute
+                    .name("studentId")
+                    .getter(Students::getStudentId)
+                    .setter(Students::setStudentId)
+                    .tags(primaryPartitionKey()))
+            .addAttribute(String.class, attribute -> attribute
+                    .name("firstName")
+                    .getter(Students::getFirstName)
+                    .setter(Students::setFirstName))
+            .addAttribute(String.class, attribute -> attribute
+                    .name("lastName")
+                    .getter(Students::getLastName)
+                    .setter(Students::setLastName))
+            .addAttribute(String.class, attribute -> attribute
+                    .name("dateOfBirth")
+                    .getter(Students::getDateOfBirth)
+                    .setter(Students::setDateOfBirth))
+            .addAttribute(String.class, attribute -> attribute
+                    .name("classification")
+                    .getter(Students::getClassification)
+                    .setter(Students::setClassification))
+            .addAttribute(String.class, attribute -> attribute
+                    .name("email")
+                    .getter(Students::getEmail)
+                    .setter(Students::setEmail))
+            .build();
+
+    // "#a0, #a1, ..." with the matching expression attribute names, so attribute names never clash with reserved words
+    public static final String projectionExpression;
+    public static final Map<String, String> projectionAttributeNames;
+
+    static {
+        StringBuilder expression = new StringBuilder();
+        Map<String, String> expressionAttributeNames = new HashMap<>();
+        for (int i = 0; i < attributeNames.size(); i++) {
+            if (i > 0)
+                expression.append(", ");
+            expression.append("#a").append(i);
+            expressionAttributeNames.put("#a" + i, attributeNames.get(i));
+        }
+        projectionExpression = expression.toString();
+        projectionAttributeNames = Map.copyOf(expressionAttributeNames);
+    }
+
+    /**
+     * Writes a Students item as a JSON object straight from its attribute values, with the student ID as a number.
+     * Attributes the item does not have are left out.
+     * @param writer The writer.
+     * @param item The Students item.
+     */
+    public static void writeJson(JsonWriter writer, Map<String, AttributeValue> item) throws IOException {
+        writer.beginObject();
+        for (String attributeName : attributeNames) {
+            AttributeValue value = item.get(attributeName);
+            if (value == null)
+                continue;
+
+            if (value.n() != null)
+                writer.name(attributeName).value(new BigDecimal(value.n()));
+            else if (value.s() != null)
+                writer.name(attributeName).value(value.s());
+        }
+        writer.endObject();
+    }
+
+    /**
+     * Parses a student ID. Every path that takes a student ID from a user, an import or a lookup, parses it here, so
+     * that an ID accepted by one of them is accepted by all of them and keys the same item.
+     * @param studentId The student ID, surrounding whitespace allowed.
+     * @return The student ID.
+     * @throws NumberFormatException If the student ID is not a whole number.
+     */
+    public static long parseStudentId(String studentId) {
+        return Long.parseLong(studentId.trim());
+    }
+}
@@ -0,0 +1,136 @@
+package services.api.steam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SteamRequestCoalescerTest {
+
+    private static final int callers = 100;
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        SteamResponseCache.SteamRequest request = () -> {
+            upstreamCalls.incrementAndGet();
+            release.await();
+            return new SteamResponse("{\"players\":[]}", true);
+        };
+
+        long coalescedBefore = SteamRequestCoalescer.getCoalescedRequests();
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<SteamResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                // The order of the query parameters does not matter
+                String query = i % 2 == 0 ? "steamids=1&format=json" : "format=json&steamids=1";
+                responses.add(executor.submit(() -> SteamRequestCoalescer.execute("GetPlayerSummaries-shared", query, request)));
+            }
+
+            // Holds the upstream response until every caller has joined the flight
+            long deadline = System.currentTimeMillis() + 10000;
+            while (SteamRequestCoalescer.getCoalescedRequests() - coalescedBefore < callers - 1 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            release.countDown();
+
+            for (Future<SteamResponse> response : responses)
+                assertEquals("{\"players\":[]}", response.get(10, TimeUnit.SECONDS).getBody());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(callers - 1, SteamRequestCoalescer.getCoalescedRequests() - coalescedBefore);
+    }
+
+    @Test
+    void upstreamCallIsCancelledWhenTheLastWaiterLeaves() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        SteamResponseCache.SteamRequest request = () -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException error) {
+                interrupted.countDown();
+                throw error;
+            }
+            return new SteamResponse("{}", true);
+        };
+
+        long cancellationsBefore = SteamRequestCoalescer.getCancellations();
+        AtomicInteger callerInterrupted = new AtomicInteger();
+        Thread caller = new Thread(() -> {
+            try {
+                SteamRequestCoalescer.execute("GetPlayerSummaries-abandoned", "steamids=2", request);
+            } catch (InterruptedException error) {
+                callerInterrupted.incrementAndGet();
+            } catch (Exception error) {
+                // Only an interruption is expected
+            }
+        });
+        caller.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        caller.interrupt();
+        caller.join(10000);
+        assertEquals(1, callerInterrupted.get());
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS), "the upstream request should be interrupted");
+        assertEquals(1, SteamRequestCoalescer.getCancellations() - cancellationsBefore);
+    }
+
+    @Test
+    void upstreamCallContinuesWhileAnotherCallerWaits() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SteamResponseCache.SteamRequest request = () -> {
+            started.countDown();
+            release.await();
+            return new SteamResponse("{\"friends\":[]}", true);
+        };
+
+        long cancellationsBefore = SteamRequestCoalescer.getCancellations();
+        long coalescedBefore = SteamRequestCoalescer.getCoalescedRequests();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<SteamResponse> leaving = executor.submit(() -> SteamRequestCoalescer.execute("GetFriendList-shared", "steamid=3", request));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<SteamResponse> staying = executor.submit(() -> SteamRequestCoalescer.execute("GetFriendList-shared", "steamid=3", request));
+            long deadline = System.currentTimeMillis() + 10000;
+            while (SteamRequestCoalescer.getCoalescedRequests() == coalescedBefore && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            leaving.cancel(true);
+            release.countDown();
+            assertEquals("{\"friends\":[]}", staying.get(10, TimeUnit.SECONDS).getBody());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(0, SteamRequestCoalescer.getCancellations() - cancellationsBefore);
+    }
+
+    @Test
+    void failedUpstreamCallIsRethrownToTheCaller() {
+        SteamResponseCache.SteamRequest request = () -> {
+            throw new IOException("Steam API returned 503");
+        };
+
+        IOException error = assertThrows(IOException.class,
+                () -> SteamRequestCoalescer.execute("GetNewsForApp-failed", "appid=730", request));
+        assertEquals("Steam API returned 503", error.getMessage());
+    }
+}
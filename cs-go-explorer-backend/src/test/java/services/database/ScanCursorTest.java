@@ -0,0 +1,52 @@
+package services.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+class ScanCursorTest {
+
+    @Test
+    void cursorRoundTripsTheLastEvaluatedKey() {
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of(
+                "studentId", AttributeValue.builder().n("4294967296").build(),
+                "email", AttributeValue.builder().s("ana+\"quoted\"@example.com").build());
+
+        String cursor = ScanCursor.encode(lastEvaluatedKey);
+
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="), "the cursor must be URL-safe");
+        assertEquals(lastEvaluatedKey, ScanCursor.decode(cursor));
+    }
+
+    @Test
+    void completeScanHasNoCursor() {
+        assertNull(ScanCursor.encode(null));
+        assertNull(ScanCursor.encode(Map.of()));
+        assertNull(ScanCursor.decode(null));
+        assertNull(ScanCursor.decode(""));
+    }
+
+    @Test
+    void garbageCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ScanCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> ScanCursor.decode(encode("not json")));
+        assertThrows(IllegalArgumentException.class, () -> ScanCursor.decode(encode("[1, 2]")));
+        assertThrows(IllegalArgumentException.class, () -> ScanCursor.decode(encode("{}")));
+        assertThrows(IllegalArgumentException.class, () -> ScanCursor.decode(encode("{\"studentId\": {\"N\": ")));
+        assertThrows(IllegalArgumentException.class, () -> ScanCursor.decode(encode("{\"studentId\": {\"B\": \"AAE=\"}}")));
+        assertThrows(IllegalArgumentException.class, () -> ScanCursor.decode(encode("{\"studentId\": \"7\"}")));
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,80 @@
+package services.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class StudentsBatchTest {
+
+    @Test
+    void csvFieldsMayBeQuoted() throws IOException {
+        StudentsBatch.CsvRowReader rows = csv(
+                "studentId,firstName,lastName,email\r\n" +
+                "1,\"Ana, Maria\",\"O\"\"Neil\",ana@example.com\r\n" +
+                "2,\"Line one\nline two\",,\"\"\n");
+
+        assertEquals(Map.of("studentId", "1", "firstName", "Ana, Maria", "lastName", "O\"Neil", "email", "ana@example.com"), rows.next());
+        assertEquals(1, rows.getRowNumber());
+        assertEquals(Map.of("studentId", "2", "firstName", "Line one\nline two", "lastName", "", "email", ""), rows.next());
+        assertEquals(2, rows.getRowNumber());
+        assertNull(rows.next());
+    }
+
+    @Test
+    void csvBlankLinesAreSkipped() throws IOException {
+        StudentsBatch.CsvRowReader rows = csv("studentId,firstName\n\n1,Ana\n\n2,Ben");
+
+        assertEquals(Map.of("studentId", "1", "firstName", "Ana"), rows.next());
+        assertEquals(Map.of("studentId", "2", "firstName", "Ben"), rows.next());
+        assertNull(rows.next());
+    }
+
+    @Test
+    void csvRowsShorterThanTheHeaderLeaveColumnsOut() throws IOException {
+        StudentsBatch.CsvRowReader rows = csv("studentId,firstName,lastName\n3,Cai\n");
+
+        assertEquals(Map.of("studentId", "3", "firstName", "Cai"), rows.next());
+        assertNull(rows.next());
+    }
+
+    @Test
+    void emptyCsvHasNoRows() throws IOException {
+        assertNull(csv("").next());
+        assertNull(csv("studentId,firstName\n").next());
+    }
+
+    @Test
+    void countRowsSkipsTheCsvHeaderAndBlankLines() {
+        assertEquals(0, StudentsBatch.countRows("", true, 10));
+        assertEquals(0, StudentsBatch.countRows("studentId,firstName\n", true, 10));
+        assertEquals(2, StudentsBatch.countRows("studentId,firstName\n1,Ana\n\n   \n2,Ben", true, 10));
+        assertEquals(2, StudentsBatch.countRows("{\"studentId\":1}\n\n{\"studentId\":2}\n", false, 10));
+    }
+
+    @Test
+    void countRowsCountsQuotedFieldsByTheirLines() {
+        // Quoted commas and doubled quotes do not add rows, a quoted line break counts as one more row
+        assertEquals(1, StudentsBatch.countRows("studentId,firstName\n1,\"Ana, \"\"Maria\"\"\"\n", true, 10));
+        assertEquals(2, StudentsBatch.countRows("studentId,firstName\n1,\"Line one\nline two\"\n", true, 10));
+    }
+
+    @Test
+    void countRowsStopsOnceTheLimitIsExceeded() {
+        StringBuilder body = new StringBuilder("studentId\n");
+        for (int i = 0; i < 1000; i++)
+            body.append(i).append('\n');
+
+        assertEquals(6, StudentsBatch.countRows(body.toString(), true, 5));
+        assertEquals(1000, StudentsBatch.countRows(body.toString(), true, 1000));
+    }
+
+    private static StudentsBatch.CsvRowReader csv(String body) {
+        return new StudentsBatch.CsvRowReader(new BufferedReader(new StringReader(body)));
+    }
+}
@@ -10,6 +10,7 @@ import Header from "../../components/Header";
 import UseAnimations from 'react-useanimations';
 import loading from 'react-useanimations/lib/loading';
 import Loader from "../../components/Loader";
+import { responseBody } from "../../utils/responseBody";
 
 const Friends = () => {
 	const theme = useTheme();
@@ -23,7 +24,7 @@ const Friends = () => {
 				"https://" + process.env.REACT_APP_REST_API_ID + ".execute-api.us-east-1.amazonaws.com/ProductionStage/GetFriendList?steamid="
 				+ JSON.parse(localStorage.getItem("steam_id"))
 			);
-			setFriendsList(JSON.parse(response.data.body));
+			setFriendsList(responseBody(response));
 			setInfoLoaded(true);
 		} catch (error) {
 			console.log(error);
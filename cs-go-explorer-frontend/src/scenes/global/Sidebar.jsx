@@ -20,6 +20,7 @@ import { tokens } from "../../theme";
 import SidebarItem from "../../components/SidebarItem";
 import SidebarBackgroundImage from "../../assets/images/backgrounds/sidebar_and_tables_background.jpg";
 import Loader from "../../components/Loader";
+import { responseBody } from "../../utils/responseBody";
 
 const Sidebar = () => {
 	const theme = useTheme();
@@ -48,7 +49,7 @@ const Sidebar = () => {
 				".execute-api.us-east-1.amazonaws.com/ProductionStage/GetPlayerSummaries?steamid="
 				+ JSON.parse(localStorage.getItem("steam_id"))
 			);
-			setProfile(JSON.parse(response.data.body));
+			setProfile(responseBody(response));
 			setInfoLoaded(true);
 		} catch (error) {
 			console.log(error);
@@ -14,6 +14,7 @@ import PieChartOutlineOutlinedIcon from "@mui/icons-material/PieChartOutlineOutl
 import UseAnimations from 'react-useanimations';
 import loading from 'react-useanimations/lib/loading';
 import Loader from "../../components/Loader";
+import { responseBody } from "../../utils/responseBody";
 
 function chartReducer(chartState, action) {
 	switch (action.type) {
@@ -60,7 +61,7 @@ const MapStats = () => {
 				".execute-api.us-east-1.amazonaws.com/ProductionStage/GetUserStatsForGame?steamid="
 				+ JSON.parse(localStorage.getItem("steam_id"))
 			);
-			setUserStats(reformatUserStatsJson(JSON.parse(response.data.body)));
+			setUserStats(reformatUserStatsJson(responseBody(response)));
 		} catch (error) {
 			console.log(error);
 		}
@@ -5,6 +5,7 @@ import { motion } from "framer-motion";
 import axios from "axios";
 import { muiPaginationCSS, tokens } from "../../theme";
 import Loader from "../../components/Loader";
+import { responseBody } from "../../utils/responseBody";
 
 const News = () => {
 	const theme = useTheme();
@@ -32,8 +33,8 @@ const News = () => {
 				process.env.REACT_APP_REST_API_ID +
 				".execute-api.us-east-1.amazonaws.com/ProductionStage/GetNewsForApp"
 			);
-			setNews(JSON.parse(response.data.body).appnews.newsitems);
-			getHtmlTags(JSON.parse(response.data.body).appnews.newsitems);
+			setNews(responseBody(response).appnews.newsitems);
+			getHtmlTags(responseBody(response).appnews.newsitems);
 			setInfoLoaded(true);
 		} catch (error) {
 			console.log(error);
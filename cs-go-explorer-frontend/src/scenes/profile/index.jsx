@@ -5,6 +5,7 @@ import axios from "axios";
 import { tokens } from "../../theme";
 import {VolumeOff as VolumeOffIcon, VolumeUp as VolumeUpIcon} from "@mui/icons-material";
 import Loader from "../../components/Loader";
+import { responseBody } from "../../utils/responseBody";
 
 const StatHeader = ({ title, textColor }) => {
 	return (
@@ -88,8 +89,8 @@ const Profile = () => {
 				".execute-api.us-east-1.amazonaws.com/ProductionStage/GetUserStatsForGame?steamid="
 				+ JSON.parse(localStorage.getItem("steam_id"))
 			);
-			setProfileData(JSON.parse(profileDataResponse.data.body));
-			setUserStats(reformatGeneralStatsJson(JSON.parse(userStatsResponse.data.body)));
+			setProfileData(responseBody(profileDataResponse));
+			setUserStats(reformatGeneralStatsJson(responseBody(userStatsResponse)));
 		} catch (error) {
 			console.log(error);
 		}
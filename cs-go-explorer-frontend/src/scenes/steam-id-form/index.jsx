@@ -7,6 +7,7 @@ import loading from "react-useanimations/lib/loading";
 import UseAnimations from "react-useanimations";
 import { VolumeUp as VolumeUpIcon, VolumeOff as VolumeOffIcon } from '@mui/icons-material';
 import { muiTextFieldCSS, tokens } from "../../theme";
+import { responseBody } from "../../utils/responseBody";
 
 const SteamIdForm = ({ userAccepted, userDenied}) => {
 	const theme = useTheme();
@@ -46,7 +47,7 @@ const SteamIdForm = ({ userAccepted, userDenied}) => {
 				".execute-api.us-east-1.amazonaws.com/ProductionStage/GetUserStatsForGame?steamid="
 				+ inputSteamId
 			).then(response => {
-				checkIfCsGoStatsExist(JSON.parse(response.data.body), inputSteamId);
+				checkIfCsGoStatsExist(responseBody(response), inputSteamId);
 			}).catch(() => {
 				setInvalidSteamIdMessage("This Steam ID does not exist.")
 			})
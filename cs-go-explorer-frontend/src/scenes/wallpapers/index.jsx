@@ -10,19 +10,21 @@ import axios from "axios";
 import { tokens} from "../../theme";
 import { saveAs } from "file-saver";
 import Loader from "../../components/Loader";
+import { responseBody } from "../../utils/responseBody";
 
 const Wallpapers = () => {
 	const theme = useTheme();
 	const colors = tokens(theme.palette.mode);
 	const [infoLoaded, setInfoLoaded] = useState(false);
 	const [wallpapers, setWallpapers] = useState([]);
+	const thumbnailWidth = 640;
 
-	const Image = ({ imageUrl, index }) => {
+	const Image = ({ imageUrl, originalUrl, index }) => {
 		return (
 			<ImageListItem key={index} style={{ marginRight: "0.5vw" }}>
 				<img
 					id={imageUrl}
-					src={`${imageUrl}?w=164&h=164&fit=crop&auto=format`}
+					src={imageUrl}
 					alt="cs-go-image"
 					loading="lazy"
 					className="wallpaper"
@@ -56,7 +58,7 @@ const Wallpapers = () => {
 							fillColor={colors.steamColors[6]}
 							strokeColor="white"
 							className="wallpapers-icons"
-							onClick={() => saveImage(imageUrl)}
+							onClick={() => saveImage(originalUrl)}
 						/>
 					</Box>
 				</Box>
@@ -66,12 +68,24 @@ const Wallpapers = () => {
 
 	const getWallpapers = async () => {
 		try {
-			const response = await axios.get(
-				"https://" +
-				process.env.REACT_APP_REST_API_ID +
-				".execute-api.us-east-1.amazonaws.com/ProductionStage/GetCsGoWallpapers"
-			);
-			setWallpapers(JSON.parse(response.data.body));
+			let wallpaperUrls = [];
+			let offset = 0;
+			while (offset !== undefined) {
+				const response = await axios.get(
+					"https://" +
+					process.env.REACT_APP_REST_API_ID +
+					".execute-api.us-east-1.amazonaws.com/ProductionStage/GetCsGoWallpapers",
+					{ params: { offset: offset, limit: 1000, width: thumbnailWidth } }
+				);
+				const page = responseBody(response);
+				// Thumbnails are shown in the gallery, while the originals are downloaded
+				wallpaperUrls = wallpaperUrls.concat(page.items.map((imageUrl, index) => ({
+					imageUrl: imageUrl,
+					originalUrl: page.originals ? page.originals[index] : imageUrl
+				})));
+				offset = page.nextOffset;
+			}
+			setWallpapers(wallpaperUrls);
 			setInfoLoaded(true);
 		} catch (error) {
 			console.log(error);
@@ -81,7 +95,7 @@ const Wallpapers = () => {
 	const saveImage = (imageUrl) => {
 		const imageExtension = imageUrl.toString().match("\\.\\w{3,4}($|\\?)");
 		(async () => {
-			let name = 'cs-go-wallpaper' + Math.floor(Math.random() * 900000) + 100000 + imageExtension[0];
+			let name = 'cs-go-wallpaper' + Math.floor(Math.random() * 900000) + 100000 + imageExtension[0].replace("?", "");
 			let blob = await fetch(imageUrl).then((response) => response.blob());
 			saveAs(blob, name);
 		})();
@@ -99,8 +113,8 @@ const Wallpapers = () => {
 				<Box display="flex" flexDirection="column">
 					<Header title="4k Wallpapers" subtitle="Explore and download 4k wallpapers"/>
 					<ImageList sx={{ width: "100%", height: "79vh" }} cols={5} gap={40}>
-						{wallpapers?.map((imageUrl, index) => (
-							<Image imageUrl={imageUrl} key={index}/>
+						{wallpapers?.map((wallpaper, index) => (
+							<Image imageUrl={wallpaper.imageUrl} originalUrl={wallpaper.originalUrl} key={index}/>
 						))}
 					</ImageList>
 				</Box>
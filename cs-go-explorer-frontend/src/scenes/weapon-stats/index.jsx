@@ -11,6 +11,7 @@ import PieChartOutlineOutlinedIcon from "@mui/icons-material/PieChartOutlineOutl
 import axios from "axios";
 import Header from "../../components/Header";
 import Loader from "../../components/Loader";
+import { responseBody } from "../../utils/responseBody";
 
 function chartReducer(chartState, action) {
 	switch (action.type) {
@@ -65,7 +66,7 @@ const WeaponStats = () => {
 				".execute-api.us-east-1.amazonaws.com/ProductionStage/GetUserStatsForGame?steamid="
 				+ JSON.parse(localStorage.getItem("steam_id"))
 			);
-			setUserStats(reformatUserStatsJson(JSON.parse(response.data.body)));
+			setUserStats(reformatUserStatsJson(responseBody(response)));
 		} catch (error) {
 			console.log(error);
 		}
@@ -0,0 +1,9 @@
+/**
+ * Reads the payload of a back-end response. The payload is sent as plain JSON, or wrapped
+ * in the legacy {"body": "..."} envelope when the back-end runs with RESPONSE_ENVELOPE enabled.
+ * Throws if the response is not JSON, e.g. when the Steam API has no stats for a private profile.
+ */
+export const responseBody = (response) => {
+	const data = typeof response.data === "string" ? JSON.parse(response.data) : response.data;
+	return data !== null && typeof data.body === "string" ? JSON.parse(data.body) : data;
+};